@@ -0,0 +1,66 @@
+package sim.core;
+
+/**
+ * A frozen compressed-sparse-row view of a circuit's wires, one row per gate.
+ *
+ * <p>Rows are indexed by topological position (the index into {@link Circuit#topologicalOrder()}),
+ * and so are the far ends of the edges. Row {@code g} holds edges {@code start(g) .. end(g)}; for
+ * each edge {@code e}:
+ * - {@link #target(int)} is the gate at the other end
+ * - {@link #pin(int)} is the pin on row gate {@code g}
+ * - {@link #targetPin(int)} is the pin on the target gate
+ *
+ * <p>In a fan-out view the row gate drives the target; in a fan-in view the target drives the row
+ * gate, and each row is sorted by target position so the last entry for a pin is the wire
+ * {@link Circuit#propagate()} lets win. Storage is three parallel arrays, about 6 bytes per wire.
+ * A view is immutable and does not follow later edits; ask the circuit for a new one.
+ */
+public final class Adjacency {
+
+    final int[] offsets;
+    final int[] targets;
+    final byte[] pins;
+    final byte[] targetPins;
+
+    Adjacency(int[] offsets, int[] targets, byte[] pins, byte[] targetPins) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.pins = pins;
+        this.targetPins = targetPins;
+    }
+
+    /** Number of rows (gates). */
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    /** Number of edges (wires). */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /** First edge of row {@code gate}. */
+    public int start(int gate) {
+        return offsets[gate];
+    }
+
+    /** One past the last edge of row {@code gate}. */
+    public int end(int gate) {
+        return offsets[gate + 1];
+    }
+
+    /** Topological position of the gate at the other end of {@code edge}. */
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    /** Pin of {@code edge} on the row gate. */
+    public int pin(int edge) {
+        return pins[edge];
+    }
+
+    /** Pin of {@code edge} on the target gate. */
+    public int targetPin(int edge) {
+        return targetPins[edge];
+    }
+}
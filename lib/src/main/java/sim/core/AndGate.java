@@ -1,7 +1,7 @@
 package sim.core;
 
 /**
- * A 2-input AND logic gate.
+ * An N-input AND logic gate.
  * 
  * <p>An AND gate outputs true only when ALL of its inputs are true.
  * The truth table for a 2-input AND gate is:
@@ -14,32 +14,48 @@ package sim.core;
  * true    | true    | true
  * </pre>
  * 
- * <p>This gate has exactly 2 inputs and 1 output.
+ * <p>The default is 2 inputs; {@link #AndGate(String, int)} takes any number from 0 to
+ * {@value Gate#MAX_PINS}. The packed inputs are tested as one bit mask, so a wide gate costs the
+ * same to evaluate as a 2-input one. This gate has 1 output.
  * 
  * @author Digital Logic Simulator
  * @version 1.0
  */
 public class AndGate extends Gate {
     
+    /** Packed inputs with every pin set */
+    private final long allInputs;
+    
     /**
      * Constructs a new 2-input AND gate with the specified ID.
      * 
      * @param id unique identifier for this gate
      */
     public AndGate(String id) {
-        super(id, 2, 1);
+        this(id, 2);
+    }
+    
+    /**
+     * Constructs a new N-input AND gate with the given number of inputs.
+     * 
+     * @param id unique identifier for this gate
+     * @param numInputs number of input pins, 0 to {@value Gate#MAX_PINS}
+     * @throws IllegalArgumentException if the input count is out of range
+     */
+    public AndGate(String id, int numInputs) {
+        super(id, numInputs, 1);
+        this.allInputs = mask(numInputs);
     }
     
     /**
      * Evaluates the AND gate logic.
      * 
-     * <p>Sets the output to true only if both inputs are true.
-     * The output is computed as: output = input[0] AND input[1]
+     * <p>Sets the output to true only if every input is true, i.e. the packed inputs equal the
+     * mask of all input pins. With no inputs the output is true.
      */
     @Override
     public void evaluate() {
-        // AND logic: output is true only if ALL inputs are true
-        boolean result = inputs.get(0) && inputs.get(1);
-        outputs.set(0, result);
+        // AND logic: output is true only if ALL inputs are true (all pin bits set)
+        outputBits = inputBits == allInputs ? 1L : 0L;
     }
 }
@@ -1,12 +1,18 @@
 package sim.core;
 
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
+
+import sim.engine.Aig;
+import sim.engine.CompiledCircuit;
+import sim.engine.EventDrivenSimulator;
+import sim.engine.FourValuedSimulator;
+import sim.engine.LutNetwork;
 
 public class BenchMain {
 
     public static void main(String[] args) {
-        // Args can be "sizes=100,200,500,1000,2000 runs=500 repeats=5 warmup=200"
+        // Args can be "sizes=100,200,500,1000,2000 runs=500 repeats=5 warmup=200 engine=circuit|compiled|event|fourvalued|aig|lut
+        // circuit=chain|subtractor"
         // or positional: "<sizesCSV> <runs> <repeats> <warmup>"
         Map<String,String> kv = parseKeyVals(args);
 
@@ -14,24 +20,42 @@ public class BenchMain {
         int runs        = parseIntOr(kv.getOrDefault("runs",    argOr(args, 1, "500")),  500);
         int repeats     = parseIntOr(kv.getOrDefault("repeats", argOr(args, 2, "5")),      5);
         int warmup      = parseIntOr(kv.getOrDefault("warmup",  argOr(args, 3, "200")),  200);
+        String engine   = kv.getOrDefault("engine", "circuit");
+        if (!ENGINES.contains(engine)) {
+            throw new IllegalArgumentException(
+                "Unknown engine '" + engine + "'. Valid engines: " + String.join(", ", ENGINES)
+            );
+        }
+        // A NOT chain folds to a single literal in an AIG and to one trivial LUT, so those engines
+        // default to a subtractor, whose carry chain keeps real logic in both
+        boolean structural = engine.equals("aig") || engine.equals("lut");
+        String shape    = kv.getOrDefault("circuit", structural ? "subtractor" : "chain");
+        if (!shape.equals("chain") && !shape.equals("subtractor")) {
+            throw new IllegalArgumentException("Unknown circuit '" + shape + "'. Valid circuits: chain, subtractor");
+        }
+        if (structural && shape.equals("chain")) {
+            throw new IllegalArgumentException(
+                "engine=" + engine + " reduces a NOT chain to a single literal; use circuit=subtractor"
+            );
+        }
 
         int[] sizes = parseCSVInts(sizesCSV);
 
-        System.out.printf("BENCH: sizes=%s runs=%d repeats=%d warmup=%d%n",
-                Arrays.toString(sizes), runs, repeats, warmup);
+        System.out.printf("BENCH: sizes=%s runs=%d repeats=%d warmup=%d engine=%s circuit=%s%n",
+                Arrays.toString(sizes), runs, repeats, warmup, engine, shape);
 
         // Optional: do a short global warm-up on a medium circuit to stabilize JIT
         globalWarmup(1000, 200);
 
         for (int gates : sizes) {
-            Circuit circuit = buildNotChain(gates);
+            Circuit circuit = shape.equals("chain") ? buildNotChain(gates) : buildSubtractor(gates);
             double[] totals = new double[repeats];
 
             // PER-SIZE warm-up (important to avoid comparing a cold vs hot size)
-            timePropagate(circuit, /*runs*/ Math.max(warmup, 50), /*warmup*/ 0);
+            time(circuit, engine, /*runs*/ Math.max(warmup, 50));
 
             for (int r = 0; r < repeats; r++) {
-                double totalMs = timePropagate(circuit, runs, 0);
+                double totalMs = time(circuit, engine, runs);
                 totals[r] = totalMs;
                 System.out.printf("TRIAL %d: gates=%d runs=%d totalMs=%.3f avgMs=%.4f%n",
                         (r + 1), gates, runs, totalMs, totalMs / runs);
@@ -67,35 +91,113 @@ public class BenchMain {
         return c;
     }
 
-    // --- Run propagate() many times; toggle input to avoid constant states ---
-    private static double timePropagate(Circuit c, int runs, int warmup) {
-        boolean val = false;
+    // --- Build a ripple subtractor A - B of about n gates (6 per bit), carry-in on IN ---
+    // Bit i: NB = NOT B, P = A XOR NB, S = P XOR C, C' = (A AND NB) OR (P AND C). With A and B left
+    // at 0 every P is 1, so toggling IN flips every difference bit and the final carry (output 0).
+    private static Circuit buildSubtractor(int n) {
+        Circuit c = new Circuit();
+        Gate carry = null;
+        List<Gate> sums = new ArrayList<>();
+        for (int i = 0, bits = Math.max(1, n / 6); i < bits; i++) {
+            NotGate nb = new NotGate("NB" + i);
+            XorGate p = new XorGate("P" + i);
+            XorGate sum = new XorGate("S" + i);
+            AndGate gen = new AndGate("G" + i);
+            AndGate prop = new AndGate("T" + i);
+            OrGate cout = new OrGate("C" + (i + 1));
+            for (Gate g : new Gate[]{nb, p, sum, gen, prop, cout}) c.addGate(g);
+            c.connectPrimaryInput("A" + i, p, 0);
+            c.connectPrimaryInput("A" + i, gen, 0);
+            c.connectPrimaryInput("B" + i, nb, 0);
+            c.addWire(new Wire(nb, 0, p, 1));
+            c.addWire(new Wire(nb, 0, gen, 1));
+            c.addWire(new Wire(p, 0, sum, 0));
+            c.addWire(new Wire(p, 0, prop, 0));
+            if (carry == null) {
+                c.connectPrimaryInput("IN", sum, 1);
+                c.connectPrimaryInput("IN", prop, 1);
+            } else {
+                c.addWire(new Wire(carry, 0, sum, 1));
+                c.addWire(new Wire(carry, 0, prop, 1));
+            }
+            c.addWire(new Wire(gen, 0, cout, 0));
+            c.addWire(new Wire(prop, 0, cout, 1));
+            sums.add(sum);
+            carry = cout;
+        }
+        c.addPrimaryOutput(carry);
+        for (Gate s : sums) c.addPrimaryOutput(s);
+        return c;
+    }
 
-        // Warm-up loop (ignored in timing)
-        for (int i = 0; i < warmup; i++) {
-            val = !val;
-            c.setPrimaryInput("IN", val);
-            c.propagate();
-            // consume output so JIT can't trivially drop work
-            boolean out = c.readPrimaryOutputs().get(0);
-            if (ThreadLocalRandom.current().nextInt(1) == -1 && out) System.out.print(""); // no-op
+    /** Engines accepted by {@code engine=} */
+    private static final List<String> ENGINES = List.of("circuit", "compiled", "event", "fourvalued", "aig", "lut");
+
+    /** One settle of an engine under test: drive IN, propagate, read the first output. */
+    private interface Step {
+        boolean run(boolean in);
+    }
+
+    // Outputs are folded in here so the JIT cannot drop the work
+    private static volatile int sink;
+
+    private static Step engine(Circuit c, String engine) {
+        switch (engine) {
+            case "circuit" -> {
+                int in = c.inputHandle("IN");
+                return v -> { c.set(in, v); c.propagate(); return c.get(0); };
+            }
+            case "compiled" -> {
+                CompiledCircuit cc = CompiledCircuit.compile(c);
+                int in = cc.inputIndex("IN");
+                return v -> { cc.setInput(in, v); cc.propagate(); return cc.getOutput(0); };
+            }
+            case "event" -> {
+                EventDrivenSimulator ev = new EventDrivenSimulator(c);
+                int in = ev.inputIndex("IN");
+                ev.propagate();
+                return v -> { ev.setInput(in, v); ev.propagate(); return ev.getOutput(0); };
+            }
+            case "fourvalued" -> {
+                FourValuedSimulator fv = new FourValuedSimulator(c);
+                int in = fv.inputIndex("IN");
+                return v -> { fv.setInput(in, Logic.of(v)); fv.propagate(); return fv.getOutput(0) == Logic.ONE; };
+            }
+            case "aig" -> {
+                Aig aig = Aig.of(c);
+                int in = aig.inputIndex("IN");
+                return v -> { aig.setInput(in, v); aig.propagate(); return aig.getOutput(0); };
+            }
+            case "lut" -> {
+                LutNetwork lut = LutNetwork.map(c);
+                int in = lut.inputIndex("IN");
+                return v -> { lut.setInput(in, v); lut.propagate(); return lut.getOutput(0); };
+            }
+            default -> throw new IllegalArgumentException(
+                "Unknown engine '" + engine + "'. Valid engines: " + String.join(", ", ENGINES)
+            );
         }
+    }
 
+    // --- Build the engine, then settle it runs times, toggling IN to avoid constant states ---
+    private static double time(Circuit c, String engine, int runs) {
+        Step step = engine(c, engine);
+        boolean val = false;
+        int ones = 0;
         long start = System.nanoTime();
         for (int i = 0; i < runs; i++) {
             val = !val;
-            c.setPrimaryInput("IN", val);
-            c.propagate();
-            boolean out = c.readPrimaryOutputs().get(0);
-            if (ThreadLocalRandom.current().nextInt(1) == -1 && out) System.out.print(""); // no-op
+            if (step.run(val)) ones++;
         }
         long end = System.nanoTime();
+        sink += ones;
         return (end - start) / 1_000_000.0; // ms
     }
 
     private static void globalWarmup(int gates, int iterations) {
         Circuit c = buildNotChain(gates);
-        timePropagate(c, iterations, 50);
+        time(c, "circuit", 50);
+        time(c, "circuit", iterations);
     }
 
     // --- Utilities ---
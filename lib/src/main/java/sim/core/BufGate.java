@@ -0,0 +1,30 @@
+package sim.core;
+
+/**
+ * A 1-input buffer: the output equals the input.
+ * 
+ * <p>Useful to give a signal its own gate, for example to expose an inner output pin as a
+ * primary output (which always reads pin 0 of a gate).
+ * 
+ * @author Digital Logic Simulator
+ * @version 1.0
+ */
+public class BufGate extends Gate {
+    
+    /**
+     * Constructs a new buffer with the specified ID.
+     * 
+     * @param id unique identifier for this gate
+     */
+    public BufGate(String id) {
+        super(id, 1, 1);
+    }
+    
+    /**
+     * Evaluates the buffer: output = input[0].
+     */
+    @Override
+    public void evaluate() {
+        outputBits = inputBits & 1L;
+    }
+}
@@ -1,6 +1,12 @@
 package sim.core;
+import sim.engine.CompiledCircuit;
+
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,11 +32,14 @@ public class Circuit {
     /** List of all gates in the circuit */
     private final List<Gate> gates;
     
-    /** List of all wires connecting gates in the circuit */
-    private final List<Wire> wires;
+    /** Handle of each primary input name, assigned in order of first connection */
+    private final Map<String, Integer> inputHandles;
+    
+    /** Primary input values by handle: bit h % 64 of word h / 64 */
+    private long[] inputValues = new long[1];
     
-    /** Map of primary input names to their boolean values */
-    private final Map<String, Boolean> primaryInputs;
+    /** Values set for names that are not connected yet; applied on connection */
+    private final Map<String, Boolean> pendingInputs;
     
     public record InputBinding(Gate gate, int pin) { }
 
@@ -40,26 +49,60 @@ public class Circuit {
     /** List of gates designated as primary outputs */
     private final List<Gate> primaryOutputs;
     
-    /** Maximum number of propagation iterations to prevent infinite loops */
-    private static final int MAX_ITERATIONS = 1000;
+    /** Handle of each primary output gate: its first position in primaryOutputs */
+    private final Map<Gate, Integer> outputHandles;
     
-// Fast edge representation for outgoing connections
-private static final class Edge {
-    final Gate to;
-    final int toPin;
-    final int fromPin;
-    Edge(Gate to, int toPin, int fromPin) {
-        this.to = to; this.toPin = toPin; this.fromPin = fromPin;
-    }
-}
+    /** Default bound on fixed-point iterations per feedback loop, used by {@code sim.engine.SccSimulator} */
+    public static final int MAX_ITERATIONS = 1000;
+    
+// Index of each gate, used only while editing; the hot paths work on positions
+private final Map<Gate, Integer> gateIndex;
+
+// Wires as gate indices and pins, in insertion order: the only record of the wires, 10 bytes each
+private int[] wireFrom = new int[16];
+private int[] wireTo = new int[16];
+private byte[] wireFromPin = new byte[16];
+private byte[] wireToPin = new byte[16];
+private int wireCount = 0;
+
+// CSR fan-out by topological position, rebuilt on first use after an edit (6 bytes per wire)
+private Adjacency fanOut;
+
+// Topological order kept up to date on every edit (Pearce-Kelly):
+// position[i] is the position of gate i, evalOrder[k] the gate at position k
+private Gate[] evalOrder = new Gate[16];
+private int[] position = new int[16];
+
+// Gate-index successors/predecessors (one entry per wire) for the local reorder searches.
+// Only one adjacency is kept at a time: these are dropped when fan-out is frozen and rebuilt
+// from it by the next edit, so a circuit being simulated holds 16 bytes per wire.
+private int[][] succ = new int[16][];
+private int[] succCount = new int[16];
+private int[][] pred = new int[16][];
+private int[] predCount = new int[16];
 
-// Index of each gate for O(1) lookups in topo/adjacency
-private final Map<Gate, Integer> gateIndex = new HashMap<>();
-private final List<List<Edge>> outgoing = new ArrayList<>();
+// Set once a wire closes a cycle; the order above is then no longer maintained
+private boolean cyclic = false;
 
-// Cache topo order; recompute only when structure changes
+// Unmodifiable copy handed out by topologicalOrder(); dropped whenever the order changes
 private List<Gate> topoOrderCache = null;
-private boolean structureDirty = true;
+
+// Scratch for the reorder searches: visit stamps, DFS stack and the two affected regions
+private int[] visited = new int[16];
+private int visitStamp = 0;
+private int[] stack = new int[16];
+private int[] forward = new int[16];
+private int[] backward = new int[16];
+
+// Primary input bindings flattened per handle; rebuilt after connectPrimaryInput
+private InputBinding[][] boundPins = new InputBinding[0][];
+private boolean bindingsDirty = false;
+
+// Clocked gates, in the order they were added
+private final List<SequentialGate> sequentialGates = new ArrayList<>();
+
+// Bit-parallel snapshot used by propagateBatch(); dropped on any structural edit
+private CompiledCircuit batchEngine;
 
 
     /**
@@ -67,10 +110,100 @@ private boolean structureDirty = true;
      */
     public Circuit() {
         this.gates = new ArrayList<>();
-        this.wires = new ArrayList<>();
-        this.primaryInputs = new HashMap<>();
+        this.inputHandles = new HashMap<>();
+        this.pendingInputs = new HashMap<>();
         this.primaryInputBindings = new LinkedHashMap<>();
         this.primaryOutputs = new ArrayList<>();
+        this.outputHandles = new IdentityHashMap<>();
+        this.gateIndex = new HashMap<>();
+    }
+
+    /**
+     * Loads a netlist in one pass: collections are presized, and the topological order is computed
+     * once with Kahn's algorithm instead of being repaired wire by wire.
+     */
+    Circuit(Netlist netlist) {
+        int n = netlist.gates.length;
+        int m = netlist.wireFrom.length;
+        int inputs = netlist.inputNames.length;
+        this.gates = new ArrayList<>(Arrays.asList(netlist.gates));
+        this.inputHandles = new HashMap<>(inputs * 2);
+        this.pendingInputs = new HashMap<>();
+        this.primaryInputBindings = new LinkedHashMap<>(inputs * 2);
+        this.primaryOutputs = new ArrayList<>(netlist.outputGates.length);
+        this.outputHandles = new IdentityHashMap<>(netlist.outputGates.length * 2);
+        this.gateIndex = new HashMap<>(n * 2);
+        growGateArrays(Math.max(n, 16));
+        growWireArrays(Math.max(m, 16));
+
+        Gate[] g = netlist.gates;
+        for (int i = 0; i < n; i++) {
+            if (gateIndex.put(g[i], i) != null) {
+                throw new IllegalArgumentException("Gate appears twice in netlist: " + g[i].getId());
+            }
+            if (g[i] instanceof SequentialGate seq) sequentialGates.add(seq);
+        }
+
+        // Exact-size successor/predecessor lists, then the wires themselves
+        for (int w = 0; w < m; w++) {
+            if (g[netlist.wireTo[w]] instanceof SequentialGate) continue;
+            succCount[netlist.wireFrom[w]]++;
+            predCount[netlist.wireTo[w]]++;
+        }
+        for (int i = 0; i < n; i++) {
+            succ[i] = new int[Math.max(succCount[i], 2)];
+            pred[i] = new int[Math.max(predCount[i], 2)];
+            succCount[i] = 0;
+            predCount[i] = 0;
+        }
+        for (int w = 0; w < m; w++) {
+            int from = netlist.wireFrom[w], to = netlist.wireTo[w];
+            recordWire(from, netlist.wireFromPin[w], to, netlist.wireToPin[w]);
+            if (g[to] instanceof SequentialGate) continue;
+            succ[from][succCount[from]++] = to;
+            pred[to][predCount[to]++] = from;
+        }
+        initialOrder(n);
+
+        for (int h = 0; h < inputs; h++) {
+            String name = netlist.inputNames[h];
+            int lo = netlist.bindingStart[h], hi = netlist.bindingStart[h + 1];
+            List<InputBinding> pins = new ArrayList<>(hi - lo);
+            for (int b = lo; b < hi; b++) pins.add(new InputBinding(g[netlist.bindingGate[b]], netlist.bindingPin[b]));
+            primaryInputBindings.put(name, pins);
+            inputHandles.put(name, h);
+        }
+        inputValues = new long[Math.max((inputs + 63) >>> 6, 1)];
+        bindingsDirty = true;
+
+        for (int k : netlist.outputGates) {
+            outputHandles.putIfAbsent(g[k], primaryOutputs.size());
+            primaryOutputs.add(g[k]);
+        }
+    }
+
+    /** Kahn's algorithm over the successor lists; gates left on a cycle go last and mark the circuit cyclic. */
+    private void initialOrder(int n) {
+        int[] indeg = Arrays.copyOf(predCount, n);
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        for (int i = 0; i < n; i++) if (indeg[i] == 0) queue[tail++] = i;
+        while (head < tail) {
+            int i = queue[head++];
+            for (int e = 0, c = succCount[i]; e < c; e++) {
+                int j = succ[i][e];
+                if (--indeg[j] == 0) queue[tail++] = j;
+            }
+        }
+        if (tail < n) {
+            cyclic = true;
+            for (int i = 0; i < n; i++) if (indeg[i] > 0) queue[tail++] = i;
+        }
+        for (int k = 0; k < n; k++) {
+            int i = queue[k];
+            position[i] = k;
+            evalOrder[k] = gates.get(i);
+        }
     }
     
     /**
@@ -80,78 +213,328 @@ private boolean structureDirty = true;
      * @return the index of the added gate in the circuit's gate list
      */
     public int addGate(Gate gate) {
+        thaw();
         gates.add(gate);
         int idx = gates.size() - 1;
         gateIndex.put(gate, idx);
-        outgoing.add(new ArrayList<>());
-        structureDirty = true;
+        if (gate instanceof SequentialGate seq) {
+            sequentialGates.add(seq);
+        }
+        if (idx == evalOrder.length) {
+            growGateArrays(idx * 2);
+        }
+        // A new gate has no edges yet, so the end of the order is always valid
+        evalOrder[idx] = gate;
+        position[idx] = idx;
+        succ[idx] = new int[2];
+        pred[idx] = new int[2];
+        topoOrderCache = null;
+        fanOut = null;
+        batchEngine = null;
         return idx;
     }
     
     
 
 /**
- * Returns a topological ordering of gates using Kahn's algorithm.
+ * Returns a topological ordering of gates.
+ * 
+ * <p>The order is maintained incrementally as gates and wires are added, so this only copies it.
+ * Wires into a {@link SequentialGate} do not constrain the order: a flip-flop's outputs come
+ * from its stored state, so feedback through one is not a cycle.
  * Throws IllegalStateException if the circuit contains a cycle.
  */
 public List<Gate> topologicalOrder() {
-    if (!structureDirty && topoOrderCache != null) {
-        return topoOrderCache;
+    if (cyclic) {
+        throw new IllegalStateException("Cycle detected");
+    }
+    if (topoOrderCache == null) {
+        topoOrderCache = Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(evalOrder, gates.size())));
     }
-    int n = gates.size();
-    int[] indeg = new int[n];
+    return topoOrderCache;
+}
 
-    // compute indegrees from outgoing lists
-    for (int i = 0; i < n; i++) {
-        for (Edge e : outgoing.get(i)) {
-            int j = gateIndex.get(e.to);
-            indeg[j]++;
-        }
+/**
+ * Reports whether some chain of wires leads from a gate back to itself.
+ * 
+ * @return true if {@link #topologicalOrder()} would throw
+ */
+public boolean hasCycle() {
+    return cyclic;
+}
+
+private void growGateArrays(int capacity) {
+    evalOrder = Arrays.copyOf(evalOrder, capacity);
+    position = Arrays.copyOf(position, capacity);
+    succ = Arrays.copyOf(succ, capacity);
+    succCount = Arrays.copyOf(succCount, capacity);
+    pred = Arrays.copyOf(pred, capacity);
+    predCount = Arrays.copyOf(predCount, capacity);
+    visited = Arrays.copyOf(visited, capacity);
+    stack = Arrays.copyOf(stack, capacity);
+    forward = Arrays.copyOf(forward, capacity);
+    backward = Arrays.copyOf(backward, capacity);
+}
+
+/**
+ * Records the edge from -> to and repairs the order if it now points backwards.
+ * 
+ * <p>Pearce-Kelly: only gates positioned between the two endpoints can be affected. A forward
+ * search from {@code to} collects the region that must move after {@code from} (reaching
+ * {@code from} itself means a cycle); a backward search from {@code from} collects the region
+ * that must stay before it. The union of their positions is then reassigned, backward region
+ * first, each region keeping its relative order. Cost is proportional to the affected region,
+ * not the whole circuit.
+ */
+private void insertEdge(int from, int to) {
+    succ[from] = push(succ[from], succCount[from]++, to);
+    pred[to] = push(pred[to], predCount[to]++, from);
+    if (cyclic) {
+        return;
+    }
+    int lower = position[to];
+    int upper = position[from];
+    if (lower > upper) {
+        return;
     }
+    int nf = from == to ? -1 : search(to, upper, from, true, forward);
+    if (nf < 0) {
+        cyclic = true;
+        topoOrderCache = null;
+        return;
+    }
+    int nb = search(from, lower, -1, false, backward);
+    reorder(nb, nf);
+}
 
-    java.util.ArrayDeque<Integer> q = new java.util.ArrayDeque<>();
-    for (int i = 0; i < n; i++) if (indeg[i] == 0) q.add(i);
+private static int[] push(int[] list, int size, int value) {
+    if (size == list.length) {
+        list = Arrays.copyOf(list, size * 2);
+    }
+    list[size] = value;
+    return list;
+}
 
-    java.util.ArrayList<Gate> order = new java.util.ArrayList<>(n);
-    int processed = 0;
-    while (!q.isEmpty()) {
-        int i = q.removeFirst();
-        order.add(gates.get(i));
-        processed++;
-        for (Edge e : outgoing.get(i)) {
-            int j = gateIndex.get(e.to);
-            if (--indeg[j] == 0) q.add(j);
+/**
+ * Depth-first search from {@code start} along successors ({@code forwardSearch}) or predecessors,
+ * visiting only gates whose position lies strictly inside the window bounded by {@code bound}
+ * (below it going forward, above it going backward). Visited gates go into {@code found}.
+ * 
+ * @return the number of gates found, or -1 if {@code target} was reached
+ */
+private int search(int start, int bound, int target, boolean forwardSearch, int[] found) {
+    int[][] adj = forwardSearch ? succ : pred;
+    int[] adjCount = forwardSearch ? succCount : predCount;
+    int stamp = ++visitStamp;
+    int count = 0;
+    int top = 0;
+    stack[top++] = start;
+    visited[start] = stamp;
+    while (top > 0) {
+        int g = stack[--top];
+        found[count++] = g;
+        int[] next = adj[g];
+        for (int e = 0, m = adjCount[g]; e < m; e++) {
+            int w = next[e];
+            if (w == target) {
+                return -1;
+            }
+            if (visited[w] == stamp) {
+                continue;
+            }
+            int p = position[w];
+            if (forwardSearch ? p < bound : p > bound) {
+                visited[w] = stamp;
+                stack[top++] = w;
+            }
         }
     }
+    return count;
+}
 
-    if (processed != n) {
-        throw new IllegalStateException("Cycle detected");
+private void reorder(int nb, int nf) {
+    // Sort each region by current position, packing (position, gate) into one long
+    long[] keys = new long[nb + nf];
+    for (int i = 0; i < nb; i++) keys[i] = (long) position[backward[i]] << 32 | backward[i];
+    for (int i = 0; i < nf; i++) keys[nb + i] = (long) position[forward[i]] << 32 | forward[i];
+    Arrays.sort(keys, 0, nb);
+    Arrays.sort(keys, nb, nb + nf);
+
+    int[] slots = new int[nb + nf];
+    for (int i = 0; i < keys.length; i++) slots[i] = (int) (keys[i] >>> 32);
+    Arrays.sort(slots);
+
+    // Backward region takes the lowest free slots, forward region the rest
+    for (int i = 0; i < keys.length; i++) {
+        int g = (int) keys[i];
+        int slot = slots[i];
+        position[g] = slot;
+        evalOrder[slot] = gates.get(g);
     }
-    topoOrderCache = order;
-    structureDirty = false;
-    return topoOrderCache;
+    topoOrderCache = null;
 }
 
 
-    
     /**
      * Adds a wire to the circuit.
      * 
      * @param wire the wire to add
      */
     public void addWire(Wire wire) {
-        wires.add(wire);
-    
         Integer fromIdx = gateIndex.get(wire.getFromGate());
         Integer toIdx   = gateIndex.get(wire.getToGate());
         if (fromIdx == null || toIdx == null) {
             throw new IllegalArgumentException("Wire connects a gate not in this circuit");
         }
-        outgoing.get(fromIdx).add(new Edge(wire.getToGate(), wire.getToPin(), wire.getFromPin()));
-        structureDirty = true;
+        thaw();
+        recordWire(fromIdx, wire.getFromPin(), toIdx, wire.getToPin());
+        if (!(wire.getToGate() instanceof SequentialGate)) {
+            insertEdge(fromIdx, toIdx);
+        }
+        fanOut = null;
+        batchEngine = null;
     }
     
     
+    private void recordWire(int from, int fromPin, int to, int toPin) {
+        if (wireCount == wireFrom.length) {
+            growWireArrays(wireCount * 2);
+        }
+        wireFrom[wireCount] = from;
+        wireTo[wireCount] = to;
+        wireFromPin[wireCount] = (byte) fromPin;
+        wireToPin[wireCount] = (byte) toPin;
+        wireCount++;
+    }
+
+    /** Rebuilds the successor/predecessor lists from the frozen fan-out table before an edit. */
+    private void thaw() {
+        if (succ != null) {
+            return;
+        }
+        int n = gates.size();
+        int capacity = evalOrder.length;
+        int[] at = new int[n];
+        for (int i = 0; i < n; i++) at[position[i]] = i;
+        int[] offsets = fanOut.offsets;
+        int[] targets = fanOut.targets;
+
+        succCount = new int[capacity];
+        predCount = new int[capacity];
+        for (int k = 0; k < n; k++) {
+            for (int e = offsets[k]; e < offsets[k + 1]; e++) {
+                if (evalOrder[targets[e]] instanceof SequentialGate) continue;
+                succCount[at[k]]++;
+                predCount[at[targets[e]]]++;
+            }
+        }
+        succ = new int[capacity][];
+        pred = new int[capacity][];
+        for (int i = 0; i < n; i++) {
+            succ[i] = new int[Math.max(succCount[i], 2)];
+            pred[i] = new int[Math.max(predCount[i], 2)];
+            succCount[i] = 0;
+            predCount[i] = 0;
+        }
+        for (int k = 0; k < n; k++) {
+            int from = at[k];
+            for (int e = offsets[k]; e < offsets[k + 1]; e++) {
+                if (evalOrder[targets[e]] instanceof SequentialGate) continue;
+                int to = at[targets[e]];
+                succ[from][succCount[from]++] = to;
+                pred[to][predCount[to]++] = from;
+            }
+        }
+    }
+
+    private void growWireArrays(int capacity) {
+        wireFrom = Arrays.copyOf(wireFrom, capacity);
+        wireTo = Arrays.copyOf(wireTo, capacity);
+        wireFromPin = Arrays.copyOf(wireFromPin, capacity);
+        wireToPin = Arrays.copyOf(wireToPin, capacity);
+    }
+
+    /**
+     * Returns the wires as a CSR fan-out table: row k lists the wires driven by gate k of
+     * {@link #topologicalOrder()}, in the order they were added.
+     * 
+     * @return an immutable snapshot of the current structure
+     * @throws IllegalStateException if the circuit contains a cycle
+     */
+    public Adjacency fanOut() {
+        freezeAdjacency();
+        return fanOut;
+    }
+
+    /**
+     * Returns the wires as a CSR fan-in table: row k lists the wires into gate k of
+     * {@link #topologicalOrder()}, ordered by source position.
+     * 
+     * <p>The table is derived from {@link #fanOut()} on every call and not kept by the circuit.
+     * 
+     * @return an immutable snapshot of the current structure
+     * @throws IllegalStateException if the circuit contains a cycle
+     */
+    public Adjacency fanIn() {
+        freezeAdjacency();
+        int n = gates.size();
+        int m = wireCount;
+        int[] outOffsets = fanOut.offsets;
+        int[] outTargets = fanOut.targets;
+
+        // Walk fan-out rows in position order so each fan-in row ends up sorted by source
+        int[] inOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) inOffsets[outTargets[e] + 1]++;
+        for (int k = 0; k < n; k++) inOffsets[k + 1] += inOffsets[k];
+        int[] fill = Arrays.copyOf(inOffsets, n);
+        int[] inTargets = new int[m];
+        byte[] inPins = new byte[m];
+        byte[] inTargetPins = new byte[m];
+        for (int k = 0; k < n; k++) {
+            for (int e = outOffsets[k]; e < outOffsets[k + 1]; e++) {
+                int slot = fill[outTargets[e]]++;
+                inTargets[slot] = k;
+                inPins[slot] = fanOut.targetPins[e];
+                inTargetPins[slot] = fanOut.pins[e];
+            }
+        }
+        return new Adjacency(inOffsets, inTargets, inPins, inTargetPins);
+    }
+
+    private void freezeAdjacency() {
+        if (cyclic) {
+            throw new IllegalStateException("Cycle detected");
+        }
+        if (fanOut != null) {
+            return;
+        }
+        int n = gates.size();
+        int m = wireCount;
+
+        // Fan-out: counting sort of the wires by source position, stable in insertion order
+        int[] outOffsets = new int[n + 1];
+        for (int w = 0; w < m; w++) outOffsets[position[wireFrom[w]] + 1]++;
+        for (int k = 0; k < n; k++) outOffsets[k + 1] += outOffsets[k];
+        int[] fill = Arrays.copyOf(outOffsets, n);
+        int[] outTargets = new int[m];
+        byte[] outPins = new byte[m];
+        byte[] outTargetPins = new byte[m];
+        for (int w = 0; w < m; w++) {
+            int slot = fill[position[wireFrom[w]]]++;
+            outTargets[slot] = position[wireTo[w]];
+            outPins[slot] = wireFromPin[w];
+            outTargetPins[slot] = wireToPin[w];
+        }
+
+        fanOut = new Adjacency(outOffsets, outTargets, outPins, outTargetPins);
+
+        // The edit-time lists are rebuilt from fan-out by thaw() if the structure changes again
+        succ = null;
+        pred = null;
+        succCount = null;
+        predCount = null;
+    }
+
     /**
      * Binds a primary input name to a specific gate's input pin.
      * 
@@ -171,9 +554,7 @@ public List<Gate> topologicalOrder() {
             throw new IllegalArgumentException("Invalid pin " + pin + " for gate " + gate.getId());
         }
         
-        // Find the gate index
-        int gateIndex = gates.indexOf(gate);
-        if (gateIndex == -1) {
+        if (!gateIndex.containsKey(gate)) {
             throw new IllegalArgumentException("Gate not found in circuit: " + gate.getId());
         }
         
@@ -181,18 +562,107 @@ public List<Gate> topologicalOrder() {
         primaryInputBindings.computeIfAbsent(name, k -> new ArrayList<>())
                            .add(new InputBinding(gate, pin));
         
-        // Initialize the primary input value to false
-        primaryInputs.putIfAbsent(name, false);
+        // A new name gets the next handle; its value starts false unless set earlier
+        if (!inputHandles.containsKey(name)) {
+            int handle = inputHandles.size();
+            inputHandles.put(name, handle);
+            if ((handle >>> 6) >= inputValues.length) {
+                inputValues = Arrays.copyOf(inputValues, inputValues.length * 2);
+            }
+            Boolean pending = pendingInputs.remove(name);
+            if (pending != null) set(handle, pending);
+        }
+        bindingsDirty = true;
+        batchEngine = null;
     }
     
     /**
      * Sets the value of a primary input.
      * 
+     * <p>A name that is not connected yet keeps its value until it is.
+     * 
      * @param name the name of the primary input
      * @param value the boolean value to set
      */
     public void setPrimaryInput(String name, boolean value) {
-        primaryInputs.put(name, value);
+        Integer handle = inputHandles.get(name);
+        if (handle == null) {
+            pendingInputs.put(name, value);
+        } else {
+            set(handle, value);
+        }
+    }
+    
+    /**
+     * Returns the integer handle of a primary input.
+     * 
+     * <p>Handles are dense, start at 0 and follow the key order of
+     * {@link #getPrimaryInputBindings()}. They stay valid for the life of the circuit.
+     * 
+     * @param name the name of the primary input
+     * @return the input handle
+     * @throws IllegalArgumentException if no input with that name is connected
+     */
+    public int inputHandle(String name) {
+        Integer handle = inputHandles.get(name);
+        if (handle == null) {
+            throw new IllegalArgumentException("Primary input not found: " + name);
+        }
+        return handle;
+    }
+    
+    /**
+     * Sets a primary input by handle.
+     * 
+     * @param inputHandle the handle from {@link #inputHandle(String)}
+     * @param value the boolean value to set
+     * @throws IllegalArgumentException if the handle is out of range
+     */
+    public void set(int inputHandle, boolean value) {
+        checkInputHandle(inputHandle);
+        long bit = 1L << inputHandle;
+        if (value) {
+            inputValues[inputHandle >>> 6] |= bit;
+        } else {
+            inputValues[inputHandle >>> 6] &= ~bit;
+        }
+    }
+    
+    /**
+     * Sets every primary input at once: handle h takes bit {@code h % 64} of {@code bits[h / 64]}.
+     * 
+     * @param bits packed input values, at least {@code ceil(getNumPrimaryInputs() / 64)} words
+     * @throws IllegalArgumentException if the array is too short
+     */
+    public void setInputs(long[] bits) {
+        int n = inputHandles.size();
+        int words = (n + 63) >>> 6;
+        if (bits.length < words) {
+            throw new IllegalArgumentException(
+                "Need " + words + " words for " + n + " primary inputs, got " + bits.length
+            );
+        }
+        System.arraycopy(bits, 0, inputValues, 0, words);
+        if ((n & 63) != 0) {
+            inputValues[words - 1] &= (1L << n) - 1;
+        }
+    }
+    
+    /**
+     * Gets the number of connected primary inputs.
+     * 
+     * @return the number of primary input handles
+     */
+    public int getNumPrimaryInputs() {
+        return inputHandles.size();
+    }
+    
+    private void checkInputHandle(int handle) {
+        if (handle < 0 || handle >= inputHandles.size()) {
+            throw new IllegalArgumentException(
+                "Input handle " + handle + " is out of range. Valid handles: 0 to " + (inputHandles.size() - 1)
+            );
+        }
     }
     
     /**
@@ -201,15 +671,20 @@ public List<Gate> topologicalOrder() {
      * @param gate the gate to designate as a primary output
      */
     public void addPrimaryOutput(Gate gate) {
-        if (!gates.contains(gate)) {
+        if (!gateIndex.containsKey(gate)) {
             throw new IllegalArgumentException("Gate not found in circuit: " + gate.getId());
         }
+        outputHandles.putIfAbsent(gate, primaryOutputs.size());
         primaryOutputs.add(gate);
+        batchEngine = null;
     }
     
     /**
      * Reads the values from all primary outputs.
      * 
+     * <p>Allocates a new list on every call; hot loops should prefer {@link #get(int)},
+     * {@link #readPrimaryOutputBits()} or one of the array/bit-set overloads.
+     * 
      * @return a list of boolean values from the primary outputs
      */
     public List<Boolean> readPrimaryOutputs() {
@@ -221,37 +696,323 @@ public List<Gate> topologicalOrder() {
     }
     
     /**
-     * Propagates signals through the circuit until stable or max iterations reached.
+     * Copies every primary output into a caller-supplied array, without allocating.
+     * 
+     * @param dst destination with at least {@code getPrimaryOutputs().size()} elements
+     * @throws IllegalArgumentException if the array is too short
+     */
+    public void readPrimaryOutputs(boolean[] dst) {
+        int n = primaryOutputs.size();
+        if (dst.length < n) {
+            throw new IllegalArgumentException("Need " + n + " elements for primary outputs, got " + dst.length);
+        }
+        for (int h = 0; h < n; h++) dst[h] = primaryOutputs.get(h).getOutput(0);
+    }
+    
+    /**
+     * Copies every primary output into a caller-supplied bit set (bit h = output handle h).
+     * Bits at or above the output count are left untouched.
+     * 
+     * @param dst destination bit set
+     */
+    public void readPrimaryOutputs(BitSet dst) {
+        for (int h = 0, n = primaryOutputs.size(); h < n; h++) {
+            dst.set(h, primaryOutputs.get(h).getOutput(0));
+        }
+    }
+    
+    /**
+     * Packs every primary output into one {@code long} (bit h = output handle h).
+     * 
+     * @return the packed outputs
+     * @throws IllegalStateException if the circuit has more than 64 primary outputs
+     */
+    public long readPrimaryOutputBits() {
+        int n = primaryOutputs.size();
+        if (n > 64) {
+            throw new IllegalStateException(n + " primary outputs do not fit in a long; use readOutputs(long[])");
+        }
+        long bits = 0L;
+        for (int h = 0; h < n; h++) {
+            if (primaryOutputs.get(h).getOutput(0)) bits |= 1L << h;
+        }
+        return bits;
+    }
+    
+    /**
+     * Returns the integer handle of a primary output: its position in {@link #getPrimaryOutputs()}.
+     * A gate added as an output more than once keeps the handle of its first position.
+     * 
+     * @param gate a gate registered with {@link #addPrimaryOutput(Gate)}
+     * @return the output handle
+     * @throws IllegalArgumentException if the gate is not a primary output
+     */
+    public int outputHandle(Gate gate) {
+        Integer handle = outputHandles.get(gate);
+        if (handle == null) {
+            throw new IllegalArgumentException("Gate is not a primary output: " + gate.getId());
+        }
+        return handle;
+    }
+    
+    /**
+     * Reads a primary output by handle.
+     * 
+     * @param outputHandle the handle from {@link #outputHandle(Gate)}
+     * @return the value of the output gate's pin 0
+     * @throws IllegalArgumentException if the handle is out of range
+     */
+    public boolean get(int outputHandle) {
+        if (outputHandle < 0 || outputHandle >= primaryOutputs.size()) {
+            throw new IllegalArgumentException(
+                "Output handle " + outputHandle + " is out of range. Valid handles: 0 to " + (primaryOutputs.size() - 1)
+            );
+        }
+        return primaryOutputs.get(outputHandle).getOutput(0);
+    }
+    
+    /**
+     * Reads every primary output at once: handle h goes to bit {@code h % 64} of {@code dst[h / 64]}.
+     * 
+     * @param dst destination, at least {@code ceil(getPrimaryOutputs().size() / 64)} words
+     * @throws IllegalArgumentException if the array is too short
+     */
+    public void readOutputs(long[] dst) {
+        int n = primaryOutputs.size();
+        int words = (n + 63) >>> 6;
+        if (dst.length < words) {
+            throw new IllegalArgumentException(
+                "Need " + words + " words for " + n + " primary outputs, got " + dst.length
+            );
+        }
+        for (int w = 0; w < words; w++) dst[w] = 0L;
+        for (int h = 0; h < n; h++) {
+            if (primaryOutputs.get(h).getOutput(0)) dst[h >>> 6] |= 1L << h;
+        }
+    }
+    
+    /**
+     * Propagates signals through the circuit in a single topological pass.
      * 
      * <p>This method:
      * 1. Copies primary input values to bound gate input pins
-     * 2. Evaluates all gates
-     * 3. Pushes outputs along wires to downstream inputs
-     * 4. Repeats until no changes occur or max iterations reached
+     * 2. Evaluates each gate once in topological order
+     * 3. Pushes each gate's outputs along its wires before the next gate runs
+     * 
+     * <p>Once the structure is unchanged since the previous call, this allocates nothing.
+     * 
+     * @throws IllegalStateException if the circuit contains a cycle
      */
     public void propagate() {
-        // 1) Apply primary inputs to bound pins (usually small; OK to use maps here)
-        for (Map.Entry<String, Boolean> entry : primaryInputs.entrySet()) {
-            List<InputBinding> bindings = primaryInputBindings.get(entry.getKey());
-            if (bindings != null) {
-                boolean val = entry.getValue();
-                for (InputBinding b : bindings) {
-                    b.gate().setInput(b.pin(), val);
-                }
+        // Array-indexed loops throughout: no iterators, no boxing, no allocation per call
+        freezeAdjacency();
+        if (bindingsDirty) {
+            rebuildBindings();
+        }
+
+        // 1) Apply primary inputs to bound pins, by handle
+        long[] values = inputValues;
+        for (int h = 0; h < boundPins.length; h++) {
+            boolean val = ((values[h >>> 6] >>> h) & 1L) != 0;
+            InputBinding[] pins = boundPins[h];
+            for (int b = 0; b < pins.length; b++) {
+                pins[b].gate().setInput(pins[b].pin(), val);
             }
         }
     
-        // 2) Evaluate once in topo order and push outputs along only each gate's outgoing edges
-        List<Gate> order = topologicalOrder();
-        for (Gate g : order) {
+        // 2) Evaluate once in topo order and push outputs along each gate's fan-out row
+        Gate[] order = evalOrder;
+        int[] offsets = fanOut.offsets;
+        int[] targets = fanOut.targets;
+        byte[] fromPins = fanOut.pins;
+        byte[] toPins = fanOut.targetPins;
+        for (int k = 0, n = gates.size(); k < n; k++) {
+            Gate g = order[k];
             g.evaluate();
-            int fromIdx = gateIndex.get(g);
-            for (Edge e : outgoing.get(fromIdx)) {
-                boolean outVal = g.getOutput(e.fromPin);
-                e.to.setInput(e.toPin, outVal);
+            for (int e = offsets[k], end = offsets[k + 1]; e < end; e++) {
+                order[targets[e]].setInput(toPins[e], g.getOutput(fromPins[e]));
             }
         }
     }
+
+    /**
+     * Evaluates a batch of input vectors, 64 at a time, and writes one output row per vector.
+     * 
+     * <p>Rows are packed like {@link #setInputs(long[])} and {@link #readOutputs(long[])}:
+     * - input row r occupies {@code inputs[r * inWords .. (r + 1) * inWords)}, where
+     *   {@code inWords = ceil(getNumPrimaryInputs() / 64)}
+     * - output row r occupies {@code outputs[r * outWords .. (r + 1) * outWords)}, where
+     *   {@code outWords = ceil(getPrimaryOutputs().size() / 64)}
+     * 
+     * <p>Each block of 64 rows is transposed into one 64-lane word per input, evaluated in a single
+     * bit-parallel pass of a {@link CompiledCircuit} snapshot, and transposed back. The snapshot is
+     * compiled on first use and kept until the structure changes. Input values set through
+     * {@link #set(int, boolean)} are neither read nor changed; gate pin values afterwards are
+     * unspecified until the next {@link #propagate()}.
+     * 
+     * @param inputs packed input rows
+     * @param outputs destination for packed output rows
+     * @param count number of vectors
+     * @throws IllegalArgumentException if either array is too short for {@code count} rows
+     * @throws IllegalStateException if the circuit contains a cycle
+     */
+    public void propagateBatch(long[] inputs, long[] outputs, int count) {
+        int inWords = (inputHandles.size() + 63) >>> 6;
+        int outWords = (primaryOutputs.size() + 63) >>> 6;
+        checkBatch(count, inputs.length, (long) count * inWords, outputs.length, (long) count * outWords, "words");
+
+        long[][] in = new long[inWords][64];
+        long[][] out = new long[outWords][64];
+        for (int base = 0; base < count; base += 64) {
+            int lanes = Math.min(64, count - base);
+            for (int j = 0; j < lanes; j++) {
+                int row = (base + j) * inWords;
+                for (int w = 0; w < inWords; w++) in[w][j] = inputs[row + w];
+            }
+            evaluateBlock(in, out, lanes);
+            for (int j = 0; j < lanes; j++) {
+                int row = (base + j) * outWords;
+                for (int w = 0; w < outWords; w++) outputs[row + w] = out[w][j];
+            }
+        }
+    }
+
+    /**
+     * Byte-oriented form of {@link #propagateBatch(long[], long[], int)} for memory-mapped or
+     * direct stimulus buffers.
+     * 
+     * <p>Each input row is {@code ceil(getNumPrimaryInputs() / 8)} bytes and each output row
+     * {@code ceil(getPrimaryOutputs().size() / 8)} bytes; handle h is bit {@code h % 8} of byte
+     * {@code h / 8}, independent of the buffers' byte order. Rows are read from {@code inputs}
+     * and written to {@code outputs} starting at their positions, and both positions advance past
+     * the batch.
+     * 
+     * @param inputs packed input rows
+     * @param outputs destination for packed output rows
+     * @param count number of vectors
+     * @throws IllegalArgumentException if either buffer has too few bytes remaining
+     * @throws IllegalStateException if the circuit contains a cycle
+     */
+    public void propagateBatch(ByteBuffer inputs, ByteBuffer outputs, int count) {
+        int inBytes = (inputHandles.size() + 7) >>> 3;
+        int outBytes = (primaryOutputs.size() + 7) >>> 3;
+        checkBatch(count, inputs.remaining(), (long) count * inBytes,
+                   outputs.remaining(), (long) count * outBytes, "bytes");
+
+        int inWords = (inBytes + 7) >>> 3;
+        int outWords = (outBytes + 7) >>> 3;
+        long[][] in = new long[inWords][64];
+        long[][] out = new long[outWords][64];
+        int inPos = inputs.position();
+        int outPos = outputs.position();
+        for (int base = 0; base < count; base += 64) {
+            int lanes = Math.min(64, count - base);
+            for (int j = 0; j < lanes; j++, inPos += inBytes) {
+                for (int w = 0; w < inWords; w++) {
+                    in[w][j] = getRowWord(inputs, inPos + 8 * w, Math.min(8, inBytes - 8 * w));
+                }
+            }
+            evaluateBlock(in, out, lanes);
+            for (int j = 0; j < lanes; j++, outPos += outBytes) {
+                for (int w = 0; w < outWords; w++) {
+                    putRowWord(outputs, outPos + 8 * w, Math.min(8, outBytes - 8 * w), out[w][j]);
+                }
+            }
+        }
+        inputs.position(inPos);
+        outputs.position(outPos);
+    }
+
+    private static void checkBatch(int count, long inHave, long inNeed, long outHave, long outNeed, String unit) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Batch count must be non-negative, got " + count);
+        }
+        if (inHave < inNeed) {
+            throw new IllegalArgumentException("Need " + inNeed + " input " + unit + " for " + count + " vectors, got " + inHave);
+        }
+        if (outHave < outNeed) {
+            throw new IllegalArgumentException("Need " + outNeed + " output " + unit + " for " + count + " vectors, got " + outHave);
+        }
+    }
+
+    /**
+     * Runs one block: {@code in[w][j]} is word w of input row j, {@code out[w][j]} word w of output row j.
+     * Rows at or above {@code lanes} are treated as zero on input; both arrays are transposed in place.
+     */
+    private void evaluateBlock(long[][] in, long[][] out, int lanes) {
+        CompiledCircuit engine = batchEngine;
+        if (engine == null) {
+            engine = batchEngine = CompiledCircuit.compile(this);
+        }
+        int numIn = engine.getNumInputs();
+        for (int w = 0; w < in.length; w++) {
+            long[] block = in[w];
+            Arrays.fill(block, lanes, 64, 0L);
+            transpose64(block);
+            // Row bits above the input count are ignored
+            for (int b = 0, h = w << 6; b < 64 && h < numIn; b++, h++) engine.setInputWord(h, block[b]);
+        }
+        engine.propagate();
+        int numOut = engine.getNumOutputs();
+        for (int w = 0; w < out.length; w++) {
+            long[] block = out[w];
+            for (int b = 0, h = w << 6; b < 64; b++, h++) block[b] = h < numOut ? engine.getOutputWord(h) : 0L;
+            transpose64(block);
+        }
+    }
+
+    /** Transposes a 64x64 bit matrix in place: bit c of a[r] swaps with bit r of a[c]. */
+    static void transpose64(long[] a) {
+        long m = 0x0000_0000_FFFF_FFFFL;
+        for (int j = 32; j != 0; j >>>= 1, m ^= m << j) {
+            for (int k = 0; k < 64; k = (k + j + 1) & ~j) {
+                long t = ((a[k] >>> j) ^ a[k + j]) & m;
+                a[k] ^= t << j;
+                a[k + j] ^= t;
+            }
+        }
+    }
+
+    private static long getRowWord(ByteBuffer buf, int at, int len) {
+        long word = 0L;
+        for (int i = 0; i < len; i++) word |= (buf.get(at + i) & 0xFFL) << (i << 3);
+        return word;
+    }
+
+    private static void putRowWord(ByteBuffer buf, int at, int len, long word) {
+        for (int i = 0; i < len; i++) buf.put(at + i, (byte) (word >>> (i << 3)));
+    }
+
+    /**
+     * Advances every {@link SequentialGate} by one clock cycle.
+     * 
+     * <p>This method:
+     * 1. Propagates, so every flip-flop input sees the current inputs and state
+     * 2. Latches all sequential gates together, as on one shared clock edge
+     * 3. Propagates again, so the outputs reflect the new state
+     * 
+     * <p>For long runs, {@code sim.engine.CycleSimulator} does the same with one evaluation
+     * per cycle.
+     * 
+     * @throws IllegalStateException if the circuit contains a cycle
+     */
+    public void clock() {
+        propagate();
+        for (int i = 0, n = sequentialGates.size(); i < n; i++) {
+            sequentialGates.get(i).clock();
+        }
+        propagate();
+    }
+
+    private void rebuildBindings() {
+        // Binding keys are in first-connection order, which is also handle order
+        boundPins = new InputBinding[primaryInputBindings.size()][];
+        int h = 0;
+        for (List<InputBinding> pins : primaryInputBindings.values()) {
+            boundPins[h++] = pins.toArray(new InputBinding[0]);
+        }
+        bindingsDirty = false;
+    }
     
     
     
@@ -282,12 +1043,80 @@ public List<Gate> topologicalOrder() {
         return Collections.unmodifiableList(primaryOutputs);
     }
     
+    /** @return the number of wires */
+    public int getNumWires() {
+        return wireCount;
+    }
+
     /**
-     * Gets the list of wires in the circuit.
+     * Gets the gate a wire reads from.
      * 
-     * @return the list of wires
+     * @param wire the wire index, in the order the wires were added
+     * @return the source gate's index in {@link #getGates()} (not its topological position)
+     * @throws IllegalArgumentException if the wire index is out of range
+     */
+    public int getWireFrom(int wire) {
+        return wireFrom[checkWire(wire)];
+    }
+
+    /**
+     * Gets the output pin a wire reads from.
+     * 
+     * @param wire the wire index
+     * @return the source gate's output pin
+     * @throws IllegalArgumentException if the wire index is out of range
+     */
+    public int getWireFromPin(int wire) {
+        return wireFromPin[checkWire(wire)];
+    }
+
+    /**
+     * Gets the gate a wire drives.
+     * 
+     * @param wire the wire index, in the order the wires were added
+     * @return the destination gate's index in {@link #getGates()} (not its topological position)
+     * @throws IllegalArgumentException if the wire index is out of range
+     */
+    public int getWireTo(int wire) {
+        return wireTo[checkWire(wire)];
+    }
+
+    /**
+     * Gets the input pin a wire drives.
+     * 
+     * @param wire the wire index
+     * @return the destination gate's input pin
+     * @throws IllegalArgumentException if the wire index is out of range
+     */
+    public int getWireToPin(int wire) {
+        return wireToPin[checkWire(wire)];
+    }
+
+    private int checkWire(int wire) {
+        if (wire < 0 || wire >= wireCount) {
+            throw new IllegalArgumentException(
+                "Wire index " + wire + " is out of range. Valid indices: 0 to " + (wireCount - 1)
+            );
+        }
+        return wire;
+    }
+
+    /**
+     * Gets the list of wires in the circuit, in the order they were added.
+     * 
+     * <p>The circuit stores wires as index arrays, not as the {@link Wire} objects passed to
+     * {@link #addWire(Wire)}, so every call creates new {@code Wire} objects: wires from two calls
+     * describe the same connections but are never the same instances, and each call costs
+     * O(wires) allocation. Code that only walks the structure should use {@link #getNumWires()}
+     * and the index accessors instead.
+     * 
+     * @return a new list of new wires
      */
     public List<Wire> getWires() {
-        return new ArrayList<>(wires);
+        List<Wire> wires = new ArrayList<>(wireCount);
+        for (int w = 0; w < wireCount; w++) {
+            wires.add(new Wire(gates.get(wireFrom[w]), wireFromPin[w], gates.get(wireTo[w]), wireToPin[w]));
+        }
+        return wires;
     }
 }
@@ -0,0 +1,303 @@
+package sim.core;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Assembles a large {@link Netlist} with constant-time validation per call.
+ *
+ * <p>Unlike editing a {@link Circuit} directly, nothing here keeps a topological order up to date
+ * or scans a list: gates get dense indices, wires and bindings are appended to primitive arrays
+ * sized from the hints, and all checks are index or pin range checks. Typical use:
+ *
+ * <pre>
+ * CircuitBuilder b = new CircuitBuilder(gateCount, wireCount);
+ * int first = b.addGates(gates);
+ * b.addWires(from, fromPin, to, toPin);
+ * b.connectPrimaryInput("A", first, 0);
+ * b.addPrimaryOutput(first + gateCount - 1);
+ * Circuit c = b.build().toCircuit();
+ * </pre>
+ *
+ * <p>Primary input handles follow first-connection order, as in {@link Circuit}.
+ */
+public final class CircuitBuilder {
+
+    private Gate[] gates;
+    private int gateCount;
+    private final Map<Gate, Integer> gateIndex;
+
+    private int[] wireFrom;
+    private byte[] wireFromPin;
+    private int[] wireTo;
+    private byte[] wireToPin;
+    private int wireCount;
+
+    private final Map<String, Integer> inputHandles = new HashMap<>();
+    private String[] inputNames = new String[8];
+    private int[] bindingHandle = new int[8];
+    private int[] bindingGate = new int[8];
+    private byte[] bindingPin = new byte[8];
+    private int bindingCount;
+
+    private int[] outputGates = new int[8];
+    private int outputCount;
+
+    /** Creates a builder with small default capacities. */
+    public CircuitBuilder() {
+        this(16, 16);
+    }
+
+    /**
+     * Creates a builder sized for the expected netlist; exceeding the hints only costs regrowth.
+     *
+     * @param expectedGates expected number of gates
+     * @param expectedWires expected number of wires
+     * @throws IllegalArgumentException if a hint is negative
+     */
+    public CircuitBuilder(int expectedGates, int expectedWires) {
+        if (expectedGates < 0 || expectedWires < 0) {
+            throw new IllegalArgumentException("Capacity hints must be non-negative");
+        }
+        gates = new Gate[Math.max(expectedGates, 1)];
+        gateIndex = new IdentityHashMap<>(Math.max(expectedGates, 1));
+        wireFrom = new int[Math.max(expectedWires, 1)];
+        wireFromPin = new byte[wireFrom.length];
+        wireTo = new int[wireFrom.length];
+        wireToPin = new byte[wireFrom.length];
+    }
+
+    /**
+     * Adds a gate.
+     *
+     * @param gate the gate to add
+     * @return its index
+     * @throws IllegalArgumentException if the gate is null or already added
+     */
+    public int addGate(Gate gate) {
+        if (gate == null) {
+            throw new IllegalArgumentException("Gate cannot be null");
+        }
+        if (gateCount == gates.length) {
+            gates = Arrays.copyOf(gates, gateCount * 2);
+        }
+        if (gateIndex.putIfAbsent(gate, gateCount) != null) {
+            throw new IllegalArgumentException("Gate already added: " + gate.getId());
+        }
+        gates[gateCount] = gate;
+        return gateCount++;
+    }
+
+    /**
+     * Adds gates in order; they receive consecutive indices.
+     *
+     * @param batch the gates to add
+     * @return the index of the first gate
+     * @throws IllegalArgumentException if any gate is null or already added
+     */
+    public int addGates(Gate... batch) {
+        int first = gateCount;
+        ensureGates(gateCount + batch.length);
+        for (Gate g : batch) addGate(g);
+        return first;
+    }
+
+    /**
+     * Adds gates in iteration order; they receive consecutive indices.
+     *
+     * @param batch the gates to add
+     * @return the index of the first gate
+     * @throws IllegalArgumentException if any gate is null or already added
+     */
+    public int addGates(Collection<? extends Gate> batch) {
+        int first = gateCount;
+        ensureGates(gateCount + batch.size());
+        for (Gate g : batch) addGate(g);
+        return first;
+    }
+
+    /**
+     * Returns the index of an added gate.
+     *
+     * @param gate the gate
+     * @return its index
+     * @throws IllegalArgumentException if the gate was not added
+     */
+    public int indexOf(Gate gate) {
+        Integer idx = gateIndex.get(gate);
+        if (idx == null) {
+            throw new IllegalArgumentException("Gate not found in builder: " + (gate == null ? null : gate.getId()));
+        }
+        return idx;
+    }
+
+    /**
+     * Adds a wire between two gates by index.
+     *
+     * @param from source gate index
+     * @param fromPin source output pin
+     * @param to destination gate index
+     * @param toPin destination input pin
+     * @throws IllegalArgumentException if an index or pin is out of range
+     */
+    public void addWire(int from, int fromPin, int to, int toPin) {
+        checkGate(from);
+        checkGate(to);
+        if (fromPin < 0 || fromPin >= gates[from].getNumOutputs()) {
+            throw new IllegalArgumentException("Invalid fromPin " + fromPin + " for gate " + gates[from].getId());
+        }
+        if (toPin < 0 || toPin >= gates[to].getNumInputs()) {
+            throw new IllegalArgumentException("Invalid toPin " + toPin + " for gate " + gates[to].getId());
+        }
+        if (wireCount == wireFrom.length) {
+            ensureWires(wireCount * 2);
+        }
+        wireFrom[wireCount] = from;
+        wireFromPin[wireCount] = (byte) fromPin;
+        wireTo[wireCount] = to;
+        wireToPin[wireCount] = (byte) toPin;
+        wireCount++;
+    }
+
+    /**
+     * Adds a wire whose endpoints were added to this builder.
+     *
+     * @param wire the wire
+     * @throws IllegalArgumentException if an endpoint was not added
+     */
+    public void addWire(Wire wire) {
+        addWire(indexOf(wire.getFromGate()), wire.getFromPin(), indexOf(wire.getToGate()), wire.getToPin());
+    }
+
+    /**
+     * Adds wires in iteration order.
+     *
+     * @param batch the wires
+     * @throws IllegalArgumentException if an endpoint was not added
+     */
+    public void addWires(Collection<Wire> batch) {
+        ensureWires(wireCount + batch.size());
+        for (Wire w : batch) addWire(w);
+    }
+
+    /**
+     * Adds wire i from {@code (from[i], fromPin[i])} to {@code (to[i], toPin[i])} for every i.
+     *
+     * @throws IllegalArgumentException if the arrays differ in length or an index or pin is out of range
+     */
+    public void addWires(int[] from, int[] fromPin, int[] to, int[] toPin) {
+        int n = from.length;
+        if (fromPin.length != n || to.length != n || toPin.length != n) {
+            throw new IllegalArgumentException("Wire arrays must have equal lengths");
+        }
+        ensureWires(wireCount + n);
+        for (int i = 0; i < n; i++) addWire(from[i], fromPin[i], to[i], toPin[i]);
+    }
+
+    /**
+     * Binds a primary input name to a gate input pin.
+     *
+     * @param name the primary input name
+     * @param gate the gate index
+     * @param pin the input pin
+     * @throws IllegalArgumentException if the name is blank or the gate or pin is out of range
+     */
+    public void connectPrimaryInput(String name, int gate, int pin) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Primary input name cannot be null or blank");
+        }
+        checkGate(gate);
+        if (pin < 0 || pin >= gates[gate].getNumInputs()) {
+            throw new IllegalArgumentException("Invalid pin " + pin + " for gate " + gates[gate].getId());
+        }
+        Integer handle = inputHandles.get(name);
+        if (handle == null) {
+            handle = inputHandles.size();
+            inputHandles.put(name, handle);
+            if (handle == inputNames.length) {
+                inputNames = Arrays.copyOf(inputNames, handle * 2);
+            }
+            inputNames[handle] = name;
+        }
+        if (bindingCount == bindingGate.length) {
+            int cap = bindingCount * 2;
+            bindingHandle = Arrays.copyOf(bindingHandle, cap);
+            bindingGate = Arrays.copyOf(bindingGate, cap);
+            bindingPin = Arrays.copyOf(bindingPin, cap);
+        }
+        bindingHandle[bindingCount] = handle;
+        bindingGate[bindingCount] = gate;
+        bindingPin[bindingCount] = (byte) pin;
+        bindingCount++;
+    }
+
+    /**
+     * Marks a gate as the next primary output.
+     *
+     * @param gate the gate index
+     * @throws IllegalArgumentException if the index is out of range
+     */
+    public void addPrimaryOutput(int gate) {
+        checkGate(gate);
+        if (outputCount == outputGates.length) {
+            outputGates = Arrays.copyOf(outputGates, outputCount * 2);
+        }
+        outputGates[outputCount++] = gate;
+    }
+
+    /**
+     * Returns an immutable snapshot of everything added so far. The builder stays usable.
+     *
+     * @return the netlist
+     */
+    public Netlist build() {
+        // Group bindings by handle (stable counting sort) so each input's pins are contiguous
+        int inputs = inputHandles.size();
+        int[] start = new int[inputs + 1];
+        for (int b = 0; b < bindingCount; b++) start[bindingHandle[b] + 1]++;
+        for (int h = 0; h < inputs; h++) start[h + 1] += start[h];
+        int[] fill = Arrays.copyOf(start, inputs);
+        int[] gateOut = new int[bindingCount];
+        byte[] pinOut = new byte[bindingCount];
+        for (int b = 0; b < bindingCount; b++) {
+            int slot = fill[bindingHandle[b]]++;
+            gateOut[slot] = bindingGate[b];
+            pinOut[slot] = bindingPin[b];
+        }
+
+        return new Netlist(
+            Arrays.copyOf(gates, gateCount),
+            Arrays.copyOf(wireFrom, wireCount), Arrays.copyOf(wireFromPin, wireCount),
+            Arrays.copyOf(wireTo, wireCount), Arrays.copyOf(wireToPin, wireCount),
+            Arrays.copyOf(inputNames, inputs), start, gateOut, pinOut,
+            Arrays.copyOf(outputGates, outputCount)
+        );
+    }
+
+    private void checkGate(int index) {
+        if (index < 0 || index >= gateCount) {
+            throw new IllegalArgumentException(
+                "Gate index " + index + " is out of range. Valid indices: 0 to " + (gateCount - 1)
+            );
+        }
+    }
+
+    private void ensureGates(int capacity) {
+        if (capacity > gates.length) {
+            gates = Arrays.copyOf(gates, Math.max(capacity, gates.length * 2));
+        }
+    }
+
+    private void ensureWires(int capacity) {
+        if (capacity > wireFrom.length) {
+            int cap = Math.max(capacity, wireFrom.length * 2);
+            wireFrom = Arrays.copyOf(wireFrom, cap);
+            wireFromPin = Arrays.copyOf(wireFromPin, cap);
+            wireTo = Arrays.copyOf(wireTo, cap);
+            wireToPin = Arrays.copyOf(wireToPin, cap);
+        }
+    }
+}
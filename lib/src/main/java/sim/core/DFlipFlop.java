@@ -0,0 +1,23 @@
+package sim.core;
+
+/**
+ * A D flip-flop: on each clock edge Q takes the value of D.
+ * 
+ * <p>Pin ordering:
+ * - Input 0: D
+ * - Output 0: Q
+ * 
+ * @author Digital Logic Simulator
+ * @version 1.0
+ */
+public class DFlipFlop extends SequentialGate {
+    
+    /**
+     * Constructs a new D flip-flop with Q = 0.
+     * 
+     * @param id unique identifier for this gate
+     */
+    public DFlipFlop(String id) {
+        super(id, 1, false, false);
+    }
+}
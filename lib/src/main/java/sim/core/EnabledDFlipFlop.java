@@ -0,0 +1,27 @@
+package sim.core;
+
+/**
+ * A D flip-flop with clock enable and synchronous reset.
+ * 
+ * <p>On each clock edge: if RST is high Q clears, else if EN is high Q takes D, else Q holds.
+ * 
+ * <p>Pin ordering:
+ * - Input 0: D
+ * - Input 1: EN
+ * - Input 2: RST
+ * - Output 0: Q
+ * 
+ * @author Digital Logic Simulator
+ * @version 1.0
+ */
+public class EnabledDFlipFlop extends SequentialGate {
+    
+    /**
+     * Constructs a new enabled D flip-flop with Q = 0.
+     * 
+     * @param id unique identifier for this gate
+     */
+    public EnabledDFlipFlop(String id) {
+        super(id, 1, true, true);
+    }
+}
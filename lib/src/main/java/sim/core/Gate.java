@@ -1,8 +1,5 @@
 package sim.core;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Abstract base class for all digital logic gates in the simulator.
  * 
@@ -13,11 +10,18 @@ import java.util.List;
  * 
  * <p>All gates have exactly 1 output by default, but can have varying numbers of inputs.
  * 
+ * <p>Pin values are bit-packed into two {@code long} fields (bit i = pin i), so a gate
+ * carries no per-pin objects and reading or writing a pin never allocates. This limits
+ * a gate to {@value #MAX_PINS} inputs and {@value #MAX_PINS} outputs.
+ * 
  * @author Digital Logic Simulator
  * @version 1.0
  */
 public abstract class Gate {
     
+    /** Maximum number of input pins and of output pins per gate */
+    public static final int MAX_PINS = 64;
+    
     /** Unique identifier for this gate instance */
     protected final String id;
     
@@ -27,11 +31,11 @@ public abstract class Gate {
     /** Number of output pins this gate has (always 1 for current implementation) */
     protected final int numOutputs;
     
-    /** List of input values for each input pin */
-    protected final List<Boolean> inputs;
+    /** Input pin values, bit i holds input pin i */
+    protected long inputBits;
     
-    /** List of output values for each output pin */
-    protected final List<Boolean> outputs;
+    /** Output pin values, bit i holds output pin i */
+    protected long outputBits;
     
     /**
      * Constructs a new gate with the specified parameters.
@@ -39,23 +43,18 @@ public abstract class Gate {
      * @param id unique identifier for this gate
      * @param numInputs number of input pins
      * @param numOutputs number of output pins (typically 1)
+     * @throws IllegalArgumentException if a pin count is negative or above {@value #MAX_PINS}
      */
     protected Gate(String id, int numInputs, int numOutputs) {
+        if (numInputs < 0 || numInputs > MAX_PINS || numOutputs < 0 || numOutputs > MAX_PINS) {
+            throw new IllegalArgumentException(
+                "Gate " + id + " pin counts must be 0 to " + MAX_PINS + ": " + numInputs + " in, " + numOutputs + " out"
+            );
+        }
         this.id = id;
         this.numInputs = numInputs;
         this.numOutputs = numOutputs;
-        
-        // Initialize inputs and outputs with false values
-        this.inputs = new ArrayList<>();
-        this.outputs = new ArrayList<>();
-        
-        for (int i = 0; i < numInputs; i++) {
-            this.inputs.add(false);
-        }
-        
-        for (int i = 0; i < numOutputs; i++) {
-            this.outputs.add(false);
-        }
+        // All pins start false (inputBits = outputBits = 0)
     }
     
     /**
@@ -71,7 +70,11 @@ public abstract class Gate {
                 "Input pin " + pin + " is out of range. Valid pins: 0 to " + (numInputs - 1)
             );
         }
-        inputs.set(pin, value);
+        if (value) {
+            inputBits |= 1L << pin;
+        } else {
+            inputBits &= ~(1L << pin);
+        }
     }
     
     /**
@@ -87,7 +90,69 @@ public abstract class Gate {
                 "Output pin " + pin + " is out of range. Valid pins: 0 to " + (numOutputs - 1)
             );
         }
-        return outputs.get(pin);
+        return ((outputBits >>> pin) & 1L) != 0;
+    }
+    
+    /**
+     * Sets all input pins at once from a bit mask (bit i = pin i).
+     * Bits at or above {@link #getNumInputs()} are ignored.
+     * 
+     * @param bits the packed input values
+     */
+    public void setInputBits(long bits) {
+        inputBits = bits & mask(numInputs);
+    }
+    
+    /**
+     * Gets all input pin values as a bit mask (bit i = pin i).
+     * 
+     * @return the packed input values
+     */
+    public long getInputBits() {
+        return inputBits;
+    }
+    
+    /**
+     * Gets all output pin values as a bit mask (bit i = pin i).
+     * 
+     * @return the packed output values
+     */
+    public long getOutputBits() {
+        return outputBits;
+    }
+    
+    /**
+     * Reads an input pin without range checking, for use by {@link #evaluate()}.
+     * 
+     * @param pin the input pin number
+     * @return the input value
+     */
+    protected final boolean input(int pin) {
+        return ((inputBits >>> pin) & 1L) != 0;
+    }
+    
+    /**
+     * Writes an output pin without range checking, for use by {@link #evaluate()}.
+     * 
+     * @param pin the output pin number
+     * @param value the output value
+     */
+    protected final void setOutputValue(int pin, boolean value) {
+        if (value) {
+            outputBits |= 1L << pin;
+        } else {
+            outputBits &= ~(1L << pin);
+        }
+    }
+    
+    /**
+     * Returns a mask with the low {@code n} bits set.
+     * 
+     * @param n number of bits, 0 to 64
+     * @return the mask
+     */
+    protected static long mask(int n) {
+        return n >= 64 ? -1L : (1L << n) - 1;
     }
     
     /**
@@ -122,7 +187,7 @@ public abstract class Gate {
      * based on current input values.
      * 
      * <p>This method should read the current input values and set the appropriate
-     * output values according to the gate's logic.
+     * output values according to the gate's logic. Implementations should not allocate.
      */
     public abstract void evaluate();
 }
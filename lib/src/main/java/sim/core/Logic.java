@@ -0,0 +1,78 @@
+package sim.core;
+
+/**
+ * A four-valued logic level: 0, 1, X (unknown) or Z (undriven).
+ *
+ * <p>Bit-parallel engines store a four-valued net as two bit-planes, one bit per lane in each:
+ * - {@code one}: the net may be 1
+ * - {@code zero}: the net may be 0
+ *
+ * <p>so 0 = (0, 1), 1 = (1, 0), X = (1, 1) and Z = (0, 0). A gate input reads Z as X.
+ *
+ * @author Digital Logic Simulator
+ * @version 1.0
+ */
+public enum Logic {
+
+    ZERO(false, true),
+    ONE(true, false),
+    X(true, true),
+    Z(false, false);
+
+    private final boolean one;
+    private final boolean zero;
+
+    Logic(boolean one, boolean zero) {
+        this.one = one;
+        this.zero = zero;
+    }
+
+    /**
+     * Converts a two-valued level.
+     *
+     * @param value the boolean level
+     * @return {@link #ONE} or {@link #ZERO}
+     */
+    public static Logic of(boolean value) {
+        return value ? ONE : ZERO;
+    }
+
+    /**
+     * Decodes one lane of the two bit-planes.
+     *
+     * @param one whether the net may be 1
+     * @param zero whether the net may be 0
+     * @return the level
+     */
+    public static Logic fromPlanes(boolean one, boolean zero) {
+        return one ? (zero ? X : ONE) : (zero ? ZERO : Z);
+    }
+
+    /** @return the "may be 1" plane bit */
+    public boolean one() {
+        return one;
+    }
+
+    /** @return the "may be 0" plane bit */
+    public boolean zero() {
+        return zero;
+    }
+
+    /** @return true for {@link #ZERO} and {@link #ONE} */
+    public boolean isKnown() {
+        return one != zero;
+    }
+
+    /**
+     * Converts to a boolean.
+     *
+     * @return true for {@link #ONE}, false for {@link #ZERO}
+     * @throws IllegalStateException if the level is X or Z
+     */
+    public boolean toBoolean() {
+        if (!isKnown()) {
+            throw new IllegalStateException("Level " + this + " has no boolean value");
+        }
+        return one;
+    }
+}
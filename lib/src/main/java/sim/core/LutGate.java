@@ -0,0 +1,128 @@
+package sim.core;
+
+import java.util.function.IntPredicate;
+
+/**
+ * A gate of up to {@value #MAX_INPUTS} inputs evaluated by truth-table lookup.
+ *
+ * <p>Each output pin has a 64-bit table: bit r is the output for the input row r, where row r
+ * sets input pin i to bit i of r. {@link #evaluate()} is then one shift and mask per output:
+ * {@code (table >>> inputBits) & 1}. A table can be given directly, built with
+ * {@link #tabulate(int, IntPredicate)}, or captured from any combinational gate with
+ * {@link #of(String, Gate)}.
+ *
+ * <p>For example, a 2-input AND is {@code new LutGate("AND", 2, 0b1000)} and a 3-input majority
+ * is {@code new LutGate("MAJ", 3, 0xE8)}.
+ *
+ * @author Digital Logic Simulator
+ * @version 1.0
+ */
+public class LutGate extends Gate {
+
+    /** Most inputs a table can cover: 2^6 rows fill one {@code long} */
+    public static final int MAX_INPUTS = 6;
+
+    /** Truth table per output pin, with bits at and above 2^numInputs cleared */
+    private final long[] tables;
+
+    /**
+     * Constructs a gate from one truth table per output pin.
+     *
+     * @param id unique identifier for this gate
+     * @param numInputs number of input pins, 0 to {@value #MAX_INPUTS}
+     * @param tables the truth table of each output pin; bits at and above 2^numInputs are ignored
+     * @throws IllegalArgumentException if there are too many inputs or no tables
+     */
+    public LutGate(String id, int numInputs, long... tables) {
+        super(id, checkInputs(id, numInputs), tables.length);
+        if (tables.length == 0) {
+            throw new IllegalArgumentException("Gate " + id + " needs at least one output table");
+        }
+        this.tables = new long[tables.length];
+        long rows = mask(1 << numInputs);
+        for (int p = 0; p < tables.length; p++) this.tables[p] = tables[p] & rows;
+    }
+
+    private static int checkInputs(String id, int numInputs) {
+        if (numInputs < 0 || numInputs > MAX_INPUTS) {
+            throw new IllegalArgumentException(
+                "Gate " + id + " must have 0 to " + MAX_INPUTS + " inputs for a lookup table: " + numInputs
+            );
+        }
+        return numInputs;
+    }
+
+    /**
+     * Captures the truth table of a combinational gate by evaluating it on every input row.
+     * The gate's pins are left holding the last row.
+     *
+     * @param id identifier of the new gate
+     * @param gate the gate to enumerate
+     * @return a lookup gate with the same pins and function
+     * @throws IllegalArgumentException if the gate has more than {@value #MAX_INPUTS} inputs or no
+     *         outputs, or is a {@link SequentialGate}
+     */
+    public static LutGate of(String id, Gate gate) {
+        if (gate instanceof SequentialGate) {
+            throw new IllegalArgumentException("Gate " + gate.getId() + " is sequential and has no truth table");
+        }
+        int n = checkInputs(gate.getId(), gate.getNumInputs());
+        long[] tables = new long[gate.getNumOutputs()];
+        for (int row = 0; row < 1 << n; row++) {
+            gate.setInputBits(row);
+            gate.evaluate();
+            long out = gate.getOutputBits();
+            for (int p = 0; p < tables.length; p++) tables[p] |= ((out >>> p) & 1L) << row;
+        }
+        return new LutGate(id, n, tables);
+    }
+
+    /**
+     * Builds a truth table from a function of the input row.
+     *
+     * @param numInputs number of input pins, 0 to {@value #MAX_INPUTS}
+     * @param f the output for each row; bit i of the row is input pin i
+     * @return the table
+     * @throws IllegalArgumentException if there are too many inputs
+     */
+    public static long tabulate(int numInputs, IntPredicate f) {
+        checkInputs("table", numInputs);
+        long table = 0;
+        for (int row = 0; row < 1 << numInputs; row++) {
+            if (f.test(row)) table |= 1L << row;
+        }
+        return table;
+    }
+
+    /**
+     * Gets the truth table of an output pin.
+     *
+     * @param pin the output pin
+     * @return the table, bit r = output for input row r
+     * @throws IllegalArgumentException if the pin is out of range
+     */
+    public long getTable(int pin) {
+        if (pin < 0 || pin >= numOutputs) {
+            throw new IllegalArgumentException(
+                "Output pin " + pin + " is out of range. Valid pins: 0 to " + (numOutputs - 1)
+            );
+        }
+        return tables[pin];
+    }
+
+    /**
+     * Looks every output up in its table at the row given by the packed inputs.
+     */
+    @Override
+    public void evaluate() {
+        final long[] t = tables;
+        final int row = (int) inputBits;
+        if (t.length == 1) {
+            outputBits = (t[0] >>> row) & 1L;
+            return;
+        }
+        long out = 0;
+        for (int p = 0; p < t.length; p++) out |= ((t[p] >>> row) & 1L) << p;
+        outputBits = out;
+    }
+}
@@ -0,0 +1,58 @@
+package sim.core;
+
+/**
+ * An N-input NAND logic gate: the complement of AND.
+ * 
+ * <p>The truth table for a 2-input NAND gate is:
+ * <pre>
+ * Input A | Input B | Output
+ * --------|---------|--------
+ * false   | false   | true 
+ * false   | true    | true 
+ * true    | false   | true 
+ * true    | true    | false
+ * </pre>
+ * 
+ * <p>The default is 2 inputs; {@link #NandGate(String, int)} takes 0 to {@value Gate#MAX_PINS}.
+ * This gate has 1 output.
+ * 
+ * @author Digital Logic Simulator
+ * @version 1.0
+ */
+public class NandGate extends Gate {
+    
+    /** Packed inputs with every pin set */
+    private final long allInputs;
+    
+    /**
+     * Constructs a new 2-input NAND gate with the specified ID.
+     * 
+     * @param id unique identifier for this gate
+     */
+    public NandGate(String id) {
+        this(id, 2);
+    }
+    
+    /**
+     * Constructs a new N-input NAND gate with the given number of inputs.
+     * 
+     * @param id unique identifier for this gate
+     * @param numInputs number of input pins, 0 to {@value Gate#MAX_PINS}
+     * @throws IllegalArgumentException if the input count is out of range
+     */
+    public NandGate(String id, int numInputs) {
+        super(id, numInputs, 1);
+        this.allInputs = mask(numInputs);
+    }
+    
+    /**
+     * Evaluates the NAND gate logic.
+     * 
+     * <p>Sets the output to false only if every input is true. With no inputs the output is false.
+     */
+    @Override
+    public void evaluate() {
+        // NAND logic: output is false only if ALL pin bits are set
+        outputBits = inputBits == allInputs ? 0L : 1L;
+    }
+}
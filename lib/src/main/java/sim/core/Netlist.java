@@ -0,0 +1,172 @@
+package sim.core;
+
+/**
+ * An immutable, array-backed circuit description produced by {@link CircuitBuilder}.
+ *
+ * <p>Everything is addressed by index rather than by object:
+ * - gates are numbered in the order they were added to the builder
+ * - wire i runs from {@code (getWireFrom(i), getWireFromPin(i))} to {@code (getWireTo(i), getWireToPin(i))}
+ * - primary input handle h binds the pins {@code getBindingStart(h) .. getBindingStart(h + 1)}
+ * - primary output k reads pin 0 of gate {@code getOutputGate(k)}
+ *
+ * <p>Wires and bindings are stored as parallel {@code int}/{@code byte} arrays, about 10 bytes
+ * per wire, instead of one {@link Wire} object each. Use {@link #toCircuit()} to simulate.
+ */
+public final class Netlist {
+
+    final Gate[] gates;
+
+    final int[] wireFrom;
+    final byte[] wireFromPin;
+    final int[] wireTo;
+    final byte[] wireToPin;
+
+    final String[] inputNames;
+    final int[] bindingStart;
+    final int[] bindingGate;
+    final byte[] bindingPin;
+
+    final int[] outputGates;
+
+    Netlist(Gate[] gates, int[] wireFrom, byte[] wireFromPin, int[] wireTo, byte[] wireToPin,
+            String[] inputNames, int[] bindingStart, int[] bindingGate, byte[] bindingPin,
+            int[] outputGates) {
+        this.gates = gates;
+        this.wireFrom = wireFrom;
+        this.wireFromPin = wireFromPin;
+        this.wireTo = wireTo;
+        this.wireToPin = wireToPin;
+        this.inputNames = inputNames;
+        this.bindingStart = bindingStart;
+        this.bindingGate = bindingGate;
+        this.bindingPin = bindingPin;
+        this.outputGates = outputGates;
+    }
+
+    /**
+     * Creates a simulatable circuit with this structure in a single O(gates + wires) pass.
+     *
+     * <p>The circuit shares the gate objects, so two circuits made from the same netlist must not
+     * be simulated concurrently. It starts with every primary input at 0 and can be edited further.
+     *
+     * @return a new circuit
+     */
+    public Circuit toCircuit() {
+        return new Circuit(this);
+    }
+
+    /** @return the number of gates */
+    public int getNumGates() {
+        return gates.length;
+    }
+
+    /**
+     * Gets a gate by index.
+     *
+     * @param index the gate index, in the order the gates were added to the builder
+     * @return the gate
+     */
+    public Gate getGate(int index) {
+        return gates[index];
+    }
+
+    /** @return the number of wires */
+    public int getNumWires() {
+        return wireFrom.length;
+    }
+
+    /**
+     * Gets the gate a wire reads from.
+     *
+     * @param wire the wire index, in the order the wires were added to the builder
+     * @return the source gate's index (builder order, not topological position)
+     */
+    public int getWireFrom(int wire) {
+        return wireFrom[wire];
+    }
+
+    /**
+     * Gets the output pin a wire reads from.
+     *
+     * @param wire the wire index
+     * @return the source gate's output pin
+     */
+    public int getWireFromPin(int wire) {
+        return wireFromPin[wire];
+    }
+
+    /**
+     * Gets the gate a wire drives.
+     *
+     * @param wire the wire index, in the order the wires were added to the builder
+     * @return the destination gate's index (builder order, not topological position)
+     */
+    public int getWireTo(int wire) {
+        return wireTo[wire];
+    }
+
+    /**
+     * Gets the input pin a wire drives.
+     *
+     * @param wire the wire index
+     * @return the destination gate's input pin
+     */
+    public int getWireToPin(int wire) {
+        return wireToPin[wire];
+    }
+
+    /** @return the number of primary input handles */
+    public int getNumPrimaryInputs() {
+        return inputNames.length;
+    }
+
+    /**
+     * Gets the name of a primary input.
+     *
+     * @param handle the input handle, in the order names were first bound in the builder
+     * @return the input name
+     */
+    public String getInputName(int handle) {
+        return inputNames[handle];
+    }
+
+    /** First binding of input {@code handle}; {@code getBindingStart(getNumPrimaryInputs())} is the total. */
+    public int getBindingStart(int handle) {
+        return bindingStart[handle];
+    }
+
+    /**
+     * Gets the gate a primary input binding drives.
+     *
+     * @param binding the binding index, from {@code getBindingStart(h)} to {@code getBindingStart(h + 1) - 1}
+     * @return the gate index (builder order)
+     */
+    public int getBindingGate(int binding) {
+        return bindingGate[binding];
+    }
+
+    /**
+     * Gets the input pin a primary input binding drives.
+     *
+     * @param binding the binding index
+     * @return the input pin of {@link #getBindingGate(int)}
+     */
+    public int getBindingPin(int binding) {
+        return bindingPin[binding];
+    }
+
+    /** @return the number of primary outputs */
+    public int getNumPrimaryOutputs() {
+        return outputGates.length;
+    }
+
+    /**
+     * Gets the gate a primary output reads; outputs always read pin 0.
+     *
+     * @param output the output index, in the order outputs were added to the builder
+     * @return the gate index (builder order)
+     */
+    public int getOutputGate(int output) {
+        return outputGates[output];
+    }
+}
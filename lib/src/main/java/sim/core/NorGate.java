@@ -0,0 +1,54 @@
+package sim.core;
+
+/**
+ * An N-input NOR logic gate: the complement of OR.
+ * 
+ * <p>The truth table for a 2-input NOR gate is:
+ * <pre>
+ * Input A | Input B | Output
+ * --------|---------|--------
+ * false   | false   | true 
+ * false   | true    | false
+ * true    | false   | false
+ * true    | true    | false
+ * </pre>
+ * 
+ * <p>The default is 2 inputs; {@link #NorGate(String, int)} takes 0 to {@value Gate#MAX_PINS}.
+ * This gate has 1 output.
+ * 
+ * @author Digital Logic Simulator
+ * @version 1.0
+ */
+public class NorGate extends Gate {
+    
+    /**
+     * Constructs a new 2-input NOR gate with the specified ID.
+     * 
+     * @param id unique identifier for this gate
+     */
+    public NorGate(String id) {
+        this(id, 2);
+    }
+    
+    /**
+     * Constructs a new N-input NOR gate with the given number of inputs.
+     * 
+     * @param id unique identifier for this gate
+     * @param numInputs number of input pins, 0 to {@value Gate#MAX_PINS}
+     * @throws IllegalArgumentException if the input count is out of range
+     */
+    public NorGate(String id, int numInputs) {
+        super(id, numInputs, 1);
+    }
+    
+    /**
+     * Evaluates the NOR gate logic.
+     * 
+     * <p>Sets the output to true only if no input is true.
+     */
+    @Override
+    public void evaluate() {
+        // NOR logic: output is true only if NO input bit is set
+        outputBits = inputBits == 0 ? 1L : 0L;
+    }
+}
@@ -36,7 +36,6 @@ public class NotGate extends Gate {
     @Override
     public void evaluate() {
         // NOT logic: output is the opposite of the input
-        boolean result = !inputs.get(0);
-        outputs.set(0, result);
+        outputBits = ~inputBits & 1L;
     }
 }
@@ -0,0 +1,419 @@
+package sim.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A netlist optimization pass that produces a smaller circuit with the same primary outputs.
+ *
+ * <p>Three rewrites, each of which can be switched off:
+ * - constant folding: unconnected pins (constant 0) and primary inputs tied to a constant are
+ *   pushed through AND/OR/XOR/NAND/NOR/XNOR/NOT/BUF, so {@code AND(x, 1)} becomes x,
+ *   {@code OR(x, 1)} becomes 1 and {@code XOR(x, 1)} becomes NOT x; duplicate and complementary
+ *   inputs fold too, and any other combinational gate whose inputs are all constant is evaluated
+ *   once, with its pin state restored afterwards
+ * - double inversion removal: {@code NOT(NOT(x))} becomes x, and a NOT feeding a NOT is dropped
+ * - dead logic sweep: gates outside the fan-in cone of every primary output are removed
+ *
+ * <p>Signals are tracked as literals (a source plus an inversion bit), so inversions cancel as they
+ * are composed and a remaining inversion becomes one shared {@link NotGate} per source. A primary
+ * output that folds to a constant is driven by a 0-input {@link OrGate} (0) or {@link AndGate} (1);
+ * one that folds onto another signal gets a {@link BufGate}. Sequential gates are kept as they are,
+ * and nothing is folded through them.
+ *
+ * <p>The result is a new circuit. Gates kept unchanged are shared with the original, as with
+ * {@link Netlist#toCircuit()}, so the two must not be simulated concurrently. Primary inputs keep
+ * their order, minus tied ones and ones that no remaining gate reads. An optimizer with every
+ * rewrite switched off returns the circuit it is given.
+ */
+public final class Optimizer {
+
+    private final boolean foldConstants;
+    private final boolean removeDoubleInversions;
+    private final boolean sweepDeadLogic;
+
+    /** Creates an optimizer with every rewrite enabled. */
+    public Optimizer() {
+        this(true, true, true);
+    }
+
+    /**
+     * Creates an optimizer with a chosen set of rewrites.
+     *
+     * @param foldConstants whether to propagate constants and fold gates
+     * @param removeDoubleInversions whether to cancel chained NOT gates
+     * @param sweepDeadLogic whether to drop gates that no primary output depends on
+     */
+    public Optimizer(boolean foldConstants, boolean removeDoubleInversions, boolean sweepDeadLogic) {
+        this.foldConstants = foldConstants;
+        this.removeDoubleInversions = removeDoubleInversions;
+        this.sweepDeadLogic = sweepDeadLogic;
+    }
+
+    /**
+     * Optimizes a circuit with no tied inputs.
+     *
+     * @param circuit the circuit; it is not modified
+     * @return the optimized circuit, or {@code circuit} itself if every rewrite is off
+     * @throws IllegalStateException if the combinational logic contains a cycle
+     */
+    public Circuit optimize(Circuit circuit) {
+        return optimize(circuit, Map.of());
+    }
+
+    /**
+     * Optimizes a circuit with some primary inputs held at constant values, for example carry-ins
+     * that are always 0. Tied inputs are not primary inputs of the result.
+     *
+     * @param circuit the circuit; it is not modified
+     * @param tiedInputs constant value per primary input name
+     * @return the optimized circuit, or {@code circuit} itself if every rewrite is off and no
+     *         input is tied
+     * @throws IllegalArgumentException if a tied name is not a primary input
+     * @throws IllegalStateException if the combinational logic contains a cycle
+     */
+    public Circuit optimize(Circuit circuit, Map<String, Boolean> tiedInputs) {
+        Map<String, List<Circuit.InputBinding>> bindings = circuit.getPrimaryInputBindings();
+        for (String name : tiedInputs.keySet()) {
+            if (!bindings.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown primary input: " + name);
+            }
+        }
+        if (!foldConstants && !removeDoubleInversions && !sweepDeadLogic && tiedInputs.isEmpty()) {
+            return circuit;
+        }
+        return new Pass(circuit, tiedInputs).run();
+    }
+
+    /**
+     * One optimization run.
+     *
+     * <p>A literal is {@code signal << 1 | inverted}. Signal 0 is constant 0 (so literal 0 is 0 and
+     * literal 1 is 1), signals 1..P are the primary inputs, and every kept gate (a node) gets one
+     * signal per output pin after that.
+     */
+    private final class Pass {
+
+        private final Circuit circuit;
+        private final Gate[] order;
+        private final String[] names;
+        private final int[] inputLit;
+
+        /** Literal on every output pin of every original gate, by topological position */
+        private final int[][] outLit;
+
+        /** Kept gates: the gate, its input literals, its first signal */
+        private final List<Gate> nodeGate = new ArrayList<>();
+        private final List<int[]> nodeIn = new ArrayList<>();
+        private int[] nodeSignal = new int[16];
+        /** Node owning each signal above the primary inputs */
+        private int[] signalNode = new int[16];
+        private int signals;
+
+        /** Scratch for simplifying one gate: the inputs that survive, kept[0 .. keptCount) */
+        private final int[] kept = new int[Gate.MAX_PINS];
+        private int keptCount;
+
+        Pass(Circuit circuit, Map<String, Boolean> tiedInputs) {
+            this.circuit = circuit;
+            this.order = circuit.topologicalOrder().toArray(new Gate[0]);
+            this.names = circuit.getPrimaryInputBindings().keySet().toArray(new String[0]);
+            this.inputLit = new int[names.length];
+            for (int i = 0; i < names.length; i++) {
+                Boolean tied = tiedInputs.get(names[i]);
+                inputLit[i] = tied == null ? (1 + i) << 1 : (tied ? 1 : 0);
+            }
+            this.outLit = new int[order.length][];
+            this.signals = 1 + names.length;
+        }
+
+        Circuit run() {
+            int n = order.length;
+            Map<Gate, Integer> pos = new IdentityHashMap<>(n * 2);
+            for (int g = 0; g < n; g++) pos.put(order[g], g);
+
+            // Where each input pin reads from: a primary input, else constant 0; wires override
+            int[][] pinLit = new int[n][];
+            int[][] pinSource = new int[n][];
+            for (int g = 0; g < n; g++) {
+                pinLit[g] = new int[order[g].getNumInputs()];
+                pinSource[g] = new int[order[g].getNumInputs()];
+                Arrays.fill(pinSource[g], -1);
+            }
+            for (int i = 0; i < names.length; i++) {
+                for (Circuit.InputBinding b : circuit.getPrimaryInputBindings().get(names[i])) {
+                    Integer g = pos.get(b.gate());
+                    if (g != null) pinLit[g][b.pin()] = inputLit[i];
+                }
+            }
+            Adjacency fanIn = circuit.fanIn();
+            for (int g = 0; g < n; g++) {
+                for (int e = fanIn.start(g); e < fanIn.end(g); e++) {
+                    // Rows are sorted by source position, so the last wire on a pin wins
+                    pinSource[g][fanIn.pin(e)] = (fanIn.target(e) << 6) | fanIn.targetPin(e);
+                }
+            }
+
+            List<Integer> sequential = new ArrayList<>();
+            for (int g = 0; g < n; g++) {
+                Gate gate = order[g];
+                if (gate instanceof SequentialGate) {
+                    // Sources may come later in the order; resolved below
+                    sequential.add(g);
+                    int node = node(gate, new int[gate.getNumInputs()]);
+                    outLit[g] = outputs(node, gate.getNumOutputs());
+                    continue;
+                }
+                int[] in = pinLit[g];
+                for (int p = 0; p < in.length; p++) {
+                    int src = pinSource[g][p];
+                    if (src >= 0) in[p] = outLit[src >>> 6][src & 63];
+                }
+                outLit[g] = simplify(gate, in);
+            }
+            for (int g : sequential) {
+                int[] in = nodeIn.get(signalNode[outLit[g][0] >>> 1]);
+                for (int p = 0; p < in.length; p++) {
+                    int src = pinSource[g][p];
+                    in[p] = src >= 0 ? outLit[src >>> 6][src & 63] : pinLit[g][p];
+                }
+            }
+            return emit(circuit.getPrimaryOutputs().stream().mapToInt(o -> outLit[pos.get(o)][0]).toArray());
+        }
+
+        /** Returns the output literals of one original gate. */
+        private int[] simplify(Gate gate, int[] in) {
+            Class<?> k = gate.getClass();
+            if (k == NotGate.class && (removeDoubleInversions || (foldConstants && in[0] <= 1))) {
+                return new int[] {in[0] ^ 1};
+            }
+            if (!foldConstants) {
+                return outputs(node(gate, in), gate.getNumOutputs());
+            }
+            if (k == BufGate.class) {
+                return new int[] {in[0]};
+            }
+            if (k == AndGate.class || k == NandGate.class) {
+                int lit = absorb(in, 0);
+                return new int[] {lit >= 0 ? lit ^ (k == NandGate.class ? 1 : 0)
+                                           : keep(gate, k == AndGate.class ? AndGate.class : NandGate.class)};
+            }
+            if (k == OrGate.class || k == NorGate.class) {
+                int lit = absorb(in, 1);
+                return new int[] {lit >= 0 ? lit ^ (k == NorGate.class ? 1 : 0)
+                                           : keep(gate, k == OrGate.class ? OrGate.class : NorGate.class)};
+            }
+            if (k == XorGate.class || k == XnorGate.class) {
+                int count = 0, parity = k == XnorGate.class ? 1 : 0;
+                for (int lit : in) {
+                    parity ^= lit & 1;
+                    int base = lit & ~1;
+                    if (base == 0) continue;
+                    int j = indexOf(kept, count, base);
+                    if (j >= 0) {
+                        kept[j] = kept[--count];
+                    } else {
+                        kept[count++] = base;
+                    }
+                }
+                if (count <= 1) {
+                    return new int[] {(count == 0 ? 0 : kept[0]) ^ parity};
+                }
+                keptCount = count;
+                return new int[] {keep(gate, parity == 0 ? XorGate.class : XnorGate.class)};
+            }
+            boolean constant = true;
+            for (int lit : in) constant &= lit <= 1;
+            if (constant && !(gate instanceof SequentialGate)) {
+                long bits = 0;
+                for (int p = 0; p < in.length; p++) bits |= (long) in[p] << p;
+                // The gate belongs to the input circuit: evaluate, then put its pins back
+                long savedIn = gate.inputBits, savedOut = gate.outputBits;
+                gate.setInputBits(bits);
+                gate.evaluate();
+                long out = gate.getOutputBits();
+                gate.inputBits = savedIn;
+                gate.outputBits = savedOut;
+                int[] lits = new int[gate.getNumOutputs()];
+                for (int p = 0; p < lits.length; p++) lits[p] = (int) ((out >>> p) & 1L);
+                return lits;
+            }
+            return outputs(node(gate, in), gate.getNumOutputs());
+        }
+
+        /**
+         * Simplifies an AND (absorbing literal 0) or OR (absorbing literal 1) over {@code in}.
+         *
+         * @return the resulting literal, or -1 with the remaining inputs in {@code kept[0 .. keptCount)}
+         */
+        private int absorb(int[] in, int absorbing) {
+            int count = 0;
+            for (int lit : in) {
+                if (lit == absorbing || indexOf(kept, count, lit ^ 1) >= 0) return absorbing;
+                if (lit == (absorbing ^ 1) || indexOf(kept, count, lit) >= 0) continue;
+                kept[count++] = lit;
+            }
+            if (count == 0) return absorbing ^ 1;
+            if (count == 1) return kept[0];
+            keptCount = count;
+            return -1;
+        }
+
+        /** Adds a node for the kept inputs, reusing the original gate if its shape is unchanged. */
+        private int keep(Gate original, Class<? extends Gate> kind) {
+            int count = keptCount;
+            Gate gate;
+            if (original.getClass() == kind && original.getNumInputs() == count) {
+                gate = original;
+            } else if (kind == AndGate.class) {
+                gate = new AndGate(original.getId(), count);
+            } else if (kind == NandGate.class) {
+                gate = new NandGate(original.getId(), count);
+            } else if (kind == OrGate.class) {
+                gate = new OrGate(original.getId(), count);
+            } else if (kind == NorGate.class) {
+                gate = new NorGate(original.getId(), count);
+            } else if (kind == XorGate.class) {
+                gate = new XorGate(original.getId(), count);
+            } else {
+                gate = new XnorGate(original.getId(), count);
+            }
+            int node = node(gate, Arrays.copyOf(kept, count));
+            return nodeSignal[node] << 1;
+        }
+
+        private int node(Gate gate, int[] in) {
+            int id = nodeGate.size();
+            nodeGate.add(gate);
+            nodeIn.add(in);
+            if (id == nodeSignal.length) nodeSignal = Arrays.copyOf(nodeSignal, id * 2);
+            nodeSignal[id] = signals;
+            for (int p = 0, m = gate.getNumOutputs(); p < m; p++) {
+                if (signals >= signalNode.length) signalNode = Arrays.copyOf(signalNode, signals * 2);
+                signalNode[signals++] = id;
+            }
+            return id;
+        }
+
+        private int[] outputs(int node, int m) {
+            int[] lits = new int[m];
+            for (int p = 0; p < m; p++) lits[p] = (nodeSignal[node] + p) << 1;
+            return lits;
+        }
+
+        private static int indexOf(int[] a, int count, int v) {
+            for (int i = 0; i < count; i++) if (a[i] == v) return i;
+            return -1;
+        }
+
+        // --- Emission ---
+
+        private CircuitBuilder b;
+        private int[] nodeIndex;
+        private final Map<Integer, Integer> inverters = new HashMap<>();
+        private int constOne = -1;
+        private final List<int[]> inputPins = new ArrayList<>();
+
+        private Circuit emit(int[] outputLits) {
+            int nodes = nodeGate.size();
+            boolean[] live = new boolean[nodes];
+            if (sweepDeadLogic) {
+                int[] stack = new int[nodes];
+                int top = 0;
+                for (int lit : outputLits) top = mark(lit, live, stack, top);
+                while (top > 0) {
+                    for (int lit : nodeIn.get(stack[--top])) top = mark(lit, live, stack, top);
+                }
+            } else {
+                Arrays.fill(live, true);
+            }
+
+            b = new CircuitBuilder(nodes, nodes * 2);
+            nodeIndex = new int[nodes];
+            for (int v = 0; v < nodes; v++) {
+                if (live[v]) nodeIndex[v] = b.addGate(nodeGate.get(v));
+            }
+            for (int v = 0; v < nodes; v++) {
+                if (!live[v]) continue;
+                int[] in = nodeIn.get(v);
+                for (int p = 0; p < in.length; p++) connect(in[p], nodeIndex[v], p);
+            }
+
+            List<Gate> outs = circuit.getPrimaryOutputs();
+            for (int o = 0; o < outputLits.length; o++) {
+                int lit = outputLits[o];
+                int sig = lit >>> 1;
+                String id = outs.get(o).getId();
+                int gate;
+                if (lit == 0) {
+                    gate = b.addGate(new OrGate(id, 0));
+                } else if (lit == 1) {
+                    gate = b.addGate(new AndGate(id, 0));
+                } else if ((lit & 1) != 0) {
+                    gate = inverter(sig);
+                } else if (sig > names.length && sig == nodeSignal[signalNode[sig]]) {
+                    gate = nodeIndex[signalNode[sig]];
+                } else {
+                    gate = b.addGate(new BufGate(id));
+                    connect(lit, gate, 0);
+                }
+                b.addPrimaryOutput(gate);
+            }
+
+            // Primary inputs last, grouped by name so handles keep the original order
+            inputPins.sort((x, y) -> Integer.compare(x[0], y[0]));
+            for (int[] pin : inputPins) b.connectPrimaryInput(names[pin[0]], pin[1], pin[2]);
+            return b.build().toCircuit();
+        }
+
+        private int mark(int lit, boolean[] live, int[] stack, int top) {
+            int sig = lit >>> 1;
+            if (sig > names.length && !live[signalNode[sig]]) {
+                live[signalNode[sig]] = true;
+                stack[top++] = signalNode[sig];
+            }
+            return top;
+        }
+
+        /** Drives input {@code pin} of builder gate {@code gate} with a literal. */
+        private void connect(int lit, int gate, int pin) {
+            int sig = lit >>> 1;
+            if (lit == 0) {
+                return;   // unconnected pins read 0
+            }
+            if (lit == 1) {
+                if (constOne < 0) constOne = b.addGate(new AndGate("CONST1", 0));
+                b.addWire(constOne, 0, gate, pin);
+            } else if ((lit & 1) != 0) {
+                b.addWire(inverter(sig), 0, gate, pin);
+            } else if (sig <= names.length) {
+                inputPins.add(new int[] {sig - 1, gate, pin});
+            } else {
+                int v = signalNode[sig];
+                b.addWire(nodeIndex[v], sig - nodeSignal[v], gate, pin);
+            }
+        }
+
+        /** The shared NOT gate of a signal, created on first use. */
+        private int inverter(int sig) {
+            Integer idx = inverters.get(sig);
+            if (idx == null) {
+                String id;
+                if (sig <= names.length) {
+                    id = names[sig - 1];
+                } else {
+                    int v = signalNode[sig], pin = sig - nodeSignal[v];
+                    id = nodeGate.get(v).getId() + (pin == 0 ? "" : "_" + pin);
+                }
+                idx = b.addGate(new NotGate(id + "_INV"));
+                inverters.put(sig, idx);
+                connect(sig << 1, idx, 0);
+            }
+            return idx;
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package sim.core;
 /**
- * A 2-input OR logic gate.
+ * An N-input OR logic gate.
  * 
  * <p>An OR gate outputs true when ANY of its inputs are true.
  * The truth table for a 2-input OR gate is:
@@ -13,7 +13,8 @@ package sim.core;
  * true    | true    | true
  * </pre>
  * 
- * <p>This gate has exactly 2 inputs and 1 output.
+ * <p>The default is 2 inputs; {@link #OrGate(String, int)} takes 0 to {@value Gate#MAX_PINS}.
+ * Any width evaluates as one test of the packed inputs against zero. This gate has 1 output.
  * 
  * @author Digital Logic Simulator
  * @version 1.0
@@ -26,19 +27,28 @@ public class OrGate extends Gate {
      * @param id unique identifier for this gate
      */
     public OrGate(String id) {
-        super(id, 2, 1);
+        this(id, 2);
+    }
+    
+    /**
+     * Constructs a new N-input OR gate with the given number of inputs.
+     * 
+     * @param id unique identifier for this gate
+     * @param numInputs number of input pins, 0 to {@value Gate#MAX_PINS}
+     * @throws IllegalArgumentException if the input count is out of range
+     */
+    public OrGate(String id, int numInputs) {
+        super(id, numInputs, 1);
     }
     
     /**
      * Evaluates the OR gate logic.
      * 
      * <p>Sets the output to true if at least one input is true.
-     * The output is computed as: output = input[0] OR input[1]
      */
     @Override
     public void evaluate() {
-        // OR logic: output is true if ANY input is true
-        boolean result = inputs.get(0) || inputs.get(1);
-        outputs.set(0, result);
+        // OR logic: output is true if ANY input is true (any bit set)
+        outputBits = inputBits != 0 ? 1L : 0L;
     }
 }
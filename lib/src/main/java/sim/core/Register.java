@@ -0,0 +1,33 @@
+package sim.core;
+
+/**
+ * A bank of {@code width} D flip-flops sharing one enable and one synchronous reset.
+ * 
+ * <p>On each clock edge: if RST is high every Q clears, else if EN is high Qi takes Di,
+ * else the register holds.
+ * 
+ * <p>Pin ordering:
+ * - Inputs 0 to width-1: D0..D(width-1)
+ * - Input width: EN
+ * - Input width+1: RST
+ * - Outputs 0 to width-1: Q0..Q(width-1)
+ * 
+ * @author Digital Logic Simulator
+ * @version 1.0
+ */
+public class Register extends SequentialGate {
+    
+    /** Widest register whose data, enable and reset pins fit in {@value Gate#MAX_PINS} inputs */
+    public static final int MAX_WIDTH = MAX_PINS - 2;
+    
+    /**
+     * Constructs a new register with every bit cleared.
+     * 
+     * @param id unique identifier for this gate
+     * @param width number of bits, 1 to {@value #MAX_WIDTH}
+     * @throws IllegalArgumentException if the width is out of range
+     */
+    public Register(String id, int width) {
+        super(id, width, true, true);
+    }
+}
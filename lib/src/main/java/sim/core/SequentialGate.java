@@ -0,0 +1,119 @@
+package sim.core;
+
+/**
+ * Base class for clocked storage elements: flip-flops and registers.
+ * 
+ * <p>A sequential gate holds {@code width} bits of state and drives them on its outputs.
+ * Its inputs are laid out as:
+ * - pins 0 to width-1: data inputs D0..D(width-1)
+ * - an optional enable pin: when low, the state is held
+ * - an optional synchronous reset pin: when high, the state clears (takes priority over enable)
+ * 
+ * <p>{@link #evaluate()} only copies the state to the outputs, so within one evaluation pass a
+ * sequential gate behaves like a primary input. The state changes only in {@link #clock()}.
+ * {@link Circuit} ignores wires into sequential gates when ordering, which is what allows
+ * feedback through a flip-flop (counters, LFSRs, state machines) without "Cycle detected".
+ * 
+ * @author Digital Logic Simulator
+ * @version 1.0
+ */
+public abstract class SequentialGate extends Gate {
+    
+    /** Number of stored bits (= data inputs = outputs) */
+    private final int width;
+    
+    /** Enable input pin, or -1 if always enabled */
+    private final int enablePin;
+    
+    /** Synchronous reset input pin, or -1 if there is none */
+    private final int resetPin;
+    
+    /** Stored bits, bit i drives output pin i */
+    protected long state;
+    
+    /**
+     * Constructs a sequential gate with all state bits cleared.
+     * 
+     * @param id unique identifier for this gate
+     * @param width number of stored bits
+     * @param hasEnable whether an enable pin follows the data pins
+     * @param hasReset whether a reset pin follows the data (and enable) pins
+     * @throws IllegalArgumentException if the width is below 1 or the pins do not fit in {@value Gate#MAX_PINS}
+     */
+    protected SequentialGate(String id, int width, boolean hasEnable, boolean hasReset) {
+        super(id, width + (hasEnable ? 1 : 0) + (hasReset ? 1 : 0), width);
+        if (width < 1) {
+            throw new IllegalArgumentException("Gate " + id + " needs at least one state bit");
+        }
+        this.width = width;
+        this.enablePin = hasEnable ? width : -1;
+        this.resetPin = hasReset ? width + (hasEnable ? 1 : 0) : -1;
+    }
+    
+    /**
+     * Drives the stored state onto the outputs; inputs are not sampled here.
+     */
+    @Override
+    public final void evaluate() {
+        outputBits = state;
+    }
+    
+    /**
+     * Latches the current inputs as on a rising clock edge and drives the new state.
+     */
+    public void clock() {
+        if (resetPin >= 0 && input(resetPin)) {
+            state = 0L;
+        } else if (enablePin < 0 || input(enablePin)) {
+            state = inputBits & mask(width);
+        }
+        outputBits = state;
+    }
+    
+    /**
+     * Gets the stored bits (bit i = output pin i).
+     * 
+     * @return the state
+     */
+    public long getState() {
+        return state;
+    }
+    
+    /**
+     * Overwrites the stored bits, for example to load an initial value, and drives them.
+     * Bits at or above the width are ignored.
+     * 
+     * @param bits the new state
+     */
+    public void setState(long bits) {
+        state = bits & mask(width);
+        outputBits = state;
+    }
+    
+    /**
+     * Gets the number of stored bits.
+     * 
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+    
+    /**
+     * Gets the enable input pin.
+     * 
+     * @return the pin number, or -1 if the gate is always enabled
+     */
+    public int getEnablePin() {
+        return enablePin;
+    }
+    
+    /**
+     * Gets the synchronous reset input pin.
+     * 
+     * @return the pin number, or -1 if the gate has no reset
+     */
+    public int getResetPin() {
+        return resetPin;
+    }
+}
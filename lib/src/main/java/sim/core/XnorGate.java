@@ -0,0 +1,54 @@
+package sim.core;
+
+/**
+ * An N-input XNOR logic gate: the complement of XOR, true when an even number of inputs are true.
+ * 
+ * <p>The truth table for a 2-input XNOR gate is:
+ * <pre>
+ * Input A | Input B | Output
+ * --------|---------|--------
+ * false   | false   | true 
+ * false   | true    | false
+ * true    | false   | false
+ * true    | true    | true 
+ * </pre>
+ * 
+ * <p>The default is 2 inputs; {@link #XnorGate(String, int)} takes 0 to {@value Gate#MAX_PINS}.
+ * This gate has 1 output.
+ * 
+ * @author Digital Logic Simulator
+ * @version 1.0
+ */
+public class XnorGate extends Gate {
+    
+    /**
+     * Constructs a new 2-input XNOR gate with the specified ID.
+     * 
+     * @param id unique identifier for this gate
+     */
+    public XnorGate(String id) {
+        this(id, 2);
+    }
+    
+    /**
+     * Constructs a new N-input XNOR gate with the given number of inputs.
+     * 
+     * @param id unique identifier for this gate
+     * @param numInputs number of input pins, 0 to {@value Gate#MAX_PINS}
+     * @throws IllegalArgumentException if the input count is out of range
+     */
+    public XnorGate(String id, int numInputs) {
+        super(id, numInputs, 1);
+    }
+    
+    /**
+     * Evaluates the XNOR gate logic.
+     * 
+     * <p>Sets the output to true when the number of true inputs is even.
+     */
+    @Override
+    public void evaluate() {
+        // XNOR logic: output is the complement of the parity of the set input bits
+        outputBits = ~Long.bitCount(inputBits) & 1L;
+    }
+}
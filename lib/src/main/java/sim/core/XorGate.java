@@ -1,8 +1,9 @@
 package sim.core;
 /**
- * A 2-input XOR (exclusive OR) logic gate.
+ * An N-input XOR (exclusive OR) logic gate.
  * 
- * <p>An XOR gate outputs true when exactly ONE of its inputs is true (but not both).
+ * <p>An XOR gate outputs true when an odd number of its inputs are true; with two inputs, when
+ * exactly ONE of them is true (but not both).
  * The truth table for a 2-input XOR gate is:
  * <pre>
  * Input A | Input B | Output
@@ -13,7 +14,9 @@ package sim.core;
  * true    | true    | false
  * </pre>
  * 
- * <p>This gate has exactly 2 inputs and 1 output.
+ * <p>The default is 2 inputs; {@link #XorGate(String, int)} takes 0 to {@value Gate#MAX_PINS}, and
+ * the output is the parity of the packed inputs ({@link Long#bitCount(long)}), so a 32-input
+ * parity tree is one gate. This gate has 1 output.
  * 
  * @author Digital Logic Simulator
  * @version 1.0
@@ -26,22 +29,29 @@ public class XorGate extends Gate {
      * @param id unique identifier for this gate
      */
     public XorGate(String id) {
-        super(id, 2, 1);
+        this(id, 2);
     }
     
     /**
-     * Evaluates the XOR gate logic.
+     * Constructs a new N-input XOR gate with the given number of inputs.
      * 
-     * <p>Sets the output to true when exactly one input is true.
-     * The output is computed as: output = input[0] XOR input[1]
+     * @param id unique identifier for this gate
+     * @param numInputs number of input pins, 0 to {@value Gate#MAX_PINS}
+     * @throws IllegalArgumentException if the input count is out of range
+     */
+    public XorGate(String id, int numInputs) {
+        super(id, numInputs, 1);
+    }
+    
+    /**
+     * Evaluates the XOR gate logic.
      * 
-     * <p>Note: XOR can be implemented as (input[0] != input[1]) or
-     * (input[0] ^ input[1]) using Java's logical XOR operator.
+     * <p>Sets the output to the parity of the inputs: true when an odd number of them is true.
+     * For 2 inputs this is: output = input[0] XOR input[1]
      */
     @Override
     public void evaluate() {
-        // XOR logic: output is true when inputs are different
-        boolean result = inputs.get(0) != inputs.get(1);
-        outputs.set(0, result);
+        // XOR logic: output is the parity of the set input bits
+        outputBits = Long.bitCount(inputBits) & 1L;
     }
 }
@@ -0,0 +1,24 @@
+package sim.core.composite;
+
+import sim.core.Gate;
+
+/**
+ * A gate built from other gates, which {@link Flattener} can expand in place of the gate itself.
+ * 
+ * <p>{@link #expand(Expansion)} describes the gate's structure with fresh gate instances: read the
+ * input pins with {@link Expansion#input(int)}, add gates with {@link Expansion#add(Gate, int...)},
+ * and name the signal driving every output pin with {@link Expansion#output(int, int)}. Added gates
+ * may be composites themselves; they are expanded recursively.
+ * 
+ * @author Digital Logic Simulator
+ * @version 1.0
+ */
+public interface Composite {
+    
+    /**
+     * Describes this gate's implementation.
+     * 
+     * @param x the expansion to add gates to
+     */
+    void expand(Expansion x);
+}
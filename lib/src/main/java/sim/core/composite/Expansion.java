@@ -0,0 +1,91 @@
+package sim.core.composite;
+
+import sim.core.Gate;
+
+import java.util.Arrays;
+
+/**
+ * The scope a {@link Composite} expands into.
+ * 
+ * <p>Signals are {@code int} handles. {@code input(pin)} gives the signal on an input pin of the
+ * composite; {@code add} returns the signal of output pin 0 of the new gate, and output pin p of
+ * the same gate is that handle + p. For example, inside a full adder:
+ * <pre>
+ * int ab = x.add(new XorGate(getId() + "_XOR1"), x.input(0), x.input(1));
+ * x.output(0, x.add(new XorGate(getId() + "_XOR2"), ab, x.input(2)));
+ * </pre>
+ * 
+ * @author Digital Logic Simulator
+ * @version 1.0
+ */
+public final class Expansion {
+    
+    private final Flattener flattener;
+    private final Gate owner;
+    private final String path;
+    private final int[] inputs;
+    private final int[] outputs;
+    
+    Expansion(Flattener flattener, Gate owner, String path, int[] inputs) {
+        this.flattener = flattener;
+        this.owner = owner;
+        this.path = path;
+        this.inputs = inputs;
+        this.outputs = new int[owner.getNumOutputs()];
+        Arrays.fill(outputs, -1);
+    }
+    
+    /**
+     * Gets the signal on an input pin of the composite being expanded.
+     * 
+     * @param pin the input pin
+     * @return the signal
+     * @throws IllegalArgumentException if the pin is out of range
+     */
+    public int input(int pin) {
+        if (pin < 0 || pin >= inputs.length) {
+            throw new IllegalArgumentException("Input pin " + pin + " is out of range for " + owner.getId());
+        }
+        return inputs[pin];
+    }
+    
+    /**
+     * Adds a gate whose input pins are driven by the given signals, in pin order.
+     * 
+     * @param gate a fresh gate; composites are expanded recursively
+     * @param in one signal per input pin of {@code gate}
+     * @return the signal of output pin 0; output pin p is this value + p
+     * @throws IllegalArgumentException if the number of signals differs from the gate's inputs
+     */
+    public int add(Gate gate, int... in) {
+        if (in.length != gate.getNumInputs()) {
+            throw new IllegalArgumentException(
+                "Gate " + gate.getId() + " has " + gate.getNumInputs() + " inputs, got " + in.length + " signals"
+            );
+        }
+        return flattener.add(gate, path, in);
+    }
+    
+    /**
+     * Names the signal that drives an output pin of the composite.
+     * 
+     * @param pin the output pin
+     * @param signal the driving signal
+     * @throws IllegalArgumentException if the pin is out of range
+     */
+    public void output(int pin, int signal) {
+        if (pin < 0 || pin >= outputs.length) {
+            throw new IllegalArgumentException("Output pin " + pin + " is out of range for " + owner.getId());
+        }
+        outputs[pin] = signal;
+    }
+    
+    int[] outputs() {
+        for (int p = 0; p < outputs.length; p++) {
+            if (outputs[p] < 0) {
+                throw new IllegalStateException("Composite " + owner.getId() + " left output pin " + p + " undriven");
+            }
+        }
+        return outputs;
+    }
+}
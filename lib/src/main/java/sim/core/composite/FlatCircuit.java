@@ -0,0 +1,81 @@
+package sim.core.composite;
+
+import sim.core.Circuit;
+import sim.core.Gate;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The result of {@link Flattener#flatten(Circuit)}: a circuit without composites, and the
+ * hierarchical name of each of its gates.
+ * 
+ * <p>A hierarchical name is the ids of the enclosing composites and of the gate itself, joined by
+ * {@code /}. A gate that was not inside a composite keeps its id; the XOR computing the sum of a
+ * full adder {@code FA3} is {@code FA3/FA3_XOR2}; and a gate inside a {@code Mux2} inside a
+ * {@code Mux4} {@code M} is {@code M/M_MUX_LOWER/M_MUX_LOWER_AND1}. If ids repeat, the first gate
+ * added under a name is the one {@link #getGate(String)} returns.
+ * 
+ * @author Digital Logic Simulator
+ * @version 1.0
+ */
+public final class FlatCircuit {
+    
+    private final Circuit circuit;
+    private final Map<Gate, String> pathOf;
+    private final Map<String, Gate> byPath;
+    
+    FlatCircuit(Circuit circuit, Map<Gate, String> pathOf, Map<String, Gate> byPath) {
+        this.circuit = circuit;
+        this.pathOf = pathOf;
+        this.byPath = byPath;
+    }
+    
+    /**
+     * Gets the flat circuit.
+     * 
+     * @return the circuit, with all primary inputs at 0
+     */
+    public Circuit getCircuit() {
+        return circuit;
+    }
+    
+    /**
+     * Gets the hierarchical name of a gate of the flat circuit.
+     * 
+     * @param gate a gate of {@link #getCircuit()}
+     * @return its hierarchical name
+     * @throws IllegalArgumentException if the gate is not in the flat circuit
+     */
+    public String getPath(Gate gate) {
+        String path = pathOf.get(gate);
+        if (path == null) {
+            throw new IllegalArgumentException("Gate not found in flat circuit: " + (gate == null ? null : gate.getId()));
+        }
+        return path;
+    }
+    
+    /**
+     * Looks up a gate of the flat circuit by hierarchical name.
+     * 
+     * @param path the hierarchical name
+     * @return the gate
+     * @throws IllegalArgumentException if no gate has that name
+     */
+    public Gate getGate(String path) {
+        Gate g = byPath.get(path);
+        if (g == null) {
+            throw new IllegalArgumentException("No gate named " + path);
+        }
+        return g;
+    }
+    
+    /**
+     * Gets every hierarchical name and its gate.
+     * 
+     * @return unmodifiable map from hierarchical name to gate
+     */
+    public Map<String, Gate> getGatesByPath() {
+        return Collections.unmodifiableMap(byPath);
+    }
+}
@@ -0,0 +1,192 @@
+package sim.core.composite;
+
+import sim.core.Circuit;
+import sim.core.CircuitBuilder;
+import sim.core.Gate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Expands every {@link Composite} in a circuit into the primitive gates it is made of.
+ * 
+ * <p>The result is a new circuit with the same primary inputs (in the same order) and primary
+ * outputs, where a {@code FullAdder} has become its XOR, AND and OR gates wired straight to its
+ * neighbours. The compiled engines then see one flat netlist of native opcodes instead of opaque
+ * gates that re-drive private internal gates on every evaluation. Nested composites (a {@code Mux4}
+ * made of {@code Mux2}s) are expanded recursively.
+ * 
+ * <p>Gates that are not composites are shared with the original circuit, as with
+ * {@link sim.core.Netlist#toCircuit()}, so the two circuits must not be simulated concurrently.
+ * Each gate of the flat circuit keeps a hierarchical name, see {@link FlatCircuit#getPath(Gate)}.
+ * 
+ * <p>Pin resolution is preserved: a wire still wins over a primary input on the same pin, and a
+ * pin with neither still reads 0. A primary input that no flat gate reads any more is dropped.
+ * 
+ * @author Digital Logic Simulator
+ * @version 1.0
+ */
+public final class Flattener {
+    
+    /** Signal kinds: output pin of a flat gate, or input pin of an original gate */
+    private static final byte GATE = 0;
+    private static final byte PORT = 1;
+    
+    private final CircuitBuilder builder;
+    
+    /** Signal table: kind, gate index (flat or original) and pin */
+    private byte[] sigKind = new byte[64];
+    private int[] sigGate = new int[64];
+    private int[] sigPin = new int[64];
+    private int signals;
+    
+    /** Flat input pins still to connect: gate, pin and the signal that drives it */
+    private int[] connGate = new int[64];
+    private int[] connPin = new int[64];
+    private int[] connSig = new int[64];
+    private int connections;
+    
+    private final Map<Gate, String> pathOf = new IdentityHashMap<>();
+    private final Map<String, Gate> byPath = new HashMap<>();
+    
+    private Flattener(int expectedGates, int expectedWires) {
+        this.builder = new CircuitBuilder(expectedGates, expectedWires);
+    }
+    
+    /**
+     * Flattens a circuit.
+     * 
+     * @param circuit the circuit to flatten; it is not modified
+     * @return the flat circuit and its hierarchical names
+     * @throws IllegalArgumentException if a primary output would read a composite output that is
+     *         not driven by pin 0 of a primitive gate
+     * @throws IllegalStateException if a composite leaves an output undriven
+     */
+    public static FlatCircuit flatten(Circuit circuit) {
+        List<Gate> gates = circuit.getGates();
+        int numWires = circuit.getNumWires();
+        Flattener f = new Flattener(gates.size() * 4, numWires * 4);
+        
+        Map<Gate, Integer> index = new IdentityHashMap<>(gates.size() * 2);
+        for (int i = 0; i < gates.size(); i++) index.put(gates.get(i), i);
+        
+        // Expand every original gate; its input pins are PORT signals resolved once all exist
+        int[] firstOutput = new int[gates.size()];
+        for (int i = 0; i < gates.size(); i++) {
+            Gate g = gates.get(i);
+            int[] in = new int[g.getNumInputs()];
+            for (int p = 0; p < in.length; p++) in[p] = f.signal(PORT, i, p);
+            firstOutput[i] = f.add(g, "", in);
+        }
+        
+        // What drives each original input pin: wires, then primary input names
+        Map<Long, List<Integer>> wireDrivers = new HashMap<>();
+        for (int w = 0; w < numWires; w++) {
+            int from = circuit.getWireFrom(w);
+            wireDrivers.computeIfAbsent(key(circuit.getWireTo(w), circuit.getWireToPin(w)), k -> new ArrayList<>())
+                       .add(firstOutput[from] + circuit.getWireFromPin(w));
+        }
+        Map<Long, List<Integer>> inputDrivers = new HashMap<>();
+        String[] names = circuit.getPrimaryInputBindings().keySet().toArray(new String[0]);
+        for (int n = 0; n < names.length; n++) {
+            for (Circuit.InputBinding b : circuit.getPrimaryInputBindings().get(names[n])) {
+                Integer g = index.get(b.gate());
+                if (g != null) inputDrivers.computeIfAbsent(key(g, b.pin()), k -> new ArrayList<>()).add(n);
+            }
+        }
+        
+        // Wires now; primary inputs afterwards, grouped by name so handles keep the original order
+        List<List<int[]>> inputPins = new ArrayList<>();
+        for (int n = 0; n < names.length; n++) inputPins.add(new ArrayList<>());
+        for (int c = 0; c < f.connections; c++) {
+            f.connect(f.connSig[c], f.connGate[c], f.connPin[c], wireDrivers, inputDrivers, inputPins, 0, gates.size());
+        }
+        for (int n = 0; n < names.length; n++) {
+            for (int[] pin : inputPins.get(n)) f.builder.connectPrimaryInput(names[n], pin[0], pin[1]);
+        }
+        
+        for (Gate out : circuit.getPrimaryOutputs()) {
+            int s = firstOutput[index.get(out)];
+            if (f.sigKind[s] != GATE || f.sigPin[s] != 0) {
+                throw new IllegalArgumentException(
+                    "Primary output " + out.getId() + " is not driven by pin 0 of a gate after flattening"
+                );
+            }
+            f.builder.addPrimaryOutput(f.sigGate[s]);
+        }
+        return new FlatCircuit(f.builder.build().toCircuit(), f.pathOf, f.byPath);
+    }
+    
+    private static long key(int gate, int pin) {
+        return ((long) gate << 8) | pin;
+    }
+    
+    /** Adds a gate under {@code path}, expanding composites; returns the signal of its output pin 0. */
+    int add(Gate gate, String path, int[] in) {
+        int[] out;
+        if (gate instanceof Composite composite) {
+            Expansion x = new Expansion(this, gate, path + gate.getId() + "/", in);
+            composite.expand(x);
+            out = x.outputs();
+            int first = signals;
+            for (int s : out) signal(sigKind[s], sigGate[s], sigPin[s]);
+            return first;
+        }
+        int idx = builder.addGate(gate);
+        String name = path + gate.getId();
+        pathOf.put(gate, name);
+        byPath.putIfAbsent(name, gate);
+        for (int p = 0; p < in.length; p++) {
+            if (connections == connGate.length) {
+                int cap = connections * 2;
+                connGate = Arrays.copyOf(connGate, cap);
+                connPin = Arrays.copyOf(connPin, cap);
+                connSig = Arrays.copyOf(connSig, cap);
+            }
+            connGate[connections] = idx;
+            connPin[connections] = p;
+            connSig[connections] = in[p];
+            connections++;
+        }
+        int first = signals;
+        for (int p = 0, m = gate.getNumOutputs(); p < m; p++) signal(GATE, idx, p);
+        return first;
+    }
+    
+    private int signal(byte kind, int gate, int pin) {
+        if (signals == sigKind.length) {
+            int cap = signals * 2;
+            sigKind = Arrays.copyOf(sigKind, cap);
+            sigGate = Arrays.copyOf(sigGate, cap);
+            sigPin = Arrays.copyOf(sigPin, cap);
+        }
+        sigKind[signals] = kind;
+        sigGate[signals] = gate;
+        sigPin[signals] = pin;
+        return signals++;
+    }
+    
+    /** Connects a flat input pin to whatever drives signal {@code s}, following composite pass-throughs. */
+    private void connect(int s, int gate, int pin, Map<Long, List<Integer>> wireDrivers,
+                         Map<Long, List<Integer>> inputDrivers, List<List<int[]>> inputPins,
+                         int depth, int bound) {
+        if (sigKind[s] == GATE) {
+            builder.addWire(sigGate[s], sigPin[s], gate, pin);
+            return;
+        }
+        if (depth > bound) {
+            throw new IllegalStateException("Cycle detected");
+        }
+        long k = key(sigGate[s], sigPin[s]);
+        for (int src : wireDrivers.getOrDefault(k, List.of())) {
+            connect(src, gate, pin, wireDrivers, inputDrivers, inputPins, depth + 1, bound);
+        }
+        for (int n : inputDrivers.getOrDefault(k, List.of())) {
+            inputPins.get(n).add(new int[] {gate, pin});
+        }
+    }
+}
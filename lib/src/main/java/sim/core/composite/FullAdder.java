@@ -2,9 +2,6 @@ package sim.core.composite;
 
 import sim.core.*;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * A FullAdder composite gate that computes the sum and carry-out of three binary inputs.
  * 
@@ -33,23 +30,20 @@ import java.util.List;
  * 1 | 1 |  1  |  1  |  1
  * </pre>
  * 
- * <p>Internal structure: Uses XOR gates for SUM and AND/OR gates for majority function.
+ * <p>Evaluation is a lookup in one precomputed truth table per output (see {@link LutGate});
+ * {@link #expand(Expansion)} gives the gate-level structure: XOR gates for SUM and AND/OR gates
+ * for the majority function.
  * 
  * @author Digital Logic Simulator
  * @version 1.0
  */
-public class FullAdder extends Gate {
-    
-
-    
-    /** Internal XOR gates for computing SUM */
-    private final XorGate xor1, xor2;
+public class FullAdder extends LutGate implements Composite {
     
-    /** Internal AND gates for computing majority */
-    private final AndGate and1, and2, and3;
+    /** SUM table: odd parity of the row (A = bit 0, B = bit 1, Cin = bit 2) */
+    static final long SUM_TABLE = LutGate.tabulate(3, row -> Integer.bitCount(row) % 2 == 1);
     
-    /** Internal OR gate for computing Cout */
-    private final OrGate orGate;
+    /** Cout table: at least two of the three inputs set */
+    static final long COUT_TABLE = LutGate.tabulate(3, row -> Integer.bitCount(row) >= 2);
     
     /**
      * Constructs a new FullAdder composite gate.
@@ -57,67 +51,21 @@ public class FullAdder extends Gate {
      * @param id unique identifier for this gate
      */
     public FullAdder(String id) {
-        super(id, 3, 2); // 3 inputs (A, B, Cin), 2 outputs (SUM, Cout)
-        
-        // Create internal gates
-        this.xor1 = new XorGate(id + "_XOR1");
-        this.xor2 = new XorGate(id + "_XOR2");
-        this.and1 = new AndGate(id + "_AND1");
-        this.and2 = new AndGate(id + "_AND2");
-        this.and3 = new AndGate(id + "_AND3");
-        this.orGate = new OrGate(id + "_OR");
+        super(id, 3, SUM_TABLE, COUT_TABLE); // 3 inputs (A, B, Cin), 2 outputs (SUM, Cout)
     }
     
-
-    
+    /**
+     * Expands to two XORs for SUM and three ANDs feeding two ORs for Cout.
+     */
     @Override
-    public void evaluate() {
-        // Set inputs on internal gates
-        xor1.setInput(0, inputs.get(0)); // A
-        xor1.setInput(1, inputs.get(1)); // B
-        
-        // Evaluate first XOR (A ⊕ B)
-        xor1.evaluate();
-        
-        // Set inputs for second XOR (A ⊕ B) ⊕ Cin
-        xor2.setInput(0, xor1.getOutput(0)); // A ⊕ B
-        xor2.setInput(1, inputs.get(2));     // Cin
-        
-        // Evaluate second XOR for SUM
-        xor2.evaluate();
-        
-        // Compute majority function for Cout
-        // Cout = (A & B) | (A & Cin) | (B & Cin)
-        and1.setInput(0, inputs.get(0)); // A
-        and1.setInput(1, inputs.get(1)); // B
-        
-        and2.setInput(0, inputs.get(0)); // A
-        and2.setInput(1, inputs.get(2)); // Cin
-        
-        and3.setInput(0, inputs.get(1)); // B
-        and3.setInput(1, inputs.get(2)); // Cin
-        
-        // Evaluate AND gates
-        and1.evaluate();
-        and2.evaluate();
-        and3.evaluate();
-        
-        // Set inputs for OR gate
-        orGate.setInput(0, and1.getOutput(0)); // A & B
-        orGate.setInput(1, and2.getOutput(0)); // A & Cin
-        
-        // Evaluate OR gate
-        orGate.evaluate();
-        
-        // Set inputs for final OR (majority)
-        orGate.setInput(0, orGate.getOutput(0)); // (A & B) | (A & Cin)
-        orGate.setInput(1, and3.getOutput(0));  // B & Cin
-        
-        // Final evaluation for Cout
-        orGate.evaluate();
-        
-        // Read outputs
-        outputs.set(0, xor2.getOutput(0)); // SUM = A ⊕ B ⊕ Cin
-        outputs.set(1, orGate.getOutput(0)); // Cout = majority(A, B, Cin)
+    public void expand(Expansion x) {
+        int a = x.input(0), b = x.input(1), cin = x.input(2);
+        int ab = x.add(new XorGate(id + "_XOR1"), a, b);
+        x.output(0, x.add(new XorGate(id + "_XOR2"), ab, cin));
+        int and1 = x.add(new AndGate(id + "_AND1"), a, b);
+        int and2 = x.add(new AndGate(id + "_AND2"), a, cin);
+        int and3 = x.add(new AndGate(id + "_AND3"), b, cin);
+        int or1 = x.add(new OrGate(id + "_OR1"), and1, and2);
+        x.output(1, x.add(new OrGate(id + "_OR2"), or1, and3));
     }
 }
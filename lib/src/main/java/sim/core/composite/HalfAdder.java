@@ -2,9 +2,6 @@ package sim.core.composite;
 
 import sim.core.*;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * A HalfAdder composite gate that computes the sum and carry of two binary inputs.
  * 
@@ -28,23 +25,20 @@ import java.util.List;
  * 1 | 1 |  0  |   1
  * </pre>
  * 
- * <p>Internal structure: Uses one XOR gate for SUM and one AND gate for CARRY.
+ * <p>Evaluation is a lookup in one precomputed truth table per output (see {@link LutGate});
+ * {@link #expand(Expansion)} gives the gate-level structure: one XOR gate for SUM and one AND gate
+ * for CARRY.
  * 
  * @author Digital Logic Simulator
  * @version 1.0
  */
-public class HalfAdder extends Gate {
-    
-
-    
-    /** Internal XOR gate for computing SUM */
-    private final XorGate xorGate;
+public class HalfAdder extends LutGate implements Composite {
     
-    /** Internal AND gate for computing CARRY */
-    private final AndGate andGate;
+    /** SUM table: A XOR B (A = bit 0, B = bit 1) */
+    static final long SUM_TABLE = 0b0110L;
     
-    /** Internal wires connecting inputs to gates */
-    private final List<Wire> internalWires;
+    /** CARRY table: A AND B */
+    static final long CARRY_TABLE = 0b1000L;
     
     /**
      * Constructs a new HalfAdder composite gate.
@@ -52,46 +46,15 @@ public class HalfAdder extends Gate {
      * @param id unique identifier for this gate
      */
     public HalfAdder(String id) {
-        super(id, 2, 2); // 2 inputs (A, B), 2 outputs (SUM, CARRY)
-        
-        // Create internal gates
-        this.xorGate = new XorGate(id + "_XOR");
-        this.andGate = new AndGate(id + "_AND");
-        
-        // Create internal wires
-        this.internalWires = new ArrayList<>();
-        
-        // Wire A to both XOR and AND gates (input 0)
-        Wire wireAtoXOR = new Wire(this, 0, xorGate, 0);
-        Wire wireAtoAND = new Wire(this, 0, andGate, 0);
-        
-        // Wire B to both XOR and AND gates (input 1)
-        Wire wireBtoXOR = new Wire(this, 1, xorGate, 1);
-        Wire wireBtoAND = new Wire(this, 1, andGate, 1);
-        
-        // Store internal wires for evaluation
-        this.internalWires.add(wireAtoXOR);
-        this.internalWires.add(wireAtoAND);
-        this.internalWires.add(wireBtoXOR);
-        this.internalWires.add(wireBtoAND);
+        super(id, 2, SUM_TABLE, CARRY_TABLE); // 2 inputs (A, B), 2 outputs (SUM, CARRY)
     }
     
-
-    
+    /**
+     * Expands to one XOR gate (SUM) and one AND gate (CARRY) on A and B.
+     */
     @Override
-    public void evaluate() {
-        // Set inputs on internal gates
-        xorGate.setInput(0, inputs.get(0)); // A
-        xorGate.setInput(1, inputs.get(1)); // B
-        andGate.setInput(0, inputs.get(0)); // A
-        andGate.setInput(1, inputs.get(1)); // B
-        
-        // Evaluate internal gates
-        xorGate.evaluate();
-        andGate.evaluate();
-        
-        // Read outputs from internal gates
-        outputs.set(0, xorGate.getOutput(0)); // SUM = A ⊕ B
-        outputs.set(1, andGate.getOutput(0)); // CARRY = A & B
+    public void expand(Expansion x) {
+        x.output(0, x.add(new XorGate(id + "_XOR"), x.input(0), x.input(1)));
+        x.output(1, x.add(new AndGate(id + "_AND"), x.input(0), x.input(1)));
     }
 }
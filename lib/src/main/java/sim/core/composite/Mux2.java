@@ -2,9 +2,6 @@ package sim.core.composite;
 
 import sim.core.*;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * A 2-to-1 multiplexer (Mux2) composite gate that selects between two data inputs.
  * 
@@ -32,23 +29,17 @@ import java.util.List;
  *  1  |  1 |  1 |  1
  * </pre>
  * 
- * <p>Internal structure: Uses NOT, AND, and OR gates to implement the selection logic.
+ * <p>Evaluation is a lookup in a precomputed truth table (see {@link LutGate});
+ * {@link #expand(Expansion)} gives the gate-level structure: NOT, AND, and OR gates implement the
+ * selection logic.
  * 
  * @author Digital Logic Simulator
  * @version 1.0
  */
-public class Mux2 extends Gate {
-    
-
-    
-    /** Internal NOT gate for inverting selection signal */
-    private final NotGate notGate;
-    
-    /** Internal AND gates for data selection */
-    private final AndGate and1, and2;
+public class Mux2 extends LutGate implements Composite {
     
-    /** Internal OR gate for combining selected data */
-    private final OrGate orGate;
+    /** Output table: D1 if Sel else D0 (Sel = bit 0, D0 = bit 1, D1 = bit 2) */
+    static final long TABLE = LutGate.tabulate(3, row -> ((row >> (1 + (row & 1))) & 1) != 0);
     
     /**
      * Constructs a new Mux2 composite gate.
@@ -56,45 +47,18 @@ public class Mux2 extends Gate {
      * @param id unique identifier for this gate
      */
     public Mux2(String id) {
-        super(id, 3, 1); // 3 inputs (Sel, D0, D1), 1 output (Out)
-        
-        // Create internal gates
-        this.notGate = new NotGate(id + "_NOT");
-        this.and1 = new AndGate(id + "_AND1");
-        this.and2 = new AndGate(id + "_AND2");
-        this.orGate = new OrGate(id + "_OR");
+        super(id, 3, TABLE); // 3 inputs (Sel, D0, D1), 1 output (Out)
     }
     
-
-    
+    /**
+     * Expands to {@code (~Sel & D0) | (Sel & D1)}: one NOT, two ANDs and one OR.
+     */
     @Override
-    public void evaluate() {
-        // Set inputs on internal gates
-        notGate.setInput(0, inputs.get(0)); // Sel
-        
-        // Evaluate NOT gate to get ~Sel
-        notGate.evaluate();
-        
-        // Set inputs for AND1: (~Sel & D0)
-        and1.setInput(0, notGate.getOutput(0)); // ~Sel
-        and1.setInput(1, inputs.get(1));        // D0
-        
-        // Set inputs for AND2: (Sel & D1)
-        and2.setInput(0, inputs.get(0));        // Sel
-        and2.setInput(1, inputs.get(2));        // D1
-        
-        // Evaluate AND gates
-        and1.evaluate();
-        and2.evaluate();
-        
-        // Set inputs for OR gate: (~Sel & D0) | (Sel & D1)
-        orGate.setInput(0, and1.getOutput(0)); // ~Sel & D0
-        orGate.setInput(1, and2.getOutput(0)); // Sel & D1
-        
-        // Evaluate OR gate
-        orGate.evaluate();
-        
-        // Read output
-        outputs.set(0, orGate.getOutput(0)); // Out = (~Sel & D0) | (Sel & D1)
+    public void expand(Expansion x) {
+        int sel = x.input(0);
+        int notSel = x.add(new NotGate(id + "_NOT"), sel);
+        int and1 = x.add(new AndGate(id + "_AND1"), notSel, x.input(1));
+        int and2 = x.add(new AndGate(id + "_AND2"), sel, x.input(2));
+        x.output(0, x.add(new OrGate(id + "_OR"), and1, and2));
     }
 }
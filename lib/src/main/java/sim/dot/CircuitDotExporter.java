@@ -7,6 +7,7 @@ import sim.core.Wire;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 /**
  * Converts a {@link Circuit} into a Graphviz DOT representation.
@@ -31,12 +32,13 @@ public final class CircuitDotExporter {
 			  .append(escapeLabel(label)).append("\"];\n");
 		}
 		// Edges
-		for (Wire wire : circuit.getWires()) {
-			String fromId = escapeId(wire.getFromGate().getId());
-			String toId = escapeId(wire.getToGate().getId());
+		List<Gate> gates = circuit.getGates();
+		for (int w = 0; w < circuit.getNumWires(); w++) {
+			String fromId = escapeId(gates.get(circuit.getWireFrom(w)).getId());
+			String toId = escapeId(gates.get(circuit.getWireTo(w)).getId());
 			sb.append("  \"").append(fromId).append("\" -> \"")
 			  .append(toId).append("\" [label=\"in ")
-			  .append(wire.getToPin()).append("\"];\n");
+			  .append(circuit.getWireToPin(w)).append("\"];\n");
 		}
 		sb.append("}\n");
 		return sb.toString();
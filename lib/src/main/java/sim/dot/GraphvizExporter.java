@@ -2,7 +2,6 @@ package sim.dot;
 
 import sim.core.Circuit;
 import sim.core.Gate;
-import sim.core.Wire;
 import sim.core.AndGate;
 import sim.core.OrGate;
 import sim.core.NotGate;
@@ -66,10 +65,11 @@ public final class GraphvizExporter {
         sb.append("\n");
 
         // Wires between gates
-        for (Wire w : c.getWires()) {
-            sb.append("  ").append(gNode(w.getFromGate())).append(" -> ").append(gNode(w.getToGate()))
-              .append(" [headlabel=\"in").append(w.getToPin())
-              .append("\", taillabel=\"out").append(w.getFromPin())
+        List<Gate> gates = c.getGates();
+        for (int w = 0; w < c.getNumWires(); w++) {
+            sb.append("  ").append(gNode(gates.get(c.getWireFrom(w)))).append(" -> ").append(gNode(gates.get(c.getWireTo(w))))
+              .append(" [headlabel=\"in").append(c.getWireToPin(w))
+              .append("\", taillabel=\"out").append(c.getWireFromPin(w))
               .append("\", labeldistance=2, labelfontsize=9];\n");
         }
         sb.append("\n");
@@ -0,0 +1,345 @@
+package sim.engine;
+
+import sim.core.Circuit;
+import sim.core.Gate;
+import sim.core.LutGate;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An And-Inverter Graph: a combinational {@link Circuit} rewritten as 2-input AND nodes whose
+ * edges may be complemented, with a word-parallel evaluator that runs on the packed form.
+ *
+ * <p>A literal is {@code var << 1 | complemented}. Variable 0 is constant 0 (so literal 1 is
+ * constant 1), variables 1..P are the primary inputs, and AND node k is variable {@code P + 1 + k}
+ * with input literals {@code ands[2k]} and {@code ands[2k + 1]}. Nodes are stored in topological
+ * order, so {@link #propagate()} is one pass over a single {@code int[]} and one {@code long} per
+ * variable. NOT and BUF cost nothing: they only flip or forward a literal.
+ *
+ * <p>Nodes are structurally hashed while the graph is built: an AND of two literals that already
+ * exists is reused, and {@code x & 0}, {@code x & 1}, {@code x & x} and {@code x & ~x} fold away.
+ * XOR is encoded as {@code ~(a & b) & ~(~a & ~b)}, which shares its {@code a & b} node with the
+ * carry AND of a half or full adder. Gates without a native mapping (such as the composite adders
+ * and multiplexers) are synthesized from their truth table by Shannon expansion, so duplicate
+ * logic across instances collapses to one set of nodes.
+ *
+ * <p>Pin resolution matches {@link CompiledCircuit}. Sequential gates and non-native gates with
+ * more than {@value LutGate#MAX_INPUTS} inputs are not supported. The graph is a snapshot and
+ * does not follow later edits to the circuit.
+ */
+public final class Aig {
+
+    /** Rows where input v is 1, for v = 0 .. 5 of a 64-row truth table */
+    static final long[] VAR_MASK = {
+        0xAAAAAAAAAAAAAAAAL, 0xCCCCCCCCCCCCCCCCL, 0xF0F0F0F0F0F0F0F0L,
+        0xFF00FF00FF00FF00L, 0xFFFF0000FFFF0000L, 0xFFFFFFFF00000000L
+    };
+
+    final String[] inputNames;
+    private final Map<String, Integer> inputIndex;
+
+    /** Input literal pairs, two per AND node */
+    final int[] ands;
+
+    /** Literal read by each primary output */
+    final int[] outputLit;
+
+    /** Current value of every variable, 64 lanes per word */
+    private final long[] values;
+
+    private Aig(String[] inputNames, Map<String, Integer> inputIndex, int[] ands, int[] outputLit) {
+        this.inputNames = inputNames;
+        this.inputIndex = inputIndex;
+        this.ands = ands;
+        this.outputLit = outputLit;
+        this.values = new long[1 + inputNames.length + ands.length / 2];
+    }
+
+    /**
+     * Converts a combinational circuit.
+     *
+     * @param circuit the circuit to convert
+     * @return a new graph with all inputs at 0
+     * @throws IllegalArgumentException if the circuit has a sequential gate, or a gate without a
+     *         native mapping that has more than {@value LutGate#MAX_INPUTS} inputs
+     * @throws IllegalStateException if the circuit contains a cycle
+     */
+    public static Aig of(Circuit circuit) {
+        return of(CompiledCircuit.compile(circuit));
+    }
+
+    static Aig of(CompiledCircuit cc) {
+        int numInputs = cc.inputNames.length;
+        Builder b = new Builder(1 + numInputs);
+        int[] netLit = new int[cc.nets.length];
+        for (int i = 1; i <= numInputs; i++) netLit[i] = i << 1;
+
+        int[] in = new int[Gate.MAX_PINS];
+        for (int g = 0; g < cc.gates.length; g++) {
+            int s = cc.faninStart[g], k = cc.faninStart[g + 1] - s, out = cc.outNet[g];
+            for (int p = 0; p < k; p++) in[p] = netLit[cc.faninNet[s + p]];
+            switch (cc.op[g]) {
+                case CompiledCircuit.OP_NOT -> netLit[out] = in[0] ^ 1;
+                case CompiledCircuit.OP_BUF -> netLit[out] = in[0];
+                case CompiledCircuit.OP_AND, CompiledCircuit.OP_ANDN -> netLit[out] = b.andAll(in, k);
+                case CompiledCircuit.OP_NANDN -> netLit[out] = b.andAll(in, k) ^ 1;
+                case CompiledCircuit.OP_OR, CompiledCircuit.OP_ORN -> netLit[out] = b.orAll(in, k);
+                case CompiledCircuit.OP_NORN -> netLit[out] = b.orAll(in, k) ^ 1;
+                case CompiledCircuit.OP_XOR, CompiledCircuit.OP_XORN -> netLit[out] = b.xorAll(in, k);
+                case CompiledCircuit.OP_XNORN -> netLit[out] = b.xorAll(in, k) ^ 1;
+                case CompiledCircuit.OP_STATE -> throw new IllegalArgumentException(
+                    "Gate " + cc.gates[g].getId() + " is sequential; an AIG covers combinational logic only"
+                );
+                default -> {
+                    Gate gate = cc.gates[g];
+                    if (k > LutGate.MAX_INPUTS) {
+                        throw new IllegalArgumentException(
+                            "Gate " + gate.getId() + " has " + k + " inputs; at most " + LutGate.MAX_INPUTS
+                            + " can be converted from a truth table"
+                        );
+                    }
+                    LutGate lut = gate instanceof LutGate l ? l : LutGate.of(gate.getId(), gate);
+                    for (int p = 0, m = gate.getNumOutputs(); p < m; p++) {
+                        netLit[out + p] = b.synthesize(lut.getTable(p), k, in);
+                    }
+                }
+            }
+        }
+
+        int[] outputLit = new int[cc.outputNet.length];
+        for (int o = 0; o < outputLit.length; o++) outputLit[o] = netLit[cc.outputNet[o]];
+        Map<String, Integer> index = new HashMap<>(numInputs * 2);
+        for (int i = 0; i < numInputs; i++) index.put(cc.inputNames[i], i);
+        return new Aig(cc.inputNames.clone(), index, Arrays.copyOf(b.ands, b.count * 2), outputLit);
+    }
+
+    /** Builds the node list with structural hashing. */
+    private static final class Builder {
+
+        private final int firstVar;
+        private int[] ands = new int[64];
+        private int count;
+        /** (lower literal, higher literal) to the literal of the AND node over them */
+        private final Map<Long, Integer> strash = new HashMap<>();
+
+        Builder(int firstVar) {
+            this.firstVar = firstVar;
+        }
+
+        int and(int a, int b) {
+            if (a > b) {
+                int t = a;
+                a = b;
+                b = t;
+            }
+            if (a == 0 || (a ^ 1) == b) return 0;
+            if (a == 1 || a == b) return b;
+            long key = (long) a << 32 | b;
+            Integer hit = strash.get(key);
+            if (hit != null) return hit;
+            if (count * 2 == ands.length) ands = Arrays.copyOf(ands, ands.length * 2);
+            ands[count * 2] = a;
+            ands[count * 2 + 1] = b;
+            int lit = (firstVar + count++) << 1;
+            strash.put(key, lit);
+            return lit;
+        }
+
+        int or(int a, int b) {
+            return and(a ^ 1, b ^ 1) ^ 1;
+        }
+
+        int xor(int a, int b) {
+            return and(and(a, b) ^ 1, and(a ^ 1, b ^ 1) ^ 1);
+        }
+
+        int andAll(int[] in, int k) {
+            int lit = 1;
+            for (int p = 0; p < k; p++) lit = and(lit, in[p]);
+            return lit;
+        }
+
+        int orAll(int[] in, int k) {
+            int lit = 0;
+            for (int p = 0; p < k; p++) lit = or(lit, in[p]);
+            return lit;
+        }
+
+        int xorAll(int[] in, int k) {
+            int lit = 0;
+            for (int p = 0; p < k; p++) lit = xor(lit, in[p]);
+            return lit;
+        }
+
+        /** Builds a truth table over the first {@code k} literals of {@code in}. */
+        int synthesize(long table, int k, int[] in) {
+            // Repeat the 2^k rows across the word so cofactors compare as whole longs
+            for (int w = 1 << k; w < 64; w <<= 1) table |= table << w;
+            return shannon(table, k - 1, in);
+        }
+
+        private int shannon(long t, int v, int[] in) {
+            if (t == 0) return 0;
+            if (t == -1L) return 1;
+            long m = VAR_MASK[v];
+            int shift = 1 << v;
+            long f1 = (t & m) | ((t & m) >>> shift);
+            long f0 = (t & ~m) | ((t & ~m) << shift);
+            if (f0 == f1) return shannon(t, v - 1, in);
+            int x = in[v];
+            if (f0 == ~f1) return xor(x, shannon(f0, v - 1, in));
+            if (f0 == 0) return and(x, shannon(f1, v - 1, in));
+            if (f1 == 0) return and(x ^ 1, shannon(f0, v - 1, in));
+            if (f0 == -1L) return or(x ^ 1, shannon(f1, v - 1, in));
+            if (f1 == -1L) return or(x, shannon(f0, v - 1, in));
+            return or(and(x, shannon(f1, v - 1, in)), and(x ^ 1, shannon(f0, v - 1, in)));
+        }
+    }
+
+    /** A graph sharing this one's nodes but with its own values, for evaluation on another thread. */
+    Aig copy() {
+        return new Aig(inputNames, inputIndex, ands, outputLit);
+    }
+
+    /**
+     * Evaluates every AND node once, 64 lanes at a time.
+     */
+    public void propagate() {
+        final long[] v = values;
+        final int[] a = ands;
+        for (int k = 0, var = 1 + inputNames.length, n = a.length; k < n; k += 2, var++) {
+            int l0 = a[k], l1 = a[k + 1];
+            v[var] = (v[l0 >>> 1] ^ -(long) (l0 & 1)) & (v[l1 >>> 1] ^ -(long) (l1 & 1));
+        }
+    }
+
+    /** @return the number of AND nodes */
+    public int getNumAnds() {
+        return ands.length / 2;
+    }
+
+    /**
+     * Returns the packed graph: AND node k reads literals {@code [2k]} and {@code [2k + 1]}.
+     *
+     * @return a copy of the literal pairs
+     */
+    public int[] getAnds() {
+        return ands.clone();
+    }
+
+    /**
+     * Gets the literal a primary output reads.
+     *
+     * @param index position in {@link Circuit#getPrimaryOutputs()}
+     * @return the literal
+     */
+    public int getOutputLiteral(int index) {
+        return outputLit[checkOutput(index)];
+    }
+
+    /**
+     * Returns the index of a primary input.
+     *
+     * @param name the primary input name
+     * @return the input index
+     * @throws IllegalArgumentException if no input has that name
+     */
+    public int inputIndex(String name) {
+        Integer i = inputIndex.get(name);
+        if (i == null) {
+            throw new IllegalArgumentException("Unknown primary input: " + name);
+        }
+        return i;
+    }
+
+    /**
+     * Sets a primary input by name; takes effect on the next {@link #propagate()}.
+     *
+     * @param name the primary input name
+     * @param value the value to drive on all lanes
+     */
+    public void setPrimaryInput(String name, boolean value) {
+        setInput(inputIndex(name), value);
+    }
+
+    /**
+     * Sets a primary input by index.
+     *
+     * @param index the input index, see {@link #inputIndex(String)}
+     * @param value the value to drive on all lanes
+     */
+    public void setInput(int index, boolean value) {
+        values[1 + checkInput(index)] = value ? -1L : 0L;
+    }
+
+    /**
+     * Sets all 64 lanes of a primary input; lane i belongs to input vector i.
+     *
+     * @param index the input index, see {@link #inputIndex(String)}
+     * @param word one bit per pattern
+     */
+    public void setInputWord(int index, long word) {
+        values[1 + checkInput(index)] = word;
+    }
+
+    /**
+     * Reads lane 0 of a primary output.
+     *
+     * @param index position in {@link Circuit#getPrimaryOutputs()}
+     * @return the output value
+     */
+    public boolean getOutput(int index) {
+        return (getOutputWord(index) & 1L) != 0;
+    }
+
+    /**
+     * Reads all 64 lanes of a primary output.
+     *
+     * @param index position in {@link Circuit#getPrimaryOutputs()}
+     * @return one bit per pattern
+     */
+    public long getOutputWord(int index) {
+        int lit = outputLit[checkOutput(index)];
+        return values[lit >>> 1] ^ -(long) (lit & 1);
+    }
+
+    /** @return the number of primary inputs */
+    public int getNumInputs() {
+        return inputNames.length;
+    }
+
+    /** @return the number of primary outputs */
+    public int getNumOutputs() {
+        return outputLit.length;
+    }
+
+    /**
+     * Gets the name of a primary input.
+     *
+     * @param index the input index
+     * @return the input name
+     */
+    public String getInputName(int index) {
+        return inputNames[checkInput(index)];
+    }
+
+    private int checkInput(int index) {
+        if (index < 0 || index >= inputNames.length) {
+            throw new IllegalArgumentException(
+                "Input index " + index + " is out of range. Valid indices: 0 to " + (inputNames.length - 1)
+            );
+        }
+        return index;
+    }
+
+    private int checkOutput(int index) {
+        if (index < 0 || index >= outputLit.length) {
+            throw new IllegalArgumentException(
+                "Output index " + index + " is out of range. Valid indices: 0 to " + (outputLit.length - 1)
+            );
+        }
+        return index;
+    }
+}
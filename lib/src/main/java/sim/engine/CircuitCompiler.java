@@ -0,0 +1,399 @@
+package sim.engine;
+
+import sim.core.Circuit;
+import sim.core.composite.FullAdder;
+import sim.core.composite.HalfAdder;
+import sim.core.composite.Mux2;
+import sim.core.composite.Mux4;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compiles a circuit into a hidden class whose single method computes every primary output.
+ *
+ * <p>The generated {@link Evaluator#evaluate(long[], long[])} is straight-line bytecode: each net
+ * lives in a {@code long} local, each gate is one or a few {@code land}/{@code lor}/{@code lxor}
+ * instructions, and there are no calls, branches or array accesses apart from reading the inputs
+ * and writing the outputs. The JIT can then register-allocate the whole netlist.
+ *
+ * <p>Values are 64-lane words, as in {@link CompiledCircuit}. Primitive gates of any width and the
+ * composites in {@code sim.core.composite} are expanded inline; any other gate type is rejected. A
+ * method is limited to 64 KiB of bytecode and 65535 local slots, so this targets small-to-medium
+ * circuits.
+ *
+ * <p>Since Java 21 has no final class-file API, the class file is written by hand. It contains no
+ * branches, so no StackMapTable is required.
+ */
+public final class CircuitCompiler {
+    private CircuitCompiler() {}
+
+    /** A compiled circuit. */
+    public interface Evaluator {
+        /**
+         * Evaluates the circuit.
+         *
+         * @param inputs one word per primary input, in {@link Circuit#getPrimaryInputBindings()} order
+         * @param outputs receives one word per primary output, in {@link Circuit#getPrimaryOutputs()} order
+         */
+        void evaluate(long[] inputs, long[] outputs);
+    }
+
+    private static final String CLASS_NAME = "sim/engine/CircuitCompiler$Generated";
+    private static final String EVALUATOR = "sim/engine/CircuitCompiler$Evaluator";
+    private static final int CLASS_VERSION = 65; // Java 21
+
+    private static final int MAX_CODE = 65535;
+    private static final int MAX_LOCALS = 65535;
+
+    /**
+     * Compiles a circuit into a new hidden class.
+     *
+     * @param circuit the circuit to compile
+     * @return an evaluator backed by the generated class
+     * @throws IllegalArgumentException if the circuit has an unsupported gate type or is too large
+     * @throws IllegalStateException if the circuit contains a cycle
+     */
+    public static Evaluator compile(Circuit circuit) {
+        byte[] bytes = generate(CompiledCircuit.compile(circuit));
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            return (Evaluator) lookup.findConstructor(lookup.lookupClass(),
+                    MethodType.methodType(void.class)).invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Could not load generated evaluator", t);
+        }
+    }
+
+    static byte[] generate(CompiledCircuit cc) {
+        // Locals: 0 = this, 1 = inputs, 2 = outputs, then two slots per net, then two scratch longs
+        int scratch = local(cc.nets.length);
+        int maxLocals = scratch + 4;
+        if (maxLocals > MAX_LOCALS) {
+            throw new IllegalArgumentException(
+                "Circuit too large to compile: " + cc.nets.length + " nets; use CompiledCircuit");
+        }
+
+        Code code = new Code();
+        code.lconst0();
+        code.lstore(local(CompiledCircuit.CONST0));
+        for (int i = 0; i < cc.inputNames.length; i++) {
+            code.aload(1);
+            code.iconst(i);
+            code.op(LALOAD);
+            code.lstore(local(1 + i));
+        }
+        for (int g = 0; g < cc.op.length; g++) {
+            emitGate(cc, g, code, scratch);
+            if (code.size() > MAX_CODE) {
+                throw new IllegalArgumentException(
+                    "Circuit too large to compile: over 64 KiB of bytecode at gate "
+                    + cc.gates[g].getId() + "; use CompiledCircuit");
+            }
+        }
+        for (int o = 0; o < cc.outputNet.length; o++) {
+            code.aload(2);
+            code.iconst(o);
+            code.lload(local(cc.outputNet[o]));
+            code.op(LASTORE);
+        }
+        code.op(RETURN);
+        if (code.size() > MAX_CODE) {
+            throw new IllegalArgumentException("Circuit too large to compile; use CompiledCircuit");
+        }
+        return classFile(code, maxLocals);
+    }
+
+    private static int local(int net) {
+        return 3 + 2 * net;
+    }
+
+    private static void emitGate(CompiledCircuit cc, int g, Code c, int scratch) {
+        int s = cc.faninStart[g];
+        int[] in = new int[cc.faninStart[g + 1] - s];
+        for (int i = 0; i < in.length; i++) in[i] = local(cc.faninNet[s + i]);
+        int out = local(cc.outNet[g]);
+
+        switch (cc.op[g]) {
+            case CompiledCircuit.OP_AND -> binary(c, in[0], in[1], LAND, out);
+            case CompiledCircuit.OP_OR  -> binary(c, in[0], in[1], LOR, out);
+            case CompiledCircuit.OP_XOR -> binary(c, in[0], in[1], LXOR, out);
+            case CompiledCircuit.OP_NOT -> {
+                c.lload(in[0]);
+                c.notTop();
+                c.lstore(out);
+            }
+            case CompiledCircuit.OP_BUF -> {
+                c.lload(in[0]);
+                c.lstore(out);
+            }
+            case CompiledCircuit.OP_ANDN  -> reduce(c, in, LAND, true, false, out);
+            case CompiledCircuit.OP_ORN   -> reduce(c, in, LOR, false, false, out);
+            case CompiledCircuit.OP_XORN  -> reduce(c, in, LXOR, false, false, out);
+            case CompiledCircuit.OP_NANDN -> reduce(c, in, LAND, true, true, out);
+            case CompiledCircuit.OP_NORN  -> reduce(c, in, LOR, false, true, out);
+            case CompiledCircuit.OP_XNORN -> reduce(c, in, LXOR, false, true, out);
+            default -> emitComposite(cc, g, c, in, out, scratch);
+        }
+    }
+
+    /** Inline expansions of the composites, pin order as documented on each class. */
+    private static void emitComposite(CompiledCircuit cc, int g, Code c, int[] in, int out, int scratch) {
+        Class<?> k = cc.gates[g].getClass();
+        if (k == HalfAdder.class) {
+            binary(c, in[0], in[1], LXOR, out);            // SUM
+            binary(c, in[0], in[1], LAND, out + 2);        // CARRY
+        } else if (k == FullAdder.class) {
+            binary(c, in[0], in[1], LXOR, scratch);        // t = A ^ B
+            binary(c, scratch, in[2], LXOR, out);          // SUM = t ^ Cin
+            c.lload(in[0]);
+            c.lload(in[1]);
+            c.op(LAND);
+            c.lload(scratch);
+            c.lload(in[2]);
+            c.op(LAND);
+            c.op(LOR);
+            c.lstore(out + 2);                             // Cout = A&B | t&Cin
+        } else if (k == Mux2.class) {
+            mux(c, in[0], in[1], in[2]);
+            c.lstore(out);
+        } else if (k == Mux4.class) {
+            mux(c, in[0], in[2], in[3]);
+            c.lstore(scratch);
+            mux(c, in[0], in[4], in[5]);
+            c.lstore(scratch + 2);
+            mux(c, in[1], scratch, scratch + 2);
+            c.lstore(out);
+        } else {
+            throw new IllegalArgumentException(
+                "Unsupported gate type for compilation: " + k.getSimpleName() + " (" + cc.gates[g].getId() + ")");
+        }
+    }
+
+    /** Folds all inputs with {@code op}; with no inputs the result is the identity (all ones for AND). */
+    private static void reduce(Code c, int[] in, int op, boolean identityOnes, boolean invert, int out) {
+        if (in.length == 0) {
+            c.lload(local(CompiledCircuit.CONST0));
+            if (identityOnes) c.notTop();
+        } else {
+            c.lload(in[0]);
+            for (int i = 1; i < in.length; i++) {
+                c.lload(in[i]);
+                c.op(op);
+            }
+        }
+        if (invert) c.notTop();
+        c.lstore(out);
+    }
+
+    private static void binary(Code c, int a, int b, int op, int out) {
+        c.lload(a);
+        c.lload(b);
+        c.op(op);
+        c.lstore(out);
+    }
+
+    /** Pushes d0 ^ (sel & (d0 ^ d1)), i.e. sel ? d1 : d0 per lane. */
+    private static void mux(Code c, int sel, int d0, int d1) {
+        c.lload(d0);
+        c.lload(sel);
+        c.lload(d0);
+        c.lload(d1);
+        c.op(LXOR);
+        c.op(LAND);
+        c.op(LXOR);
+    }
+
+    // --- Class file writer ---
+
+    private static final int ICONST_M1 = 0x02, ICONST_0 = 0x03, LCONST_0 = 0x09;
+    private static final int BIPUSH = 0x10, SIPUSH = 0x11, LDC_W = 0x13;
+    private static final int LLOAD = 0x16, ALOAD = 0x19, LSTORE = 0x37;
+    private static final int LALOAD = 0x2f, LASTORE = 0x50;
+    private static final int LAND = 0x7f, LOR = 0x81, LXOR = 0x83, I2L = 0x85;
+    private static final int WIDE = 0xc4, RETURN = 0xb1, INVOKESPECIAL = 0xb7, ALOAD_0 = 0x2a;
+
+    /** Method body plus the integer constants it needs. */
+    private static final class Code {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ConstantPool pool = new ConstantPool();
+
+        int size() {
+            return bytes.size();
+        }
+
+        void op(int op) {
+            bytes.write(op);
+        }
+
+        void u2(int v) {
+            bytes.write(v >>> 8);
+            bytes.write(v);
+        }
+
+        void lconst0() {
+            op(LCONST_0);
+        }
+
+        void iconst(int v) {
+            if (v <= 5) {
+                op(ICONST_0 + v);
+            } else if (v <= Byte.MAX_VALUE) {
+                op(BIPUSH);
+                op(v);
+            } else if (v <= Short.MAX_VALUE) {
+                op(SIPUSH);
+                u2(v);
+            } else {
+                op(LDC_W);
+                u2(pool.integer(v));
+            }
+        }
+
+        void local(int op, int slot) {
+            if (slot <= 0xff) {
+                op(op);
+                op(slot);
+            } else {
+                op(WIDE);
+                op(op);
+                u2(slot);
+            }
+        }
+
+        void lload(int slot) {
+            local(LLOAD, slot);
+        }
+
+        void lstore(int slot) {
+            local(LSTORE, slot);
+        }
+
+        void aload(int slot) {
+            local(ALOAD, slot);
+        }
+
+        /** ~top, as top ^ -1L */
+        void notTop() {
+            op(ICONST_M1);
+            op(I2L);
+            op(LXOR);
+        }
+    }
+
+    /** Minimal constant pool: UTF-8, class, name-and-type, method ref and integer entries. */
+    private static final class ConstantPool {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        final Map<Object, Integer> index = new HashMap<>();
+        int count = 1;
+
+        private int add(Object key, int slots, IoWriter w) {
+            Integer existing = index.get(key);
+            if (existing != null) return existing;
+            try {
+                w.write(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            int i = count;
+            count += slots;
+            index.put(key, i);
+            return i;
+        }
+
+        int utf8(String s) {
+            return add("U" + s, 1, o -> { o.writeByte(1); o.writeUTF(s); });
+        }
+
+        int classRef(String name) {
+            int n = utf8(name);
+            return add("C" + name, 1, o -> { o.writeByte(7); o.writeShort(n); });
+        }
+
+        int nameAndType(String name, String desc) {
+            int n = utf8(name), d = utf8(desc);
+            return add("N" + name + desc, 1, o -> { o.writeByte(12); o.writeShort(n); o.writeShort(d); });
+        }
+
+        int methodRef(String owner, String name, String desc) {
+            int c = classRef(owner), nt = nameAndType(name, desc);
+            return add("M" + owner + name + desc, 1, o -> { o.writeByte(10); o.writeShort(c); o.writeShort(nt); });
+        }
+
+        int integer(int v) {
+            return add(v, 1, o -> { o.writeByte(3); o.writeInt(v); });
+        }
+    }
+
+    private interface IoWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] classFile(Code eval, int maxLocals) {
+        ConstantPool cp = eval.pool;
+        int thisClass = cp.classRef(CLASS_NAME);
+        int superClass = cp.classRef("java/lang/Object");
+        int iface = cp.classRef(EVALUATOR);
+        int init = cp.utf8("<init>");
+        int voidDesc = cp.utf8("()V");
+        int superInit = cp.methodRef("java/lang/Object", "<init>", "()V");
+        int evalName = cp.utf8("evaluate");
+        int evalDesc = cp.utf8("([J[J)V");
+        int codeAttr = cp.utf8("Code");
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(eval.size() + 1024);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(CLASS_VERSION);
+            out.writeShort(cp.count);
+            cp.bytes.writeTo(out);
+            out.writeShort(0x0011);            // ACC_PUBLIC | ACC_FINAL
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(iface);
+            out.writeShort(0);                 // fields
+            out.writeShort(2);                 // methods
+
+            // public <init>() { super(); }
+            byte[] ctor = {(byte) ALOAD_0, (byte) INVOKESPECIAL,
+                           (byte) (superInit >>> 8), (byte) superInit, (byte) RETURN};
+            method(out, init, voidDesc, codeAttr, 1, 1, ctor);
+
+            // public void evaluate(long[] inputs, long[] outputs)
+            method(out, evalName, evalDesc, codeAttr, 16, maxLocals, eval.bytes.toByteArray());
+
+            out.writeShort(0);                 // class attributes
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void method(DataOutputStream out, int name, int desc, int codeAttr,
+                               int maxStack, int maxLocals, byte[] code) throws IOException {
+        out.writeShort(0x0001);                // ACC_PUBLIC
+        out.writeShort(name);
+        out.writeShort(desc);
+        out.writeShort(1);
+        out.writeShort(codeAttr);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0);                     // exception table
+        out.writeShort(0);                     // code attributes
+    }
+}
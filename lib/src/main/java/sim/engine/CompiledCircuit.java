@@ -0,0 +1,461 @@
+package sim.engine;
+
+import sim.core.Adjacency;
+import sim.core.AndGate;
+import sim.core.BufGate;
+import sim.core.Circuit;
+import sim.core.Gate;
+import sim.core.NandGate;
+import sim.core.NorGate;
+import sim.core.NotGate;
+import sim.core.OrGate;
+import sim.core.SequentialGate;
+import sim.core.XnorGate;
+import sim.core.XorGate;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A flattened, struct-of-arrays snapshot of a {@link Circuit} evaluated by a tight opcode loop.
+ *
+ * <p>Compilation walks {@link Circuit#topologicalOrder()} once and records:
+ * - one opcode per gate ({@code byte[] op}) in topological order
+ * - the fan-in of every gate as a CSR table ({@code faninStart}/{@code faninNet})
+ * - one {@code long} per net, where a net is the constant 0, a primary input or a gate output pin
+ *
+ * <p>Each net value is a 64-lane word. The scalar API ({@link #setInput(int, boolean)},
+ * {@link #getOutput(int)}) broadcasts a value to all lanes and reads lane 0, so the same kernel
+ * also serves bit-parallel pattern simulation.
+ *
+ * <p>Pin resolution matches {@link Circuit#propagate()}: a wire overrides a primary input bound to
+ * the same pin, and pins with neither read constant 0. AND/OR/XOR/NAND/NOR/XNOR of any width, NOT
+ * and BUF have native opcodes; other gates (for example composites) are evaluated through their
+ * own {@link Gate#evaluate()}. A {@link SequentialGate}'s
+ * output nets hold its state, copied at compile time; only {@link CycleSimulator} changes them.
+ *
+ * <p>The snapshot does not follow later edits to the circuit; compile again after changing it.
+ */
+public final class CompiledCircuit {
+
+    static final byte OP_AND = 0;
+    static final byte OP_OR = 1;
+    static final byte OP_XOR = 2;
+    static final byte OP_NOT = 3;
+    /** Fallback: delegate to {@link Gate#evaluate()} lane by lane */
+    static final byte OP_GATE = 4;
+    /** Sequential gate: its output nets hold state and change only when latched */
+    static final byte OP_STATE = 5;
+    static final byte OP_BUF = 6;
+    /** Reductions over any number of inputs; OP_AND/OP_OR/OP_XOR are the 2-input fast paths */
+    static final byte OP_ANDN = 7;
+    static final byte OP_ORN = 8;
+    static final byte OP_XORN = 9;
+    /** Inverted reductions, ordered after the plain ones: see {@link #reduce(int)} */
+    static final byte OP_NANDN = 10;
+    static final byte OP_NORN = 11;
+    static final byte OP_XNORN = 12;
+
+    /** Net 0 always holds 0 and drives every unconnected input pin */
+    static final int CONST0 = 0;
+
+    /** Gates in topological order */
+    final Gate[] gates;
+
+    /** Opcode per gate */
+    final byte[] op;
+
+    /** CSR fan-in: inputs of gate g are faninNet[faninStart[g] .. faninStart[g+1]) */
+    final int[] faninStart;
+    final int[] faninNet;
+
+    /** First output net of each gate; output pin p lives at outNet[g] + p */
+    final int[] outNet;
+
+    /** Primary input names and their nets (net i + 1 for input i) */
+    final String[] inputNames;
+    private final Map<String, Integer> inputIndex;
+
+    /** Net read by each primary output, in {@link Circuit#getPrimaryOutputs()} order */
+    final int[] outputNet;
+
+    /** Current value of every net, 64 lanes per word */
+    final long[] nets;
+
+    private CompiledCircuit(Gate[] gates, byte[] op, int[] faninStart, int[] faninNet, int[] outNet,
+                            String[] inputNames, Map<String, Integer> inputIndex,
+                            int[] outputNet, int numNets) {
+        this.gates = gates;
+        this.op = op;
+        this.faninStart = faninStart;
+        this.faninNet = faninNet;
+        this.outNet = outNet;
+        this.inputNames = inputNames;
+        this.inputIndex = inputIndex;
+        this.outputNet = outputNet;
+        this.nets = new long[numNets];
+        // Sequential gates start from their current state, broadcast to every lane
+        for (int g = 0; g < gates.length; g++) {
+            if (op[g] == OP_STATE) {
+                long state = ((SequentialGate) gates[g]).getState();
+                for (int p = 0, m = gates[g].getNumOutputs(); p < m; p++) nets[outNet[g] + p] = -((state >>> p) & 1L);
+            }
+        }
+    }
+
+    /**
+     * Compiles a circuit into its flattened form.
+     *
+     * @param circuit the circuit to compile
+     * @return a new compiled circuit with all inputs at 0
+     * @throws IllegalStateException if the circuit contains a cycle
+     */
+    public static CompiledCircuit compile(Circuit circuit) {
+        List<Gate> order = circuit.topologicalOrder();
+        int n = order.size();
+
+        Gate[] gates = order.toArray(new Gate[0]);
+        Map<Gate, Integer> pos = new IdentityHashMap<>(n * 2);
+        for (int i = 0; i < n; i++) pos.put(gates[i], i);
+
+        // Primary inputs occupy nets 1..P in binding order
+        Map<String, List<Circuit.InputBinding>> bindings = circuit.getPrimaryInputBindings();
+        String[] inputNames = bindings.keySet().toArray(new String[0]);
+        Map<String, Integer> inputIndex = new HashMap<>(inputNames.length * 2);
+        for (int i = 0; i < inputNames.length; i++) inputIndex.put(inputNames[i], i);
+
+        // Gate output nets follow the inputs, in topological order
+        int[] faninStart = new int[n + 1];
+        int[] outNet = new int[n];
+        int next = 1 + inputNames.length;
+        for (int g = 0; g < n; g++) {
+            faninStart[g + 1] = faninStart[g] + gates[g].getNumInputs();
+            outNet[g] = next;
+            next += gates[g].getNumOutputs();
+        }
+
+        int[] faninNet = new int[faninStart[n]];
+        for (int i = 0; i < inputNames.length; i++) {
+            for (Circuit.InputBinding b : bindings.get(inputNames[i])) {
+                Integer g = pos.get(b.gate());
+                if (g != null) faninNet[faninStart[g] + b.pin()] = 1 + i;
+            }
+        }
+
+        // Wires win over primary inputs. Fan-in rows are sorted by source position, so with several
+        // wires on one pin the last entry wins, as it is the last one pushed by Circuit.propagate()
+        Adjacency fanIn = circuit.fanIn();
+        for (int g = 0; g < n; g++) {
+            for (int e = fanIn.start(g), end = fanIn.end(g); e < end; e++) {
+                faninNet[faninStart[g] + fanIn.pin(e)] = outNet[fanIn.target(e)] + fanIn.targetPin(e);
+            }
+        }
+
+        byte[] op = new byte[n];
+        for (int g = 0; g < n; g++) op[g] = opcodeOf(gates[g]);
+
+        List<Gate> outs = circuit.getPrimaryOutputs();
+        int[] outputNet = new int[outs.size()];
+        for (int i = 0; i < outputNet.length; i++) outputNet[i] = outNet[pos.get(outs.get(i))];
+
+        return new CompiledCircuit(gates, op, faninStart, faninNet, outNet,
+                                   inputNames, inputIndex, outputNet, next);
+    }
+
+    private static byte opcodeOf(Gate g) {
+        // Exact class match only: a subclass may override evaluate()
+        Class<?> k = g.getClass();
+        boolean two = g.getNumInputs() == 2;
+        if (k == AndGate.class) return two ? OP_AND : OP_ANDN;
+        if (k == OrGate.class) return two ? OP_OR : OP_ORN;
+        if (k == XorGate.class) return two ? OP_XOR : OP_XORN;
+        if (k == NotGate.class) return OP_NOT;
+        if (k == BufGate.class) return OP_BUF;
+        if (k == NandGate.class) return OP_NANDN;
+        if (k == NorGate.class) return OP_NORN;
+        if (k == XnorGate.class) return OP_XNORN;
+        // evaluate() is final in SequentialGate, so any subclass only drives its state
+        if (g instanceof SequentialGate) return OP_STATE;
+        return OP_GATE;
+    }
+
+    /**
+     * Evaluates every gate once in topological order.
+     */
+    public void propagate() {
+        final long[] v = nets;
+        final byte[] op = this.op;
+        final int[] fs = faninStart;
+        final int[] fn = faninNet;
+        final int[] on = outNet;
+        for (int g = 0, n = op.length; g < n; g++) {
+            int s = fs[g];
+            switch (op[g]) {
+                case OP_AND -> v[on[g]] = v[fn[s]] & v[fn[s + 1]];
+                case OP_OR  -> v[on[g]] = v[fn[s]] | v[fn[s + 1]];
+                case OP_XOR -> v[on[g]] = v[fn[s]] ^ v[fn[s + 1]];
+                case OP_NOT -> v[on[g]] = ~v[fn[s]];
+                case OP_BUF -> v[on[g]] = v[fn[s]];
+                case OP_STATE -> { }
+                case OP_ANDN, OP_ORN, OP_XORN, OP_NANDN, OP_NORN, OP_XNORN -> v[on[g]] = reduce(g);
+                default     -> evalGate(g);
+            }
+        }
+    }
+
+    /**
+     * Computes the topological level of every gate: 0 for sequential gates and gates fed only by
+     * primary inputs or constants, otherwise 1 + the highest level among the gates driving it.
+     *
+     * @return level per gate, indexed by topological position
+     */
+    int[] levels() {
+        int[] netLevel = new int[nets.length];
+        Arrays.fill(netLevel, -1);
+        int[] level = new int[op.length];
+        for (int g = 0; g < op.length; g++) {
+            int lv = 0;
+            for (int i = faninStart[g]; i < faninStart[g + 1] && op[g] != OP_STATE; i++) {
+                lv = Math.max(lv, netLevel[faninNet[i]] + 1);
+            }
+            level[g] = lv;
+            for (int p = 0, m = gates[g].getNumOutputs(); p < m; p++) netLevel[outNet[g] + p] = lv;
+        }
+        return level;
+    }
+
+    /**
+     * Evaluates a single gate from the current net values.
+     *
+     * @param g gate position in topological order
+     */
+    void eval(int g) {
+        final long[] v = nets;
+        int s = faninStart[g];
+        switch (op[g]) {
+            case OP_AND -> v[outNet[g]] = v[faninNet[s]] & v[faninNet[s + 1]];
+            case OP_OR  -> v[outNet[g]] = v[faninNet[s]] | v[faninNet[s + 1]];
+            case OP_XOR -> v[outNet[g]] = v[faninNet[s]] ^ v[faninNet[s + 1]];
+            case OP_NOT -> v[outNet[g]] = ~v[faninNet[s]];
+            case OP_BUF -> v[outNet[g]] = v[faninNet[s]];
+            case OP_STATE -> { }
+            case OP_ANDN, OP_ORN, OP_XORN, OP_NANDN, OP_NORN, OP_XNORN -> v[outNet[g]] = reduce(g);
+            default     -> evalGate(g);
+        }
+    }
+
+    /** Folds every input word of a reduction gate, inverting for NAND/NOR/XNOR. */
+    long reduce(int g) {
+        final long[] v = nets;
+        final int[] fn = faninNet;
+        int s = faninStart[g], e = faninStart[g + 1];
+        byte code = op[g];
+        long acc;
+        switch (code) {
+            case OP_ANDN, OP_NANDN -> {
+                acc = -1L;
+                for (int i = s; i < e; i++) acc &= v[fn[i]];
+            }
+            case OP_ORN, OP_NORN -> {
+                acc = 0L;
+                for (int i = s; i < e; i++) acc |= v[fn[i]];
+            }
+            default -> {
+                acc = 0L;
+                for (int i = s; i < e; i++) acc ^= v[fn[i]];
+            }
+        }
+        return code >= OP_NANDN ? ~acc : acc;
+    }
+
+    /** Runs a gate without an opcode through its own evaluate(): once if every input is broadcast, else per lane. */
+    void evalGate(int g) {
+        Gate gate = gates[g];
+        int s = faninStart[g], k = faninStart[g + 1] - s;
+        int o = outNet[g], m = gate.getNumOutputs();
+
+        boolean uniform = true;
+        for (int i = 0; i < k && uniform; i++) {
+            long w = nets[faninNet[s + i]];
+            uniform = w == 0L || w == -1L;
+        }
+        if (uniform) {
+            long bits = 0;
+            for (int i = 0; i < k; i++) bits |= (nets[faninNet[s + i]] & 1L) << i;
+            gate.setInputBits(bits);
+            gate.evaluate();
+            long outBits = gate.getOutputBits();
+            for (int p = 0; p < m; p++) nets[o + p] = -((outBits >>> p) & 1L);
+            return;
+        }
+
+        for (int p = 0; p < m; p++) nets[o + p] = 0L;
+        for (int lane = 0; lane < 64; lane++) {
+            long bits = 0;
+            for (int i = 0; i < k; i++) bits |= ((nets[faninNet[s + i]] >>> lane) & 1L) << i;
+            gate.setInputBits(bits);
+            gate.evaluate();
+            long outBits = gate.getOutputBits();
+            for (int p = 0; p < m; p++) nets[o + p] |= ((outBits >>> p) & 1L) << lane;
+        }
+    }
+
+    /**
+     * Returns the index of a primary input for use with {@link #setInput(int, boolean)}.
+     *
+     * @param name the primary input name
+     * @return the input index
+     * @throws IllegalArgumentException if no input has that name
+     */
+    public int inputIndex(String name) {
+        Integer i = inputIndex.get(name);
+        if (i == null) {
+            throw new IllegalArgumentException("Unknown primary input: " + name);
+        }
+        return i;
+    }
+
+    /**
+     * Sets a primary input by name; takes effect on the next {@link #propagate()}.
+     *
+     * @param name the primary input name
+     * @param value the value to drive on all lanes
+     */
+    public void setPrimaryInput(String name, boolean value) {
+        setInput(inputIndex(name), value);
+    }
+
+    /**
+     * Sets a primary input by index.
+     *
+     * @param index the input index, see {@link #inputIndex(String)}
+     * @param value the value to drive on all lanes
+     */
+    public void setInput(int index, boolean value) {
+        nets[1 + checkInput(index)] = value ? -1L : 0L;
+    }
+
+    /**
+     * Reads lane 0 of a primary output.
+     *
+     * @param index position in {@link Circuit#getPrimaryOutputs()}
+     * @return the output value
+     */
+    public boolean getOutput(int index) {
+        return (nets[outputNet[checkOutput(index)]] & 1L) != 0;
+    }
+
+    /**
+     * Copies lane 0 of every primary output into {@code dst}.
+     *
+     * @param dst destination array with at least {@link #getNumOutputs()} elements
+     */
+    public void readPrimaryOutputs(boolean[] dst) {
+        for (int i = 0; i < outputNet.length; i++) dst[i] = (nets[outputNet[i]] & 1L) != 0;
+    }
+
+    /**
+     * Sets all 64 lanes of a primary input; lane i belongs to input vector i.
+     *
+     * @param index the input index, see {@link #inputIndex(String)}
+     * @param word one bit per pattern
+     */
+    public void setInputWord(int index, long word) {
+        nets[1 + checkInput(index)] = word;
+    }
+
+    /**
+     * Sets all 64 lanes of a primary input by name.
+     *
+     * @param name the primary input name
+     * @param word one bit per pattern
+     */
+    public void setPrimaryInputWord(String name, long word) {
+        setInputWord(inputIndex(name), word);
+    }
+
+    /**
+     * Reads all 64 lanes of a primary output.
+     *
+     * @param index position in {@link Circuit#getPrimaryOutputs()}
+     * @return one bit per pattern
+     */
+    public long getOutputWord(int index) {
+        return nets[outputNet[checkOutput(index)]];
+    }
+
+    /**
+     * Copies every primary output word into {@code dst}.
+     *
+     * @param dst destination array with at least {@link #getNumOutputs()} elements
+     */
+    public void readOutputWords(long[] dst) {
+        for (int i = 0; i < outputNet.length; i++) dst[i] = nets[outputNet[i]];
+    }
+
+    /**
+     * Simulates 64 input vectors in one pass.
+     *
+     * <p>Bit i of every word forms input vector i. Inputs missing from the map keep their
+     * previous word.
+     *
+     * @param inputs words keyed by primary input name
+     * @return one word per primary output, in {@link Circuit#getPrimaryOutputs()} order
+     * @throws IllegalArgumentException if a name is not a primary input
+     */
+    public long[] propagateWords(Map<String, Long> inputs) {
+        for (Map.Entry<String, Long> e : inputs.entrySet()) {
+            setPrimaryInputWord(e.getKey(), e.getValue());
+        }
+        propagate();
+        long[] out = new long[outputNet.length];
+        readOutputWords(out);
+        return out;
+    }
+
+    /** @return the number of primary inputs */
+    public int getNumInputs() {
+        return inputNames.length;
+    }
+
+    /** @return the number of primary outputs */
+    public int getNumOutputs() {
+        return outputNet.length;
+    }
+
+    /** @return the number of gates */
+    public int getNumGates() {
+        return op.length;
+    }
+
+    /**
+     * Gets the name of a primary input.
+     *
+     * @param index the input index
+     * @return the input name
+     */
+    public String getInputName(int index) {
+        return inputNames[checkInput(index)];
+    }
+
+    int checkInput(int index) {
+        if (index < 0 || index >= inputNames.length) {
+            throw new IllegalArgumentException(
+                "Input index " + index + " is out of range. Valid indices: 0 to " + (inputNames.length - 1)
+            );
+        }
+        return index;
+    }
+
+    int checkOutput(int index) {
+        if (index < 0 || index >= outputNet.length) {
+            throw new IllegalArgumentException(
+                "Output index " + index + " is out of range. Valid indices: 0 to " + (outputNet.length - 1)
+            );
+        }
+        return index;
+    }
+}
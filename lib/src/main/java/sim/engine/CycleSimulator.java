@@ -0,0 +1,204 @@
+package sim.engine;
+
+import sim.core.Circuit;
+import sim.core.SequentialGate;
+
+/**
+ * Cycle-based simulation of synchronous circuits built from {@link SequentialGate}s.
+ *
+ * <p>Every sequential gate shares one clock. Their outputs act as pseudo-primary inputs: a
+ * {@link #propagate()} settles the combinational logic in topological order from the primary
+ * inputs and the current state, and {@link #clock()} then latches every gate at once
+ * (reset over enable over hold) from that settled logic. No events, no delays, no iteration.
+ *
+ * <p>Settling is lazy. {@code clock()} settles only if an input changed or a clock happened since
+ * the last settle, and reading an output settles first if needed. A loop that clocks without
+ * reading therefore costs one combinational pass per cycle.
+ *
+ * <p>Like {@link CompiledCircuit}, every net is a 64-lane word, so {@link #setInputWord(int, long)}
+ * runs 64 independent copies of the design in lock step. State starts from each gate's
+ * {@link SequentialGate#getState()} at construction and then lives in the simulator; the gate
+ * objects are not updated.
+ */
+public final class CycleSimulator {
+
+    private final CompiledCircuit cc;
+
+    /** Per sequential gate: first state net, first data net slot in faninNet, width, enable/reset nets (-1 if absent) */
+    private final int[] stateNet;
+    private final int[] dataSlot;
+    private final int[] width;
+    private final int[] enableNet;
+    private final int[] resetNet;
+
+    /** Next-state scratch, one word per state bit, so all gates latch from the same settled values */
+    private final long[] next;
+
+    private boolean settled;
+    private long cycles;
+
+    /**
+     * Compiles a circuit for cycle-based simulation.
+     *
+     * @param circuit the circuit; feedback is allowed only through sequential gates
+     * @throws IllegalStateException if the combinational logic contains a cycle
+     */
+    public CycleSimulator(Circuit circuit) {
+        this.cc = CompiledCircuit.compile(circuit);
+        int count = 0, bits = 0;
+        for (int g = 0; g < cc.op.length; g++) {
+            if (cc.op[g] == CompiledCircuit.OP_STATE) {
+                count++;
+                bits += ((SequentialGate) cc.gates[g]).getWidth();
+            }
+        }
+        stateNet = new int[count];
+        dataSlot = new int[count];
+        width = new int[count];
+        enableNet = new int[count];
+        resetNet = new int[count];
+        next = new long[bits];
+        for (int g = 0, i = 0; g < cc.op.length; g++) {
+            if (cc.op[g] != CompiledCircuit.OP_STATE) continue;
+            SequentialGate seq = (SequentialGate) cc.gates[g];
+            int s = cc.faninStart[g];
+            stateNet[i] = cc.outNet[g];
+            dataSlot[i] = s;
+            width[i] = seq.getWidth();
+            enableNet[i] = seq.getEnablePin() < 0 ? -1 : cc.faninNet[s + seq.getEnablePin()];
+            resetNet[i] = seq.getResetPin() < 0 ? -1 : cc.faninNet[s + seq.getResetPin()];
+            i++;
+        }
+    }
+
+    /**
+     * Settles the combinational logic from the current inputs and state without clocking.
+     */
+    public void propagate() {
+        cc.propagate();
+        settled = true;
+    }
+
+    /**
+     * Advances one clock cycle: settles if needed, then latches every sequential gate.
+     */
+    public void clock() {
+        if (!settled) {
+            cc.propagate();
+        }
+        latch();
+        settled = false;
+        cycles++;
+    }
+
+    /**
+     * Runs {@code n} clock cycles with the inputs held.
+     *
+     * @param n number of cycles
+     */
+    public void run(long n) {
+        for (long c = 0; c < n; c++) clock();
+    }
+
+    private void latch() {
+        final long[] v = cc.nets;
+        final int[] fn = cc.faninNet;
+        int k = 0;
+        for (int i = 0; i < stateNet.length; i++) {
+            long en = enableNet[i] < 0 ? -1L : v[enableNet[i]];
+            long keep = resetNet[i] < 0 ? -1L : ~v[resetNet[i]];
+            for (int b = 0, q = stateNet[i], d = dataSlot[i]; b < width[i]; b++) {
+                next[k++] = keep & ((en & v[fn[d + b]]) | (~en & v[q + b]));
+            }
+        }
+        k = 0;
+        for (int i = 0; i < stateNet.length; i++) {
+            for (int b = 0, q = stateNet[i]; b < width[i]; b++) v[q + b] = next[k++];
+        }
+    }
+
+    /**
+     * Gets the number of clock cycles run so far.
+     *
+     * @return the cycle count
+     */
+    public long getCycleCount() {
+        return cycles;
+    }
+
+    /**
+     * Returns the index of a primary input.
+     *
+     * @param name the primary input name
+     * @return the input index
+     * @throws IllegalArgumentException if no input has that name
+     */
+    public int inputIndex(String name) {
+        return cc.inputIndex(name);
+    }
+
+    /**
+     * Sets a primary input by name, broadcast to all lanes.
+     *
+     * @param name the primary input name
+     * @param value the new value
+     */
+    public void setPrimaryInput(String name, boolean value) {
+        cc.setPrimaryInput(name, value);
+        settled = false;
+    }
+
+    /**
+     * Sets a primary input by index, broadcast to all lanes.
+     *
+     * @param index the input index
+     * @param value the new value
+     */
+    public void setInput(int index, boolean value) {
+        cc.setInput(index, value);
+        settled = false;
+    }
+
+    /**
+     * Sets all 64 lanes of a primary input.
+     *
+     * @param index the input index
+     * @param word one bit per lane
+     */
+    public void setInputWord(int index, long word) {
+        cc.setInputWord(index, word);
+        settled = false;
+    }
+
+    /**
+     * Reads a primary output (lane 0), settling first if an input or the state changed.
+     *
+     * @param index position in {@link Circuit#getPrimaryOutputs()}
+     * @return the output value
+     */
+    public boolean getOutput(int index) {
+        return (getOutputWord(index) & 1L) != 0;
+    }
+
+    /**
+     * Reads all 64 lanes of a primary output, settling first if an input or the state changed.
+     *
+     * @param index position in {@link Circuit#getPrimaryOutputs()}
+     * @return the output word
+     */
+    public long getOutputWord(int index) {
+        if (!settled) {
+            propagate();
+        }
+        return cc.getOutputWord(index);
+    }
+
+    /**
+     * Gets the number of primary outputs.
+     *
+     * @return the output count
+     */
+    public int getNumOutputs() {
+        return cc.getNumOutputs();
+    }
+}
@@ -0,0 +1,567 @@
+package sim.engine;
+
+import sim.core.Adjacency;
+import sim.core.Circuit;
+import sim.core.Gate;
+import sim.core.LutGate;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Parallel-pattern single-fault simulator for stuck-at faults in a combinational circuit.
+ *
+ * <p>The fault list holds a stuck-at-0 and a stuck-at-1 fault on:
+ * - every output pin of every gate (this is also the driving end of each {@link sim.core.Wire})
+ * - every input pin fed by a wire (the receiving end), so a fault on one branch of a fan-out
+ *   does not affect the other branches
+ *
+ * <p>Primary inputs are not fault sites: neither an input's stem nor the pins bound to it get
+ * faults. A stem stuck-at fault is the same as holding that input constant in every pattern.
+ *
+ * <p>Patterns are simulated 64 per word. For each word the good machine is evaluated once with
+ * {@link CompiledCircuit}; then every fault that is still undetected is injected on its own and
+ * only its fan-out cone is re-evaluated, in topological order, against a copy of the good values.
+ * A fault is detected by the first pattern for which some primary output differs, and is then
+ * dropped. The remaining faults are split into one shard per worker of a {@link ForkJoinPool};
+ * each shard has its own scratch copy of the nets, so shards share nothing but the good machine.
+ *
+ * <p>Gates without a native opcode are evaluated from their truth table, which limits them to
+ * {@value LutGate#MAX_INPUTS} inputs. Sequential gates are not supported: grade their
+ * combinational logic with the flip-flops cut into primary inputs and outputs.
+ */
+public final class FaultSimulator {
+
+    /** Below this many live faults a word is graded on the calling thread */
+    private static final int SERIAL_FAULTS = 256;
+
+    /**
+     * A single stuck-at fault.
+     *
+     * @param gate the faulty gate
+     * @param output true for an output pin, false for an input pin fed by a wire
+     * @param pin the pin number
+     * @param stuckAt the value the pin is stuck at
+     */
+    public record Fault(Gate gate, boolean output, int pin, boolean stuckAt) {
+        @Override
+        public String toString() {
+            return gate.getId() + (output ? ".out" : ".in") + pin + "/SA" + (stuckAt ? 1 : 0);
+        }
+    }
+
+    private final CompiledCircuit cc;
+    private final ForkJoinPool pool;
+    private final List<Fault> faults;
+
+    /** Fault site: the net for output faults, the reading gate's fan-in slot for input faults */
+    private final int[] faultSite;
+    /** Topological position of each fault's gate */
+    private final int[] faultGate;
+    private final byte[] faultPin;
+    /** Faults below this index are on output pins; the rest are on input pins */
+    private final int numOutputFaults;
+
+    /** CSR fan-out: gates reading net n are readers[readerStart[n] .. readerStart[n+1]) */
+    private final int[] readerStart;
+    private final int[] readers;
+    private final boolean[] isOutputNet;
+
+    /** Truth tables of gates without a native opcode, by topological position */
+    private final long[][] tables;
+
+    private final Worker[] workers;
+
+    /** Topological position of each gate; built on the first lookup of a {@link Fault} record */
+    private volatile Map<Gate, Integer> gatePosition;
+
+    /**
+     * Creates a fault simulator that grades on the common pool.
+     *
+     * @param circuit the combinational circuit to grade
+     * @throws IllegalArgumentException if the circuit has a sequential gate, or a gate without a
+     *         native opcode that has more than {@value LutGate#MAX_INPUTS} inputs
+     * @throws IllegalStateException if the circuit contains a cycle
+     */
+    public FaultSimulator(Circuit circuit) {
+        this(circuit, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a fault simulator.
+     *
+     * @param circuit the combinational circuit to grade
+     * @param pool the pool that grades fault shards; one shard per worker
+     * @throws IllegalArgumentException if {@code pool} is null, the circuit has a sequential gate,
+     *         or a gate without a native opcode has more than {@value LutGate#MAX_INPUTS} inputs
+     * @throws IllegalStateException if the circuit contains a cycle
+     */
+    public FaultSimulator(Circuit circuit, ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        this.cc = CompiledCircuit.compile(circuit);
+        this.pool = pool;
+        int n = cc.gates.length;
+
+        tables = new long[n][];
+        for (int g = 0; g < n; g++) {
+            Gate gate = cc.gates[g];
+            if (cc.op[g] == CompiledCircuit.OP_STATE) {
+                throw new IllegalArgumentException(
+                    "Gate " + gate.getId() + " is sequential; fault grading covers combinational logic only"
+                );
+            }
+            if (cc.op[g] != CompiledCircuit.OP_GATE) continue;
+            if (gate.getNumInputs() > LutGate.MAX_INPUTS) {
+                throw new IllegalArgumentException(
+                    "Gate " + gate.getId() + " has " + gate.getNumInputs() + " inputs; at most "
+                    + LutGate.MAX_INPUTS + " can be graded from a truth table"
+                );
+            }
+            LutGate lut = gate instanceof LutGate l ? l : LutGate.of(gate.getId(), gate);
+            tables[g] = new long[gate.getNumOutputs()];
+            for (int p = 0; p < tables[g].length; p++) tables[g][p] = lut.getTable(p);
+        }
+
+        int numNets = cc.nets.length;
+        readerStart = new int[numNets + 1];
+        int[] last = new int[numNets];
+        Arrays.fill(last, -1);
+        for (int g = 0; g < n; g++) {
+            for (int i = cc.faninStart[g]; i < cc.faninStart[g + 1]; i++) {
+                int net = cc.faninNet[i];
+                if (last[net] != g) {
+                    last[net] = g;
+                    readerStart[net + 1]++;
+                }
+            }
+        }
+        for (int net = 0; net < numNets; net++) readerStart[net + 1] += readerStart[net];
+        readers = new int[readerStart[numNets]];
+        int[] fill = Arrays.copyOf(readerStart, numNets);
+        Arrays.fill(last, -1);
+        for (int g = 0; g < n; g++) {
+            for (int i = cc.faninStart[g]; i < cc.faninStart[g + 1]; i++) {
+                int net = cc.faninNet[i];
+                if (last[net] != g) {
+                    last[net] = g;
+                    readers[fill[net]++] = g;
+                }
+            }
+        }
+        isOutputNet = new boolean[numNets];
+        for (int net : cc.outputNet) isOutputNet[net] = true;
+
+        // Output pins in topological order, then the receiving end of every wire (once per pin).
+        // Faults come in stuck-at-0/stuck-at-1 pairs, so bit 0 of a fault index is its value.
+        int outputPins = numNets - 1 - cc.getNumInputs();
+        Adjacency fanIn = circuit.fanIn();
+        int cap = 2 * (outputPins + Math.min(fanIn.edgeCount(), cc.faninNet.length));
+        int[] sites = new int[cap];
+        int[] owners = new int[cap];
+        byte[] pins = new byte[cap];
+        int count = 0;
+        for (int g = 0; g < n; g++) {
+            for (int p = 0, m = cc.gates[g].getNumOutputs(); p < m; p++, count += 2) {
+                sites[count] = sites[count + 1] = cc.outNet[g] + p;
+                owners[count] = owners[count + 1] = g;
+                pins[count] = pins[count + 1] = (byte) p;
+            }
+        }
+        numOutputFaults = count;
+        long[] seen = new long[(cc.faninNet.length + 63) >>> 6];
+        for (int g = 0; g < n; g++) {
+            for (int e = fanIn.start(g); e < fanIn.end(g); e++) {
+                int slot = cc.faninStart[g] + fanIn.pin(e);
+                if ((seen[slot >>> 6] & 1L << slot) != 0) continue;
+                seen[slot >>> 6] |= 1L << slot;
+                sites[count] = sites[count + 1] = slot;
+                owners[count] = owners[count + 1] = g;
+                pins[count] = pins[count + 1] = (byte) fanIn.pin(e);
+                count += 2;
+            }
+        }
+        faultSite = Arrays.copyOf(sites, count);
+        faultGate = Arrays.copyOf(owners, count);
+        faultPin = Arrays.copyOf(pins, count);
+        faults = new AbstractList<>() {
+            @Override
+            public Fault get(int f) {
+                Objects.checkIndex(f, faultSite.length);
+                return new Fault(cc.gates[faultGate[f]], f < numOutputFaults, faultPin[f], (f & 1) != 0);
+            }
+
+            @Override
+            public int size() {
+                return faultSite.length;
+            }
+        };
+
+        workers = new Worker[Math.max(1, pool.getParallelism())];
+        for (int w = 0; w < workers.length; w++) workers[w] = new Worker();
+    }
+
+    /**
+     * Returns the fault list, in the order used by {@link Report}.
+     *
+     * @return every fault: output pins, then wire-fed input pins, each by gate in topological order;
+     *         the list is a view that creates its elements on demand
+     */
+    public List<Fault> getFaults() {
+        return faults;
+    }
+
+    /**
+     * Finds a fault's position in {@link #getFaults()} from the flat fault arrays.
+     *
+     * @return the fault index, or -1 if the fault is not on the list
+     */
+    int indexOf(Fault fault) {
+        Map<Gate, Integer> pos = gatePosition;
+        if (pos == null) {
+            pos = new IdentityHashMap<>(cc.gates.length * 2);
+            for (int g = 0; g < cc.gates.length; g++) pos.put(cc.gates[g], g);
+            gatePosition = pos;
+        }
+        Integer at = pos.get(fault.gate());
+        if (at == null) return -1;
+        int g = at, pin = fault.pin(), stuck = fault.stuckAt() ? 1 : 0;
+        if (fault.output()) {
+            // Output faults are a pair per output net, and gate output nets are numbered consecutively
+            if (pin < 0 || pin >= cc.gates[g].getNumOutputs()) return -1;
+            return 2 * (cc.outNet[g] + pin - 1 - cc.getNumInputs()) + stuck;
+        }
+        // Input faults are grouped by gate position; find the gate's group, then its pin
+        int lo = numOutputFaults, hi = faultGate.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (faultGate[mid] < g) lo = mid + 1;
+            else hi = mid;
+        }
+        for (int f = lo; f < faultGate.length && faultGate[f] == g; f += 2) {
+            if (faultPin[f] == pin) return f + stuck;
+        }
+        return -1;
+    }
+
+    /**
+     * Grades a test set.
+     *
+     * @param patterns one array per pattern holding a value per primary input, in input index order
+     *                 (see {@link #inputIndex(String)})
+     * @return coverage and the first detecting pattern of every fault
+     * @throws IllegalArgumentException if a pattern's length is not the number of primary inputs
+     */
+    public Report simulate(List<boolean[]> patterns) {
+        int numInputs = cc.inputNames.length;
+        for (boolean[] p : patterns) {
+            if (p.length != numInputs) {
+                throw new IllegalArgumentException(
+                    "Pattern has " + p.length + " values for " + numInputs + " primary inputs"
+                );
+            }
+        }
+        int[] detectedBy = new int[faults.size()];
+        Arrays.fill(detectedBy, -1);
+        int[] live = new int[faults.size()];
+        int numLive = faults.size();
+        for (int f = 0; f < numLive; f++) live[f] = f;
+
+        for (int base = 0; base < patterns.size() && numLive > 0; base += 64) {
+            int count = Math.min(64, patterns.size() - base);
+            long mask = count == 64 ? -1L : (1L << count) - 1;
+            for (int i = 0; i < numInputs; i++) {
+                long word = 0;
+                for (int lane = 0; lane < count; lane++) {
+                    if (patterns.get(base + lane)[i]) word |= 1L << lane;
+                }
+                cc.setInputWord(i, word);
+            }
+            cc.propagate();
+            grade(live, numLive, mask, base, detectedBy);
+
+            // Drop what this word detected
+            int kept = 0;
+            for (int i = 0; i < numLive; i++) {
+                if (detectedBy[live[i]] < 0) live[kept++] = live[i];
+            }
+            numLive = kept;
+        }
+        return new Report(this, detectedBy);
+    }
+
+    /** Grades live[0 .. numLive) against the current good machine, one shard per worker. */
+    private void grade(int[] live, int numLive, long mask, int base, int[] detectedBy) {
+        int shards = numLive < SERIAL_FAULTS ? 1 : Math.min(workers.length, numLive);
+        if (shards == 1) {
+            workers[0].grade(live, 0, numLive, mask, base, detectedBy);
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>(shards);
+        for (int s = 0; s < shards; s++) {
+            Worker worker = workers[s];
+            int lo = (int) ((long) numLive * s / shards), hi = (int) ((long) numLive * (s + 1) / shards);
+            tasks.add(() -> {
+                worker.grade(live, lo, hi, mask, base, detectedBy);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> f : pool.invokeAll(tasks)) f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Fault grading was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Fault grading failed", e.getCause());
+        }
+    }
+
+    /** Per-shard scratch state for injecting faults one at a time. */
+    private final class Worker {
+
+        /** Faulty net values; equal to the good machine between faults */
+        private final long[] val = new long[cc.nets.length];
+        private final int[] touched = new int[cc.nets.length];
+        private int numTouched;
+
+        /** Pending gates as a min-heap on topological position */
+        private final int[] heap = new int[cc.gates.length];
+        private final boolean[] queued = new boolean[cc.gates.length];
+        private int heapSize;
+
+        private final long[] in = new long[Gate.MAX_PINS];
+        private final long[] out = new long[Gate.MAX_PINS];
+
+        /** Input fault being injected: the fan-in slot and its stuck word, or -1 */
+        private int stuckSlot = -1;
+        private long stuckWord;
+
+        void grade(int[] live, int lo, int hi, long mask, int base, int[] detectedBy) {
+            System.arraycopy(cc.nets, 0, val, 0, val.length);
+            for (int i = lo; i < hi; i++) {
+                int f = live[i];
+                long diff = inject(f, mask);
+                if (diff != 0) detectedBy[f] = base + Long.numberOfTrailingZeros(diff);
+            }
+        }
+
+        /** Simulates one fault and restores the good values; returns the lanes that detect it. */
+        private long inject(int f, long mask) {
+            long stuck = -(f & 1L);
+            int site = faultSite[f];
+            if (f < numOutputFaults) {
+                if (((cc.nets[site] ^ stuck) & mask) == 0) return 0;
+                set(site, stuck);
+            } else {
+                if (((cc.nets[cc.faninNet[site]] ^ stuck) & mask) == 0) return 0;
+                stuckSlot = site;
+                stuckWord = stuck;
+                push(faultGate[f]);
+            }
+            while (heapSize > 0) {
+                int g = pop();
+                evaluate(g);
+                for (int p = 0, o = cc.outNet[g], m = cc.gates[g].getNumOutputs(); p < m; p++) {
+                    if (out[p] != val[o + p]) set(o + p, out[p]);
+                }
+            }
+
+            long diff = 0;
+            for (int i = 0; i < numTouched; i++) {
+                int net = touched[i];
+                if (isOutputNet[net]) diff |= val[net] ^ cc.nets[net];
+                val[net] = cc.nets[net];
+            }
+            numTouched = 0;
+            stuckSlot = -1;
+            return diff & mask;
+        }
+
+        private void set(int net, long word) {
+            val[net] = word;
+            touched[numTouched++] = net;
+            for (int r = readerStart[net]; r < readerStart[net + 1]; r++) push(readers[r]);
+        }
+
+        /** Computes the output words of gate g from the faulty values into {@code out}. */
+        private void evaluate(int g) {
+            int s = cc.faninStart[g], k = cc.faninStart[g + 1] - s;
+            for (int i = 0; i < k; i++) in[i] = s + i == stuckSlot ? stuckWord : val[cc.faninNet[s + i]];
+            byte op = cc.op[g];
+            switch (op) {
+                case CompiledCircuit.OP_NOT -> out[0] = ~in[0];
+                case CompiledCircuit.OP_BUF -> out[0] = in[0];
+                case CompiledCircuit.OP_AND, CompiledCircuit.OP_ANDN, CompiledCircuit.OP_NANDN -> {
+                    long acc = -1L;
+                    for (int i = 0; i < k; i++) acc &= in[i];
+                    out[0] = op == CompiledCircuit.OP_NANDN ? ~acc : acc;
+                }
+                case CompiledCircuit.OP_OR, CompiledCircuit.OP_ORN, CompiledCircuit.OP_NORN -> {
+                    long acc = 0L;
+                    for (int i = 0; i < k; i++) acc |= in[i];
+                    out[0] = op == CompiledCircuit.OP_NORN ? ~acc : acc;
+                }
+                case CompiledCircuit.OP_XOR, CompiledCircuit.OP_XORN, CompiledCircuit.OP_XNORN -> {
+                    long acc = 0L;
+                    for (int i = 0; i < k; i++) acc ^= in[i];
+                    out[0] = op == CompiledCircuit.OP_XNORN ? ~acc : acc;
+                }
+                default -> {
+                    // Sum of the table's minterms, all 64 lanes at once
+                    long[] t = tables[g];
+                    for (int p = 0; p < t.length; p++) {
+                        long acc = 0L;
+                        for (int row = 0; row < 1 << k; row++) {
+                            if (((t[p] >>> row) & 1L) == 0) continue;
+                            long term = -1L;
+                            for (int i = 0; i < k; i++) term &= ((row >>> i) & 1) != 0 ? in[i] : ~in[i];
+                            acc |= term;
+                        }
+                        out[p] = acc;
+                    }
+                }
+            }
+        }
+
+        private void push(int g) {
+            if (queued[g]) return;
+            queued[g] = true;
+            int i = heapSize++;
+            while (i > 0 && heap[(i - 1) >>> 1] > g) {
+                heap[i] = heap[(i - 1) >>> 1];
+                i = (i - 1) >>> 1;
+            }
+            heap[i] = g;
+        }
+
+        private int pop() {
+            int top = heap[0];
+            queued[top] = false;
+            int last = heap[--heapSize];
+            int i = 0;
+            while (true) {
+                int c = 2 * i + 1;
+                if (c >= heapSize) break;
+                if (c + 1 < heapSize && heap[c + 1] < heap[c]) c++;
+                if (heap[c] >= last) break;
+                heap[i] = heap[c];
+                i = c;
+            }
+            heap[i] = last;
+            return top;
+        }
+    }
+
+    /**
+     * Returns the index of a primary input, which is its position in every pattern.
+     *
+     * @param name the primary input name
+     * @return the input index
+     * @throws IllegalArgumentException if no input has that name
+     */
+    public int inputIndex(String name) {
+        return cc.inputIndex(name);
+    }
+
+    /** @return the number of primary inputs, the length of every pattern */
+    public int getNumInputs() {
+        return cc.getNumInputs();
+    }
+
+    /**
+     * Outcome of grading one test set.
+     */
+    public static final class Report {
+
+        private final FaultSimulator simulator;
+        private final List<Fault> faults;
+        /** First detecting pattern by fault index, -1 if undetected */
+        private final int[] detectedBy;
+        private final int detected;
+
+        Report(FaultSimulator simulator, int[] detectedBy) {
+            this.simulator = simulator;
+            this.faults = simulator.faults;
+            this.detectedBy = detectedBy;
+            int d = 0;
+            for (int p : detectedBy) if (p >= 0) d++;
+            this.detected = d;
+        }
+
+        /** @return every fault that was graded */
+        public List<Fault> getFaults() {
+            return faults;
+        }
+
+        /** @return the number of detected faults */
+        public int getDetectedCount() {
+            return detected;
+        }
+
+        /** @return detected faults over all faults, 1.0 for an empty fault list */
+        public double getCoverage() {
+            return faults.isEmpty() ? 1.0 : (double) detected / faults.size();
+        }
+
+        /**
+         * Gets the first pattern that detects a fault.
+         *
+         * @param faultIndex position in {@link #getFaults()}
+         * @return the pattern index, or -1 if no pattern detects it
+         * @throws IllegalArgumentException if the index is out of range
+         */
+        public int getDetectingPattern(int faultIndex) {
+            if (faultIndex < 0 || faultIndex >= detectedBy.length) {
+                throw new IllegalArgumentException(
+                    "Fault index " + faultIndex + " is out of range. Valid indices: 0 to " + (detectedBy.length - 1)
+                );
+            }
+            return detectedBy[faultIndex];
+        }
+
+        /**
+         * Gets the first pattern that detects a fault. The fault's index is computed from its gate,
+         * pin and value, so the record need not be the instance {@link #getFaults()} returned.
+         *
+         * @param fault a fault from {@link #getFaults()}
+         * @return the pattern index, or -1 if no pattern detects it
+         * @throws IllegalArgumentException if the fault was not graded
+         */
+        public int getDetectingPattern(Fault fault) {
+            int f = simulator.indexOf(fault);
+            if (f < 0) {
+                throw new IllegalArgumentException("Fault was not graded: " + fault);
+            }
+            return detectedBy[f];
+        }
+
+        /** @return the faults no pattern detects, in fault list order */
+        public List<Fault> getUndetected() {
+            List<Fault> out = new ArrayList<>();
+            for (int f = 0; f < faults.size(); f++) {
+                if (detectedBy[f] < 0) out.add(faults.get(f));
+            }
+            return out;
+        }
+
+        /**
+         * Returns the patterns that are the first to detect at least one fault. Keeping only these,
+         * in order, preserves the coverage of the test set.
+         *
+         * @return sorted, distinct pattern indices
+         */
+        public int[] getDetectingPatterns() {
+            return Arrays.stream(detectedBy).filter(p -> p >= 0).sorted().distinct().toArray();
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package sim.engine;
+
+import sim.core.Circuit;
+import sim.core.Gate;
+import sim.core.Logic;
+import sim.core.LutGate;
+import sim.core.SequentialGate;
+
+import java.util.Arrays;
+
+/**
+ * Four-valued (0/1/X/Z) simulation over the {@link CompiledCircuit} layout, 64 lanes per net.
+ *
+ * <p>Every net is two bit-planes, as described in {@link Logic}: {@code one} (may be 1) and
+ * {@code zero} (may be 0). The primitives then cost two or four bitwise operations per lane word
+ * instead of one:
+ * - AND: one = a.one &amp; b.one, zero = a.zero | b.zero
+ * - OR: one = a.one | b.one, zero = a.zero &amp; b.zero
+ * - NOT: the planes swap
+ * - XOR: one = a.one &amp; b.zero | a.zero &amp; b.one, zero = a.one &amp; b.one | a.zero &amp; b.zero
+ *
+ * <p>Wider AND/OR/XOR gates fold the same formulas over their inputs, and NAND/NOR/XNOR swap the
+ * planes of the result.
+ *
+ * <p>A gate input reads Z as X, so Z is stored as X: setting a primary input to Z and leaving a
+ * pin undriven both give X on that net. Gate outputs are always 0, 1 or X.
+ *
+ * <p>Gates without an opcode are evaluated exactly: an output is known only if it agrees across every
+ * completion of the X inputs, so a {@code Mux2} with a known select ignores X on the other data input.
+ * - a {@link LutGate}, which includes the composites, works on whole lane words: each row of its
+ *   table is the AND of one plane per input (the {@code one} plane where the row has a 1, the
+ *   {@code zero} plane where it has a 0), and an output ORs its 1-rows into {@code one} and its
+ *   0-rows into {@code zero}, at most 2^6 rows per gate
+ * - any other gate is run through {@link Gate#evaluate()} per lane for every completion of its X
+ *   inputs, then has its pins put back; with more than {@value #MAX_ENUMERATED_PINS} unknown inputs
+ *   in a lane it drives X on every output
+ *
+ * <p>Primary inputs and every {@link SequentialGate} start at X, so a design only becomes known
+ * after its inputs are driven and a reset sequence has been clocked in. {@link #clock()} latches
+ * with X-aware reset and enable: an X reset or enable leaves the bit known only where both choices
+ * agree. Settling is lazy, as in {@link CycleSimulator}.
+ */
+public final class FourValuedSimulator {
+
+    /** Most unknown inputs enumerated for a gate without an opcode; above this its outputs are X */
+    public static final int MAX_ENUMERATED_PINS = 8;
+
+    private final CompiledCircuit cc;
+
+    /** The two planes of every net, same numbering as {@link CompiledCircuit} */
+    private final long[] one;
+    private final long[] zero;
+
+    /** Per sequential gate: first state net, first data slot in faninNet, width, enable/reset nets (-1 if absent) */
+    private final int[] stateNet;
+    private final int[] dataSlot;
+    private final int[] width;
+    private final int[] enableNet;
+    private final int[] resetNet;
+
+    /** Next-state planes, so all gates latch from the same settled values */
+    private final long[] nextOne;
+    private final long[] nextZero;
+
+    /** Truth tables by topological position for {@link LutGate}s without an opcode, else null */
+    private final long[][] tables;
+
+    /** Per-row products of the input planes of the lookup gate being evaluated */
+    private final long[] rows = new long[1 << LutGate.MAX_INPUTS];
+
+    /** Unknown pin numbers of the gate being enumerated */
+    private final int[] unknownPins = new int[Gate.MAX_PINS];
+
+    private boolean settled;
+    private long cycles;
+
+    /**
+     * Compiles a circuit for four-valued simulation, with every input and state bit at X.
+     *
+     * @param circuit the circuit; feedback is allowed only through sequential gates
+     * @throws IllegalStateException if the combinational logic contains a cycle
+     */
+    public FourValuedSimulator(Circuit circuit) {
+        this.cc = CompiledCircuit.compile(circuit);
+        int numNets = cc.nets.length;
+        one = new long[numNets];
+        zero = new long[numNets];
+        Arrays.fill(one, -1L);
+        Arrays.fill(zero, -1L);
+
+        tables = new long[cc.op.length][];
+        for (int g = 0; g < cc.op.length; g++) {
+            if (cc.op[g] == CompiledCircuit.OP_GATE && cc.gates[g] instanceof LutGate lut) {
+                tables[g] = new long[lut.getNumOutputs()];
+                for (int p = 0; p < tables[g].length; p++) tables[g][p] = lut.getTable(p);
+            }
+        }
+
+        int count = 0, bits = 0;
+        for (int g = 0; g < cc.op.length; g++) {
+            if (cc.op[g] == CompiledCircuit.OP_STATE) {
+                count++;
+                bits += ((SequentialGate) cc.gates[g]).getWidth();
+            }
+        }
+        stateNet = new int[count];
+        dataSlot = new int[count];
+        width = new int[count];
+        enableNet = new int[count];
+        resetNet = new int[count];
+        nextOne = new long[bits];
+        nextZero = new long[bits];
+        for (int g = 0, i = 0; g < cc.op.length; g++) {
+            if (cc.op[g] != CompiledCircuit.OP_STATE) continue;
+            SequentialGate seq = (SequentialGate) cc.gates[g];
+            int s = cc.faninStart[g];
+            stateNet[i] = cc.outNet[g];
+            dataSlot[i] = s;
+            width[i] = seq.getWidth();
+            enableNet[i] = seq.getEnablePin() < 0 ? -1 : cc.faninNet[s + seq.getEnablePin()];
+            resetNet[i] = seq.getResetPin() < 0 ? -1 : cc.faninNet[s + seq.getResetPin()];
+            i++;
+        }
+    }
+
+    /**
+     * Settles the combinational logic from the current inputs and state without clocking.
+     */
+    public void propagate() {
+        final long[] h = one, l = zero;
+        final byte[] op = cc.op;
+        final int[] fs = cc.faninStart;
+        final int[] fn = cc.faninNet;
+        final int[] on = cc.outNet;
+        for (int g = 0, n = op.length; g < n; g++) {
+            int s = fs[g], o = on[g];
+            switch (op[g]) {
+                case CompiledCircuit.OP_AND -> {
+                    int a = fn[s], b = fn[s + 1];
+                    h[o] = h[a] & h[b];
+                    l[o] = l[a] | l[b];
+                }
+                case CompiledCircuit.OP_OR -> {
+                    int a = fn[s], b = fn[s + 1];
+                    h[o] = h[a] | h[b];
+                    l[o] = l[a] & l[b];
+                }
+                case CompiledCircuit.OP_XOR -> {
+                    int a = fn[s], b = fn[s + 1];
+                    long ah = h[a], al = l[a], bh = h[b], bl = l[b];
+                    h[o] = (ah & bl) | (al & bh);
+                    l[o] = (ah & bh) | (al & bl);
+                }
+                case CompiledCircuit.OP_NOT -> {
+                    int a = fn[s];
+                    long ah = h[a];
+                    h[o] = l[a];
+                    l[o] = ah;
+                }
+                case CompiledCircuit.OP_BUF -> {
+                    h[o] = h[fn[s]];
+                    l[o] = l[fn[s]];
+                }
+                case CompiledCircuit.OP_STATE -> { }
+                case CompiledCircuit.OP_ANDN, CompiledCircuit.OP_ORN, CompiledCircuit.OP_XORN,
+                     CompiledCircuit.OP_NANDN, CompiledCircuit.OP_NORN, CompiledCircuit.OP_XNORN -> reduce(g);
+                default -> {
+                    if (tables[g] != null) lookup(g);
+                    else evalGate(g);
+                }
+            }
+        }
+        settled = true;
+    }
+
+    /** Folds the planes of a reduction gate; NAND/NOR/XNOR swap the planes of the result. */
+    private void reduce(int g) {
+        final long[] h = one, l = zero;
+        final int[] fn = cc.faninNet;
+        int s = cc.faninStart[g], e = cc.faninStart[g + 1], o = cc.outNet[g];
+        byte code = cc.op[g];
+        long rh, rl;
+        switch (code) {
+            case CompiledCircuit.OP_ANDN, CompiledCircuit.OP_NANDN -> {
+                rh = -1L;
+                rl = 0L;
+                for (int i = s; i < e; i++) {
+                    rh &= h[fn[i]];
+                    rl |= l[fn[i]];
+                }
+            }
+            case CompiledCircuit.OP_ORN, CompiledCircuit.OP_NORN -> {
+                rh = 0L;
+                rl = -1L;
+                for (int i = s; i < e; i++) {
+                    rh |= h[fn[i]];
+                    rl &= l[fn[i]];
+                }
+            }
+            default -> {
+                rh = 0L;
+                rl = -1L;
+                for (int i = s; i < e; i++) {
+                    long bh = h[fn[i]], bl = l[fn[i]];
+                    long nh = (rh & bl) | (rl & bh);
+                    rl = (rh & bh) | (rl & bl);
+                    rh = nh;
+                }
+            }
+        }
+        boolean invert = code >= CompiledCircuit.OP_NANDN;
+        h[o] = invert ? rl : rh;
+        l[o] = invert ? rh : rl;
+    }
+
+    /** Evaluates a lookup-table gate on whole lane words from the planes of its inputs. */
+    private void lookup(int g) {
+        final long[] r = rows;
+        int s = cc.faninStart[g], k = cc.faninStart[g + 1] - s, o = cc.outNet[g];
+        // Row m's product over the first i inputs; adding input i doubles the rows
+        r[0] = -1L;
+        for (int i = 0; i < k; i++) {
+            int net = cc.faninNet[s + i];
+            long h = one[net], l = zero[net];
+            for (int m = (1 << i) - 1; m >= 0; m--) {
+                r[m | 1 << i] = r[m] & h;
+                r[m] &= l;
+            }
+        }
+        long[] t = tables[g];
+        for (int p = 0; p < t.length; p++) {
+            long table = t[p], h = 0L, l = 0L;
+            for (int m = 0, n = 1 << k; m < n; m++) {
+                if (((table >>> m) & 1L) != 0) h |= r[m];
+                else l |= r[m];
+            }
+            one[o + p] = h;
+            zero[o + p] = l;
+        }
+    }
+
+    /** Evaluates an opaque gate lane by lane, enumerating its unknown inputs, then restores its pins. */
+    private void evalGate(int g) {
+        Gate gate = cc.gates[g];
+        long saved = gate.getInputBits();
+        int s = cc.faninStart[g], k = cc.faninStart[g + 1] - s;
+        int o = cc.outNet[g], m = gate.getNumOutputs();
+
+        // One pass suffices if every input plane is the same in all lanes
+        boolean uniform = true;
+        for (int i = 0; i < k && uniform; i++) {
+            int net = cc.faninNet[s + i];
+            long hw = one[net], lw = zero[net];
+            uniform = (hw == 0L || hw == -1L) && (lw == 0L || lw == -1L);
+        }
+        int lanes = uniform ? 1 : 64;
+        for (int p = 0; p < m; p++) {
+            one[o + p] = 0L;
+            zero[o + p] = 0L;
+        }
+        for (int lane = 0; lane < lanes; lane++) {
+            long known = 0, unknown = 0;
+            int u = 0;
+            for (int i = 0; i < k; i++) {
+                int net = cc.faninNet[s + i];
+                boolean hi = ((one[net] >>> lane) & 1L) != 0;
+                boolean lo = ((zero[net] >>> lane) & 1L) != 0;
+                if (hi && !lo) {
+                    known |= 1L << i;
+                } else if (hi || !lo) {
+                    // X, or Z read as X
+                    unknown |= 1L << i;
+                    unknownPins[u++] = i;
+                }
+            }
+            long canOne = 0, canZero = 0;
+            if (u > MAX_ENUMERATED_PINS) {
+                canOne = canZero = -1L;
+            } else {
+                for (int a = 0; a < 1 << u; a++) {
+                    long bits = known;
+                    for (int j = 0; j < u; j++) bits |= (long) ((a >>> j) & 1) << unknownPins[j];
+                    gate.setInputBits(bits);
+                    gate.evaluate();
+                    long out = gate.getOutputBits();
+                    canOne |= out;
+                    canZero |= ~out;
+                }
+            }
+            long laneBits = uniform ? -1L : 1L << lane;
+            for (int p = 0; p < m; p++) {
+                if (((canOne >>> p) & 1L) != 0) one[o + p] |= laneBits;
+                if (((canZero >>> p) & 1L) != 0) zero[o + p] |= laneBits;
+            }
+        }
+        // The gate object is shared with the circuit; leave its pins and outputs as they were
+        gate.setInputBits(saved);
+        gate.evaluate();
+    }
+
+    /**
+     * Advances one clock cycle: settles if needed, then latches every sequential gate.
+     */
+    public void clock() {
+        if (!settled) {
+            propagate();
+        }
+        latch();
+        settled = false;
+        cycles++;
+    }
+
+    /**
+     * Runs {@code n} clock cycles with the inputs held.
+     *
+     * @param n number of cycles
+     */
+    public void run(long n) {
+        for (long c = 0; c < n; c++) clock();
+    }
+
+    private void latch() {
+        final long[] h = one, l = zero;
+        final int[] fn = cc.faninNet;
+        int k = 0;
+        for (int i = 0; i < stateNet.length; i++) {
+            long enH = enableNet[i] < 0 ? -1L : h[enableNet[i]];
+            long enL = enableNet[i] < 0 ? 0L : l[enableNet[i]];
+            long rstH = resetNet[i] < 0 ? 0L : h[resetNet[i]];
+            long rstL = resetNet[i] < 0 ? -1L : l[resetNet[i]];
+            for (int b = 0, q = stateNet[i], d = dataSlot[i]; b < width[i]; b++) {
+                // en ? d : q, where an X enable takes the union of both choices
+                long vH = (enH & h[fn[d + b]]) | (enL & h[q + b]);
+                long vL = (enH & l[fn[d + b]]) | (enL & l[q + b]);
+                // rst ? 0 : v
+                nextOne[k] = rstL & vH;
+                nextZero[k] = rstH | (rstL & vL);
+                k++;
+            }
+        }
+        k = 0;
+        for (int i = 0; i < stateNet.length; i++) {
+            for (int b = 0, q = stateNet[i]; b < width[i]; b++, k++) {
+                h[q + b] = nextOne[k];
+                l[q + b] = nextZero[k];
+            }
+        }
+    }
+
+    /**
+     * Gets the number of clock cycles run so far.
+     *
+     * @return the cycle count
+     */
+    public long getCycleCount() {
+        return cycles;
+    }
+
+    /**
+     * Returns the index of a primary input.
+     *
+     * @param name the primary input name
+     * @return the input index
+     * @throws IllegalArgumentException if no input has that name
+     */
+    public int inputIndex(String name) {
+        return cc.inputIndex(name);
+    }
+
+    /**
+     * Sets a primary input by name, broadcast to all lanes.
+     *
+     * @param name the primary input name
+     * @param value the new level; Z is read as X
+     */
+    public void setPrimaryInput(String name, Logic value) {
+        setInput(inputIndex(name), value);
+    }
+
+    /**
+     * Sets a primary input by index, broadcast to all lanes.
+     *
+     * @param index the input index
+     * @param value the new level; Z is read as X
+     */
+    public void setInput(int index, Logic value) {
+        setInputPlanes(index, value.one() ? -1L : 0L, value.zero() ? -1L : 0L);
+    }
+
+    /**
+     * Sets all 64 lanes of a primary input from its two planes.
+     *
+     * @param index the input index
+     * @param oneWord lanes that may be 1
+     * @param zeroWord lanes that may be 0; lanes clear in both planes (Z) are stored as X
+     */
+    public void setInputPlanes(int index, long oneWord, long zeroWord) {
+        int net = 1 + cc.checkInput(index);
+        long z = ~(oneWord | zeroWord);
+        one[net] = oneWord | z;
+        zero[net] = zeroWord | z;
+        settled = false;
+    }
+
+    /**
+     * Reads a primary output (lane 0), settling first if an input or the state changed.
+     *
+     * @param index position in {@link Circuit#getPrimaryOutputs()}
+     * @return the output level
+     */
+    public Logic getOutput(int index) {
+        int net = outputNet(index);
+        return Logic.fromPlanes((one[net] & 1L) != 0, (zero[net] & 1L) != 0);
+    }
+
+    /**
+     * Reads the "may be 1" plane of a primary output, settling first if needed.
+     *
+     * @param index position in {@link Circuit#getPrimaryOutputs()}
+     * @return one bit per lane
+     */
+    public long getOutputOne(int index) {
+        return one[outputNet(index)];
+    }
+
+    /**
+     * Reads the "may be 0" plane of a primary output, settling first if needed.
+     *
+     * @param index position in {@link Circuit#getPrimaryOutputs()}
+     * @return one bit per lane
+     */
+    public long getOutputZero(int index) {
+        return zero[outputNet(index)];
+    }
+
+    private int outputNet(int index) {
+        int net = cc.outputNet[cc.checkOutput(index)];
+        if (!settled) {
+            propagate();
+        }
+        return net;
+    }
+
+    /**
+     * Gets the number of primary outputs.
+     *
+     * @return the output count
+     */
+    public int getNumOutputs() {
+        return cc.getNumOutputs();
+    }
+}
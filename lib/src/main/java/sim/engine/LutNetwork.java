@@ -0,0 +1,384 @@
+package sim.engine;
+
+import sim.core.Circuit;
+import sim.core.LutGate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A combinational circuit mapped onto lookup tables of up to k inputs, with a scalar evaluator
+ * that does one table lookup per LUT.
+ *
+ * <p>Mapping works on the circuit's {@link Aig}:
+ * - every AND node gets its k-feasible cuts (sets of at most k nodes that separate it from the
+ *   primary inputs), merged from the cuts of its two fan-ins; the best few per node are kept
+ *   ("priority cuts") so enumeration stays linear in the graph size
+ * - cuts are ranked by area flow, the LUT count they imply with shared logic split among its
+ *   readers, then by size and depth
+ * - the cover is taken from the primary outputs backwards: each needed node becomes a LUT over the
+ *   leaves of its best cut, and leaves that are AND nodes are needed in turn
+ *
+ * <p>The table of each LUT is computed by simulating its cone on the six elementary 64-row truth
+ * tables, so the network is bit-exact with {@link Circuit#propagate()}. Row r of a table sets leaf j
+ * to bit j of r, as in {@link LutGate}. On a ripple-carry adder this gives about one and a half
+ * LUTs per bit, against seven AIG nodes or five gates.
+ *
+ * <p>Variables are numbered as in the AIG: 0 is constant 0, 1..P are the primary inputs, and LUT j
+ * is variable {@code P + 1 + j}, in topological order. The restrictions of {@link Aig#of(Circuit)}
+ * apply, and the network does not follow later edits to the circuit.
+ */
+public final class LutNetwork {
+
+    /** Cuts kept per node besides the trivial one */
+    private static final int CUTS_PER_NODE = 8;
+
+    private final String[] inputNames;
+    private final Map<String, Integer> inputIndex;
+
+    /** CSR leaves: LUT j reads variables lutLeaf[lutStart[j] .. lutStart[j+1]) */
+    private final int[] lutStart;
+    private final int[] lutLeaf;
+    private final long[] table;
+
+    /** Variable and inversion read by each primary output */
+    private final int[] outputVar;
+    private final int[] outputInv;
+
+    /** Current value (0 or 1) of every variable */
+    private final int[] values;
+
+    private LutNetwork(String[] inputNames, int[] lutStart, int[] lutLeaf, long[] table,
+                       int[] outputVar, int[] outputInv) {
+        this.inputNames = inputNames;
+        this.inputIndex = new HashMap<>(inputNames.length * 2);
+        for (int i = 0; i < inputNames.length; i++) inputIndex.put(inputNames[i], i);
+        this.lutStart = lutStart;
+        this.lutLeaf = lutLeaf;
+        this.table = table;
+        this.outputVar = outputVar;
+        this.outputInv = outputInv;
+        this.values = new int[1 + inputNames.length + table.length];
+    }
+
+    /**
+     * Maps a combinational circuit onto 6-input LUTs.
+     *
+     * @param circuit the circuit to map
+     * @return a new network with all inputs at 0
+     * @throws IllegalArgumentException if the circuit cannot be converted to an {@link Aig}
+     * @throws IllegalStateException if the circuit contains a cycle
+     */
+    public static LutNetwork map(Circuit circuit) {
+        return map(circuit, LutGate.MAX_INPUTS);
+    }
+
+    /**
+     * Maps a combinational circuit onto k-input LUTs.
+     *
+     * @param circuit the circuit to map
+     * @param k inputs per LUT, 2 to {@value LutGate#MAX_INPUTS}
+     * @return a new network with all inputs at 0
+     * @throws IllegalArgumentException if k is out of range or the circuit cannot be converted to
+     *         an {@link Aig}
+     * @throws IllegalStateException if the circuit contains a cycle
+     */
+    public static LutNetwork map(Circuit circuit, int k) {
+        if (k < 2 || k > LutGate.MAX_INPUTS) {
+            throw new IllegalArgumentException("LUT size must be 2 to " + LutGate.MAX_INPUTS + ": " + k);
+        }
+        return new Mapper(Aig.of(circuit), k).run();
+    }
+
+    /** One mapping run over an AIG. */
+    private static final class Mapper {
+
+        private final Aig aig;
+        private final int k;
+        private final int firstAnd;
+        private final int numVars;
+
+        /** Best cut of every AND node, and every node's cut list including the trivial cut */
+        private final int[][] best;
+        private final List<List<int[]>> cuts;
+        private final double[] areaFlow;
+        private final int[] depth;
+        private final int[] refs;
+
+        Mapper(Aig aig, int k) {
+            this.aig = aig;
+            this.k = k;
+            this.firstAnd = 1 + aig.inputNames.length;
+            this.numVars = firstAnd + aig.ands.length / 2;
+            this.best = new int[numVars][];
+            this.cuts = new ArrayList<>(numVars);
+            this.areaFlow = new double[numVars];
+            this.depth = new int[numVars];
+            this.refs = new int[numVars];
+            for (int lit : aig.ands) refs[lit >>> 1]++;
+            for (int lit : aig.outputLit) refs[lit >>> 1]++;
+        }
+
+        LutNetwork run() {
+            for (int v = 0; v < firstAnd; v++) cuts.add(List.of(new int[] {v}));
+            for (int v = firstAnd; v < numVars; v++) enumerate(v);
+
+            // Cover from the outputs; leaves precede their roots, so one backward sweep suffices
+            boolean[] needed = new boolean[numVars];
+            for (int lit : aig.outputLit) needed[lit >>> 1] = true;
+            for (int v = numVars - 1; v >= firstAnd; v--) {
+                if (!needed[v]) continue;
+                for (int leaf : best[v]) needed[leaf] = true;
+            }
+
+            int[] newVar = new int[numVars];
+            for (int v = 0; v < firstAnd; v++) newVar[v] = v;
+            int luts = 0, leaves = 0;
+            for (int v = firstAnd; v < numVars; v++) {
+                if (!needed[v]) continue;
+                newVar[v] = firstAnd + luts++;
+                leaves += best[v].length;
+            }
+            int[] lutStart = new int[luts + 1];
+            int[] lutLeaf = new int[leaves];
+            long[] table = new long[luts];
+            Cone cone = new Cone();
+            for (int v = firstAnd, j = 0; v < numVars; v++) {
+                if (!needed[v]) continue;
+                int[] cut = best[v];
+                lutStart[j + 1] = lutStart[j] + cut.length;
+                for (int i = 0; i < cut.length; i++) lutLeaf[lutStart[j] + i] = newVar[cut[i]];
+                table[j++] = cone.table(v, cut);
+            }
+
+            int[] outputVar = new int[aig.outputLit.length];
+            int[] outputInv = new int[outputVar.length];
+            for (int o = 0; o < outputVar.length; o++) {
+                outputVar[o] = newVar[aig.outputLit[o] >>> 1];
+                outputInv[o] = aig.outputLit[o] & 1;
+            }
+            return new LutNetwork(aig.inputNames.clone(), lutStart, lutLeaf, table, outputVar, outputInv);
+        }
+
+        /** Merges the fan-ins' cuts into node v's priority cuts and picks the best one. */
+        private void enumerate(int v) {
+            int node = v - firstAnd;
+            List<int[]> left = cuts.get(aig.ands[2 * node] >>> 1);
+            List<int[]> right = cuts.get(aig.ands[2 * node + 1] >>> 1);
+            List<int[]> candidates = new ArrayList<>(left.size() * right.size());
+            for (int[] a : left) {
+                for (int[] b : right) {
+                    int[] cut = merge(a, b);
+                    if (cut != null && !dominated(cut, candidates)) {
+                        candidates.removeIf(c -> contains(c, cut));
+                        candidates.add(cut);
+                    }
+                }
+            }
+            candidates.sort(Comparator.<int[]>comparingDouble(this::flow)
+                                      .thenComparingInt(c -> c.length)
+                                      .thenComparingInt(this::depthOf));
+            if (candidates.size() > CUTS_PER_NODE) candidates = candidates.subList(0, CUTS_PER_NODE);
+
+            int[] chosen = candidates.get(0);
+            best[v] = chosen;
+            areaFlow[v] = flow(chosen) / Math.max(1, refs[v]);
+            depth[v] = depthOf(chosen);
+            List<int[]> kept = new ArrayList<>(candidates.size() + 1);
+            kept.addAll(candidates);
+            kept.add(new int[] {v});
+            cuts.add(kept);
+        }
+
+        /** Area flow of a LUT over this cut: itself plus the leaves' shares. */
+        private double flow(int[] cut) {
+            double f = 1;
+            for (int leaf : cut) f += areaFlow[leaf];
+            return f;
+        }
+
+        private int depthOf(int[] cut) {
+            int d = 0;
+            for (int leaf : cut) d = Math.max(d, depth[leaf]);
+            return d + 1;
+        }
+
+        /** Sorted union of two sorted cuts, or null if it has more than k leaves. */
+        private int[] merge(int[] a, int[] b) {
+            int[] out = new int[k];
+            int i = 0, j = 0, n = 0;
+            while (i < a.length || j < b.length) {
+                int x;
+                if (j == b.length || (i < a.length && a[i] < b[j])) x = a[i++];
+                else if (i == a.length || b[j] < a[i]) x = b[j++];
+                else { x = a[i++]; j++; }
+                if (n == k) return null;
+                out[n++] = x;
+            }
+            return n == k ? out : Arrays.copyOf(out, n);
+        }
+
+        private static boolean dominated(int[] cut, List<int[]> cuts) {
+            for (int[] c : cuts) {
+                if (contains(cut, c)) return true;
+            }
+            return false;
+        }
+
+        /** Whether sorted {@code big} contains every leaf of sorted {@code small}. */
+        private static boolean contains(int[] big, int[] small) {
+            if (small.length > big.length) return false;
+            int i = 0;
+            for (int x : small) {
+                while (i < big.length && big[i] < x) i++;
+                if (i == big.length || big[i] != x) return false;
+                i++;
+            }
+            return true;
+        }
+
+        /** Truth tables of cones, computed on the elementary tables of their leaves. */
+        private final class Cone {
+
+            private final long[] tt = new long[numVars];
+            private final int[] stamp = new int[numVars];
+            private int current;
+
+            long table(int root, int[] cut) {
+                current++;
+                for (int j = 0; j < cut.length; j++) {
+                    tt[cut[j]] = Aig.VAR_MASK[j];
+                    stamp[cut[j]] = current;
+                }
+                long t = eval(root);
+                return cut.length == LutGate.MAX_INPUTS ? t : t & ((1L << (1 << cut.length)) - 1);
+            }
+
+            private long eval(int v) {
+                if (stamp[v] == current) return tt[v];
+                int a = aig.ands[2 * (v - firstAnd)], b = aig.ands[2 * (v - firstAnd) + 1];
+                long t = (eval(a >>> 1) ^ -(long) (a & 1)) & (eval(b >>> 1) ^ -(long) (b & 1));
+                tt[v] = t;
+                stamp[v] = current;
+                return t;
+            }
+        }
+    }
+
+    /**
+     * Evaluates every LUT once in topological order: the leaf values are packed into a row index
+     * and the output is bit {@code row} of the table.
+     */
+    public void propagate() {
+        final int[] v = values;
+        final int[] start = lutStart;
+        final int[] leaf = lutLeaf;
+        final long[] t = table;
+        for (int j = 0, var = 1 + inputNames.length; j < t.length; j++, var++) {
+            int row = 0;
+            for (int i = start[j], bit = 0; i < start[j + 1]; i++, bit++) row |= v[leaf[i]] << bit;
+            v[var] = (int) (t[j] >>> row) & 1;
+        }
+    }
+
+    /** @return the number of LUTs */
+    public int getNumLuts() {
+        return table.length;
+    }
+
+    /**
+     * Returns the index of a primary input.
+     *
+     * @param name the primary input name
+     * @return the input index
+     * @throws IllegalArgumentException if no input has that name
+     */
+    public int inputIndex(String name) {
+        Integer i = inputIndex.get(name);
+        if (i == null) {
+            throw new IllegalArgumentException("Unknown primary input: " + name);
+        }
+        return i;
+    }
+
+    /**
+     * Sets a primary input by name; takes effect on the next {@link #propagate()}.
+     *
+     * @param name the primary input name
+     * @param value the new value
+     */
+    public void setPrimaryInput(String name, boolean value) {
+        setInput(inputIndex(name), value);
+    }
+
+    /**
+     * Sets a primary input by index.
+     *
+     * @param index the input index, see {@link #inputIndex(String)}
+     * @param value the new value
+     */
+    public void setInput(int index, boolean value) {
+        values[1 + checkInput(index)] = value ? 1 : 0;
+    }
+
+    /**
+     * Reads a primary output.
+     *
+     * @param index position in {@link Circuit#getPrimaryOutputs()}
+     * @return the output value
+     */
+    public boolean getOutput(int index) {
+        checkOutput(index);
+        return (values[outputVar[index]] ^ outputInv[index]) != 0;
+    }
+
+    /**
+     * Copies every primary output into {@code dst}.
+     *
+     * @param dst destination array with at least {@link #getNumOutputs()} elements
+     */
+    public void readPrimaryOutputs(boolean[] dst) {
+        for (int o = 0; o < outputVar.length; o++) dst[o] = (values[outputVar[o]] ^ outputInv[o]) != 0;
+    }
+
+    /** @return the number of primary inputs */
+    public int getNumInputs() {
+        return inputNames.length;
+    }
+
+    /** @return the number of primary outputs */
+    public int getNumOutputs() {
+        return outputVar.length;
+    }
+
+    /**
+     * Gets the name of a primary input.
+     *
+     * @param index the input index
+     * @return the input name
+     */
+    public String getInputName(int index) {
+        return inputNames[checkInput(index)];
+    }
+
+    private int checkInput(int index) {
+        if (index < 0 || index >= inputNames.length) {
+            throw new IllegalArgumentException(
+                "Input index " + index + " is out of range. Valid indices: 0 to " + (inputNames.length - 1)
+            );
+        }
+        return index;
+    }
+
+    private void checkOutput(int index) {
+        if (index < 0 || index >= outputVar.length) {
+            throw new IllegalArgumentException(
+                "Output index " + index + " is out of range. Valid indices: 0 to " + (outputVar.length - 1)
+            );
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package sim.engine;
+
+import sim.core.Circuit;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Simulator that evaluates each topological level of a circuit across a {@link ForkJoinPool}.
+ *
+ * <p>Gates of one level only read nets produced by lower levels, so a level can be split into
+ * independent chunks. Levels smaller than the serial threshold run on the calling thread; larger
+ * ones are halved recursively until a chunk holds at most {@code chunkSize} gates.
+ *
+ * <p>Shallow, wide netlists benefit most; deep narrow chains pay a join per level and should use
+ * {@link CompiledCircuit} directly.
+ */
+public final class ParallelSimulator {
+
+    /** Default level size below which a level runs serially */
+    public static final int DEFAULT_SERIAL_THRESHOLD = 4096;
+
+    /** Default number of gates per leaf task */
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    private final CompiledCircuit cc;
+    private final ForkJoinPool pool;
+    private final int serialThreshold;
+    private final int chunkSize;
+
+    /** Gates grouped by level: level l is byLevel[levelStart[l] .. levelStart[l+1]) */
+    private final int[] levelStart;
+    private final int[] byLevel;
+
+    /**
+     * Creates a simulator on the common pool with default threshold and chunk size.
+     *
+     * @param circuit the circuit to simulate
+     * @throws IllegalStateException if the circuit contains a cycle
+     */
+    public ParallelSimulator(Circuit circuit) {
+        this(circuit, ForkJoinPool.commonPool(), DEFAULT_SERIAL_THRESHOLD, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a simulator.
+     *
+     * @param circuit the circuit to simulate
+     * @param pool the pool that evaluates large levels
+     * @param serialThreshold levels with fewer gates than this run on the calling thread
+     * @param chunkSize maximum gates per leaf task
+     * @throws IllegalArgumentException if {@code pool} is null or a size is not positive
+     */
+    public ParallelSimulator(Circuit circuit, ForkJoinPool pool, int serialThreshold, int chunkSize) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        if (serialThreshold < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException(
+                "Threshold and chunk size must be positive: " + serialThreshold + ", " + chunkSize
+            );
+        }
+        this.cc = CompiledCircuit.compile(circuit);
+        this.pool = pool;
+        this.serialThreshold = serialThreshold;
+        this.chunkSize = chunkSize;
+
+        // Counting sort of gates by level keeps topological order inside each level
+        int[] level = cc.levels();
+        int maxLevel = -1;
+        for (int lv : level) maxLevel = Math.max(maxLevel, lv);
+        levelStart = new int[maxLevel + 2];
+        for (int lv : level) levelStart[lv + 1]++;
+        for (int l = 0; l <= maxLevel; l++) levelStart[l + 1] += levelStart[l];
+        byLevel = new int[level.length];
+        int[] fill = levelStart.clone();
+        for (int g = 0; g < level.length; g++) byLevel[fill[level[g]]++] = g;
+    }
+
+    /**
+     * Evaluates every gate once, level by level.
+     */
+    public void propagate() {
+        for (int l = 0, n = levelStart.length - 1; l < n; l++) {
+            int lo = levelStart[l], hi = levelStart[l + 1];
+            if (hi - lo < serialThreshold) {
+                evalRange(lo, hi);
+            } else {
+                pool.invoke(new LevelTask(lo, hi));
+            }
+        }
+    }
+
+    private void evalRange(int lo, int hi) {
+        for (int i = lo; i < hi; i++) cc.eval(byLevel[i]);
+    }
+
+    /** Evaluates byLevel[lo..hi), halving until a chunk fits in chunkSize. */
+    private final class LevelTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int lo, hi;
+
+        LevelTask(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= chunkSize) {
+                evalRange(lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new LevelTask(lo, mid), new LevelTask(mid, hi));
+        }
+    }
+
+    /** @return the number of topological levels */
+    public int getLevelCount() {
+        return levelStart.length - 1;
+    }
+
+    /**
+     * Returns the index of a primary input.
+     *
+     * @param name the primary input name
+     * @return the input index
+     * @throws IllegalArgumentException if no input has that name
+     */
+    public int inputIndex(String name) {
+        return cc.inputIndex(name);
+    }
+
+    /**
+     * Sets a primary input by name.
+     *
+     * @param name the primary input name
+     * @param value the value to drive on all lanes
+     */
+    public void setPrimaryInput(String name, boolean value) {
+        cc.setPrimaryInput(name, value);
+    }
+
+    /**
+     * Sets all 64 lanes of a primary input.
+     *
+     * @param index the input index
+     * @param word one bit per pattern
+     */
+    public void setInputWord(int index, long word) {
+        cc.setInputWord(index, word);
+    }
+
+    /**
+     * Reads lane 0 of a primary output.
+     *
+     * @param index position in {@link Circuit#getPrimaryOutputs()}
+     * @return the output value
+     */
+    public boolean getOutput(int index) {
+        return cc.getOutput(index);
+    }
+
+    /**
+     * Reads all 64 lanes of a primary output.
+     *
+     * @param index position in {@link Circuit#getPrimaryOutputs()}
+     * @return one bit per pattern
+     */
+    public long getOutputWord(int index) {
+        return cc.getOutputWord(index);
+    }
+}
@@ -0,0 +1,405 @@
+package sim.engine;
+
+import sim.core.Adjacency;
+import sim.core.Circuit;
+import sim.core.Gate;
+import sim.core.SequentialGate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Simulator for circuits with combinational feedback, such as cross-coupled latches and rings.
+ *
+ * <p>The gate graph is condensed into strongly connected components with Tarjan's algorithm, and the
+ * components are evaluated in topological order of the condensation:
+ * - a component that is a single gate without a self-loop is evaluated once, as in {@link Circuit#propagate()}
+ * - a feedback loop (several gates, or one gate wired to itself) is evaluated repeatedly, in place,
+ *   until a full pass changes no output or the iteration bound is reached
+ *
+ * <p>Only the gates inside a loop are iterated, so an SR latch in a large design costs a few extra
+ * gate evaluations, not extra passes over the whole circuit. Net values persist between calls, which
+ * is what lets a latch hold its state when its inputs return to the hold condition.
+ *
+ * <p>A loop that reaches the bound (for example a ring of an odd number of inverters) is reported by
+ * {@link #propagate()} and {@link #getUnstableLoops()}; its nets keep the values of the last pass.
+ * Wires into a {@link SequentialGate} do not create dependencies, matching {@link Circuit}.
+ *
+ * <p>If several wires drive the same pin of an acyclic circuit, the one {@link Circuit#fanIn()} lists
+ * last wins, as in {@link Circuit#propagate()}. A cyclic circuit has no topological order to break
+ * that tie, so there every pin may have at most one driving wire.
+ */
+public final class SccSimulator {
+
+    private final Gate[] gates;
+
+    /** Net 0 is constant 0, nets 1..P are primary inputs, then gate outputs */
+    private final boolean[] nets;
+    private final int[] faninStart;
+    private final int[] faninNet;
+    private final int[] outNet;
+
+    private final String[] inputNames;
+    private final Map<String, Integer> inputIndex;
+    private final int[] outputNet;
+
+    /** Components in evaluation order: gates compGate[compStart[c] .. compStart[c+1]) */
+    private final int[] compStart;
+    private final int[] compGate;
+    /** Whether component c is a feedback loop that must be iterated */
+    private final boolean[] loop;
+
+    private final int maxIterations;
+    private final List<List<Gate>> unstable = new ArrayList<>();
+    private long lastEvaluations;
+
+    /**
+     * Creates a simulator with the default bound of {@link Circuit#MAX_ITERATIONS} passes per loop.
+     *
+     * @param circuit the circuit to simulate; cycles are allowed
+     */
+    public SccSimulator(Circuit circuit) {
+        this(circuit, Circuit.MAX_ITERATIONS);
+    }
+
+    /**
+     * Creates a simulator.
+     *
+     * @param circuit the circuit to simulate; cycles are allowed
+     * @param maxIterations maximum passes over one loop per {@link #propagate()}, at least 1
+     * @throws IllegalArgumentException if maxIterations is below 1
+     */
+    public SccSimulator(Circuit circuit, int maxIterations) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("maxIterations must be at least 1, got " + maxIterations);
+        }
+        this.maxIterations = maxIterations;
+
+        List<Gate> list = circuit.getGates();
+        int n = list.size();
+        gates = list.toArray(new Gate[0]);
+        Map<Gate, Integer> index = new IdentityHashMap<>(n * 2);
+        for (int g = 0; g < n; g++) index.put(gates[g], g);
+
+        Map<String, List<Circuit.InputBinding>> bindings = circuit.getPrimaryInputBindings();
+        inputNames = bindings.keySet().toArray(new String[0]);
+        inputIndex = new HashMap<>(inputNames.length * 2);
+        for (int i = 0; i < inputNames.length; i++) inputIndex.put(inputNames[i], i);
+
+        faninStart = new int[n + 1];
+        outNet = new int[n];
+        int next = 1 + inputNames.length;
+        for (int g = 0; g < n; g++) {
+            faninStart[g + 1] = faninStart[g] + gates[g].getNumInputs();
+            outNet[g] = next;
+            next += gates[g].getNumOutputs();
+        }
+        nets = new boolean[next];
+        faninNet = new int[faninStart[n]];
+        for (int i = 0; i < inputNames.length; i++) {
+            for (Circuit.InputBinding b : bindings.get(inputNames[i])) {
+                faninNet[faninStart[index.get(b.gate())] + b.pin()] = 1 + i;
+            }
+        }
+
+        // Gate-to-gate successors for Tarjan; wires into sequential gates carry no dependency
+        // Wire endpoints are indices into getGates(), the same numbering as gates[]
+        int m = circuit.getNumWires();
+        int[] succStart = new int[n + 1];
+        int[] from = new int[m];
+        int[] to = new int[m];
+        for (int w = 0; w < m; w++) {
+            from[w] = circuit.getWireFrom(w);
+            to[w] = circuit.getWireTo(w);
+            if (gates[to[w]] instanceof SequentialGate) to[w] = -1;
+            else succStart[from[w] + 1]++;
+        }
+        for (int g = 0; g < n; g++) succStart[g + 1] += succStart[g];
+        int[] succ = new int[succStart[n]];
+        int[] fill = Arrays.copyOf(succStart, n);
+        for (int w = 0; w < from.length; w++) {
+            if (to[w] >= 0) succ[fill[from[w]]++] = to[w];
+        }
+
+        resolveDrivers(circuit, index);
+
+        compStart = new int[n + 1];
+        compGate = new int[n];
+        int comps = tarjan(n, succStart, succ);
+        loop = new boolean[comps];
+        for (int c = 0; c < comps; c++) {
+            if (compStart[c + 1] - compStart[c] > 1) {
+                loop[c] = true;
+            } else {
+                int g = compGate[compStart[c]];
+                for (int e = succStart[g]; e < succStart[g + 1] && !loop[c]; e++) loop[c] = succ[e] == g;
+            }
+        }
+
+        List<Gate> outs = circuit.getPrimaryOutputs();
+        outputNet = new int[outs.size()];
+        for (int i = 0; i < outputNet.length; i++) outputNet[i] = outNet[index.get(outs.get(i))];
+    }
+
+    /**
+     * Points each wire-driven pin at its source net, with the same winner as {@link Circuit#propagate()}.
+     *
+     * @throws IllegalArgumentException if the circuit is cyclic and a pin has several driving wires
+     */
+    private void resolveDrivers(Circuit circuit, Map<Gate, Integer> index) {
+        if (circuit.hasCycle()) {
+            boolean[] driven = new boolean[faninNet.length];
+            for (int w = 0, m = circuit.getNumWires(); w < m; w++) {
+                int to = circuit.getWireTo(w), toPin = circuit.getWireToPin(w);
+                int pin = faninStart[to] + toPin;
+                if (driven[pin]) {
+                    throw new IllegalArgumentException(
+                        "Pin " + toPin + " of gate " + gates[to].getId() + " has several drivers in a cyclic circuit"
+                    );
+                }
+                driven[pin] = true;
+                faninNet[pin] = outNet[circuit.getWireFrom(w)] + circuit.getWireFromPin(w);
+            }
+            return;
+        }
+        // Fan-in rows are indexed by topological position and sorted by source position
+        List<Gate> order = circuit.topologicalOrder();
+        int[] at = new int[order.size()];
+        for (int k = 0; k < at.length; k++) at[k] = index.get(order.get(k));
+        Adjacency fanIn = circuit.fanIn();
+        for (int k = 0; k < at.length; k++) {
+            int s = faninStart[at[k]];
+            for (int e = fanIn.start(k); e < fanIn.end(k); e++) {
+                faninNet[s + fanIn.pin(e)] = outNet[at[fanIn.target(e)]] + fanIn.targetPin(e);
+            }
+        }
+    }
+
+    /**
+     * Iterative Tarjan. Components come out sinks first, so they are written into
+     * compStart/compGate from the back to end up in topological order.
+     *
+     * @return the number of components
+     */
+    private int tarjan(int n, int[] succStart, int[] succ) {
+        int[] order = new int[n];
+        int[] low = new int[n];
+        Arrays.fill(order, -1);
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int sp = 0;
+        int[] call = new int[n];
+        int[] edge = new int[n];
+        int counter = 0;
+
+        // Fill components from the end: sizes are unknown up front, so collect then place
+        int[] sizes = new int[n];
+        int[] members = new int[n];
+        int comps = 0, placed = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (order[root] >= 0) continue;
+            int top = 0;
+            call[top++] = root;
+            order[root] = low[root] = counter++;
+            edge[root] = succStart[root];
+            stack[sp++] = root;
+            onStack[root] = true;
+            while (top > 0) {
+                int v = call[top - 1];
+                if (edge[v] < succStart[v + 1]) {
+                    int w = succ[edge[v]++];
+                    if (order[w] < 0) {
+                        order[w] = low[w] = counter++;
+                        edge[w] = succStart[w];
+                        stack[sp++] = w;
+                        onStack[w] = true;
+                        call[top++] = w;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], order[w]);
+                    }
+                    continue;
+                }
+                top--;
+                if (top > 0) {
+                    int parent = call[top - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+                if (low[v] == order[v]) {
+                    int size = 0;
+                    int w;
+                    do {
+                        w = stack[--sp];
+                        onStack[w] = false;
+                        members[placed++] = w;
+                        size++;
+                    } while (w != v);
+                    sizes[comps++] = size;
+                }
+            }
+        }
+
+        // members holds components in reverse topological order; lay them out forwards
+        int pos = 0, end = n;
+        for (int c = 0; c < comps; c++) {
+            int size = sizes[c];
+            end -= size;
+            System.arraycopy(members, pos, compGate, end, size);
+            pos += size;
+        }
+        for (int c = comps - 1, start = 0; c >= 0; c--) {
+            compStart[comps - 1 - c] = start;
+            start += sizes[c];
+        }
+        compStart[comps] = n;
+        return comps;
+    }
+
+    /**
+     * Evaluates every component once in order, iterating feedback loops to a fixed point.
+     *
+     * @return true if every loop converged within the iteration bound
+     */
+    public boolean propagate() {
+        unstable.clear();
+        long evaluations = 0;
+        for (int c = 0; c < loop.length; c++) {
+            int lo = compStart[c], hi = compStart[c + 1];
+            if (!loop[c]) {
+                evalGate(compGate[lo]);
+                evaluations++;
+                continue;
+            }
+            boolean changed = true;
+            int pass = 0;
+            while (changed && pass < maxIterations) {
+                changed = false;
+                for (int i = lo; i < hi; i++) changed |= evalGate(compGate[i]);
+                evaluations += hi - lo;
+                pass++;
+            }
+            if (changed) {
+                List<Gate> members = new ArrayList<>(hi - lo);
+                for (int i = lo; i < hi; i++) members.add(gates[compGate[i]]);
+                unstable.add(members);
+            }
+        }
+        lastEvaluations = evaluations;
+        return unstable.isEmpty();
+    }
+
+    /** Evaluates one gate from the nets and writes its outputs back; returns whether any output changed. */
+    private boolean evalGate(int g) {
+        Gate gate = gates[g];
+        int s = faninStart[g], k = faninStart[g + 1] - s;
+        long bits = 0;
+        for (int i = 0; i < k; i++) {
+            if (nets[faninNet[s + i]]) bits |= 1L << i;
+        }
+        gate.setInputBits(bits);
+        gate.evaluate();
+        long out = gate.getOutputBits();
+        boolean changed = false;
+        for (int p = 0, o = outNet[g], m = gate.getNumOutputs(); p < m; p++) {
+            boolean v = ((out >>> p) & 1L) != 0;
+            if (nets[o + p] != v) {
+                nets[o + p] = v;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the feedback loops that did not converge in the last {@link #propagate()}.
+     *
+     * @return one gate list per non-converging loop, empty if all converged
+     */
+    public List<List<Gate>> getUnstableLoops() {
+        return List.copyOf(unstable);
+    }
+
+    /**
+     * Returns every feedback loop: components with more than one gate or a gate wired to itself.
+     *
+     * @return one gate list per loop, in evaluation order
+     */
+    public List<List<Gate>> getLoops() {
+        List<List<Gate>> loops = new ArrayList<>();
+        for (int c = 0; c < loop.length; c++) {
+            if (!loop[c]) continue;
+            List<Gate> members = new ArrayList<>();
+            for (int i = compStart[c]; i < compStart[c + 1]; i++) members.add(gates[compGate[i]]);
+            loops.add(members);
+        }
+        return loops;
+    }
+
+    /**
+     * Gets the number of gate evaluations done by the last {@link #propagate()}.
+     *
+     * @return the evaluation count
+     */
+    public long getLastEvaluationCount() {
+        return lastEvaluations;
+    }
+
+    /**
+     * Returns the index of a primary input.
+     *
+     * @param name the primary input name
+     * @return the input index
+     * @throws IllegalArgumentException if no input has that name
+     */
+    public int inputIndex(String name) {
+        Integer i = inputIndex.get(name);
+        if (i == null) {
+            throw new IllegalArgumentException("Unknown primary input: " + name);
+        }
+        return i;
+    }
+
+    /**
+     * Sets a primary input by name; takes effect on the next {@link #propagate()}.
+     *
+     * @param name the primary input name
+     * @param value the new value
+     */
+    public void setPrimaryInput(String name, boolean value) {
+        nets[1 + inputIndex(name)] = value;
+    }
+
+    /**
+     * Sets a primary input by index; takes effect on the next {@link #propagate()}.
+     *
+     * @param index the input index
+     * @param value the new value
+     */
+    public void setInput(int index, boolean value) {
+        if (index < 0 || index >= inputNames.length) {
+            throw new IllegalArgumentException(
+                "Input index " + index + " is out of range. Valid indices: 0 to " + (inputNames.length - 1)
+            );
+        }
+        nets[1 + index] = value;
+    }
+
+    /**
+     * Reads a primary output.
+     *
+     * @param index position in {@link Circuit#getPrimaryOutputs()}
+     * @return the output value
+     */
+    public boolean getOutput(int index) {
+        if (index < 0 || index >= outputNet.length) {
+            throw new IllegalArgumentException(
+                "Output index " + index + " is out of range. Valid indices: 0 to " + (outputNet.length - 1)
+            );
+        }
+        return nets[outputNet[index]];
+    }
+}
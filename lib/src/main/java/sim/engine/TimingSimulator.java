@@ -0,0 +1,332 @@
+package sim.engine;
+
+import sim.core.Circuit;
+import sim.core.Gate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Discrete-event simulator with a propagation delay per gate, scheduled on a timing wheel.
+ *
+ * <p>Time is an integer tick count. When a gate's input net changes at time t, the gate is
+ * evaluated once all changes at t are applied, and each output whose projected value differs is
+ * scheduled to change at t + delay. This is a transport-delay model, so hazards show up as
+ * glitches (for example the 0-1-0 pulse of {@code A AND NOT A} when A rises).
+ *
+ * <p>Events live in a timing wheel: a power-of-two ring of buckets, one tick each, indexed by
+ * {@code time & mask}. Every event is scheduled at most {@code maxDelay} ticks ahead, so a ring of
+ * more than {@code maxDelay} buckets never wraps onto a pending event and needs no overflow level.
+ * Scheduling and dequeuing are O(1); event records come from a pooled free list, so steady-state
+ * simulation does not allocate apart from the returned transitions.
+ *
+ * <p>The initial state is the zero-delay settled state with every input at 0, at time 0.
+ */
+public final class TimingSimulator {
+
+    /**
+     * A change on a primary output.
+     *
+     * @param time tick at which the output changed
+     * @param output position in {@link Circuit#getPrimaryOutputs()}
+     * @param value the new value
+     */
+    public record Transition(long time, int output, boolean value) { }
+
+    private final CompiledCircuit cc;
+
+    /** Delay in ticks per gate (topological position) */
+    private final int[] delay;
+
+    /** CSR fan-out: gates reading net n are fanoutGate[fanoutStart[n] .. fanoutStart[n+1]) */
+    private final int[] fanoutStart;
+    private final int[] fanoutGate;
+
+    /** CSR net to primary outputs reading it */
+    private final int[] outputStart;
+    private final int[] outputIndex;
+
+    /** Current and projected (after all pending events) value of each net */
+    private final boolean[] value;
+    private final boolean[] projected;
+
+    /** Timing wheel: FIFO event list per bucket */
+    private final int[] bucketHead;
+    private final int[] bucketTail;
+    private final int mask;
+
+    /** Event pool: net, value and next link, plus a free list threaded through evNext */
+    private int[] evNet = new int[64];
+    private boolean[] evValue = new boolean[64];
+    private int[] evNext = new int[64];
+    private int freeEvent = -1;
+    private int usedEvents;
+    private int pending;
+
+    /** Gates to evaluate at the current tick, deduplicated by stamp */
+    private final int[] dirty;
+    private final int[] stamp;
+    private int tickStamp;
+
+    /** Scratch copy of a gate's outputs while it is evaluated */
+    private final long[] before;
+
+    private long now;
+    private long lastEvents;
+
+    /**
+     * Creates a timing simulator with the same delay for every gate.
+     *
+     * @param circuit the circuit to simulate
+     * @param delay ticks from an input change to the output change, at least 1
+     * @throws IllegalArgumentException if the delay is below 1
+     * @throws IllegalStateException if the circuit contains a cycle
+     */
+    public TimingSimulator(Circuit circuit, int delay) {
+        this(circuit, g -> delay);
+    }
+
+    /**
+     * Creates a timing simulator with a delay chosen per gate, for example by kind:
+     * {@code g -> g instanceof XorGate ? 2 : 1}.
+     *
+     * @param circuit the circuit to simulate
+     * @param delays ticks from an input change to the output change of each gate, at least 1
+     * @throws IllegalArgumentException if any delay is below 1
+     * @throws IllegalStateException if the circuit contains a cycle
+     */
+    public TimingSimulator(Circuit circuit, ToIntFunction<Gate> delays) {
+        this.cc = CompiledCircuit.compile(circuit);
+        int n = cc.op.length;
+        int numNets = cc.nets.length;
+
+        delay = new int[n];
+        int maxDelay = 1, maxOutputs = 1;
+        for (int g = 0; g < n; g++) {
+            int d = delays.applyAsInt(cc.gates[g]);
+            if (d < 1) {
+                throw new IllegalArgumentException("Delay of gate " + cc.gates[g].getId() + " must be at least 1, got " + d);
+            }
+            delay[g] = d;
+            maxDelay = Math.max(maxDelay, d);
+            maxOutputs = Math.max(maxOutputs, cc.gates[g].getNumOutputs());
+        }
+
+        fanoutStart = new int[numNets + 1];
+        for (int f : cc.faninNet) fanoutStart[f + 1]++;
+        for (int i = 0; i < numNets; i++) fanoutStart[i + 1] += fanoutStart[i];
+        fanoutGate = new int[cc.faninNet.length];
+        int[] fill = fanoutStart.clone();
+        for (int g = 0; g < n; g++) {
+            for (int i = cc.faninStart[g]; i < cc.faninStart[g + 1]; i++) {
+                fanoutGate[fill[cc.faninNet[i]]++] = g;
+            }
+        }
+
+        outputStart = new int[numNets + 1];
+        for (int net : cc.outputNet) outputStart[net + 1]++;
+        for (int i = 0; i < numNets; i++) outputStart[i + 1] += outputStart[i];
+        outputIndex = new int[cc.outputNet.length];
+        fill = outputStart.clone();
+        for (int o = 0; o < cc.outputNet.length; o++) outputIndex[fill[cc.outputNet[o]]++] = o;
+
+        int size = Integer.highestOneBit(maxDelay) << 1;
+        bucketHead = new int[size];
+        bucketTail = new int[size];
+        Arrays.fill(bucketHead, -1);
+        mask = size - 1;
+
+        dirty = new int[n];
+        stamp = new int[n];
+        before = new long[maxOutputs];
+
+        cc.propagate();
+        value = new boolean[numNets];
+        for (int i = 0; i < numNets; i++) value[i] = (cc.nets[i] & 1L) != 0;
+        projected = value.clone();
+    }
+
+    /**
+     * Returns the index of a primary input.
+     *
+     * @param name the primary input name
+     * @return the input index
+     * @throws IllegalArgumentException if no input has that name
+     */
+    public int inputIndex(String name) {
+        return cc.inputIndex(name);
+    }
+
+    /**
+     * Schedules a primary input change at the current time; call {@link #settle()} to simulate it.
+     * Several changes scheduled before one settle happen simultaneously.
+     *
+     * @param index the input index
+     * @param v the new value
+     */
+    public void setInput(int index, boolean v) {
+        int net = 1 + cc.checkInput(index);
+        if (projected[net] != v) {
+            projected[net] = v;
+            schedule(net, v, now);
+        }
+    }
+
+    /**
+     * Changes one primary input at the current time and simulates until the circuit is quiet.
+     *
+     * @param index the input index
+     * @param v the new value
+     * @return the resulting output transitions in time order
+     */
+    public List<Transition> step(int index, boolean v) {
+        setInput(index, v);
+        return settle();
+    }
+
+    /**
+     * Processes events until none are pending.
+     *
+     * <p>Afterwards {@link #getTime()} is the tick of the last event, or unchanged if there was none.
+     *
+     * @return the primary output transitions, in time order (ties in output order)
+     */
+    public List<Transition> settle() {
+        List<Transition> transitions = new ArrayList<>();
+        long events = 0;
+        while (pending > 0) {
+            int slot = (int) (now & mask);
+            if (bucketHead[slot] < 0) {
+                now++;
+                continue;
+            }
+            int e = bucketHead[slot];
+            bucketHead[slot] = -1;
+            int stampNow = ++tickStamp;
+            int count = 0;
+
+            // 1) Apply every change due now and collect the gates that read a changed net
+            while (e >= 0) {
+                int next = evNext[e];
+                int net = evNet[e];
+                boolean v = evValue[e];
+                evNext[e] = freeEvent;
+                freeEvent = e;
+                pending--;
+                events++;
+                if (value[net] != v) {
+                    value[net] = v;
+                    cc.nets[net] = v ? -1L : 0L;
+                    for (int i = outputStart[net]; i < outputStart[net + 1]; i++) {
+                        transitions.add(new Transition(now, outputIndex[i], v));
+                    }
+                    for (int i = fanoutStart[net]; i < fanoutStart[net + 1]; i++) {
+                        int g = fanoutGate[i];
+                        if (stamp[g] != stampNow) {
+                            stamp[g] = stampNow;
+                            dirty[count++] = g;
+                        }
+                    }
+                }
+                e = next;
+            }
+
+            // 2) Evaluate them against the updated nets and schedule output changes after their delay
+            for (int k = 0; k < count; k++) {
+                int g = dirty[k];
+                int o = cc.outNet[g], m = cc.gates[g].getNumOutputs();
+                for (int p = 0; p < m; p++) before[p] = cc.nets[o + p];
+                cc.eval(g);
+                for (int p = 0; p < m; p++) {
+                    boolean v = (cc.nets[o + p] & 1L) != 0;
+                    cc.nets[o + p] = before[p];
+                    if (v != projected[o + p]) {
+                        projected[o + p] = v;
+                        schedule(o + p, v, now + delay[g]);
+                    }
+                }
+            }
+            if (pending > 0) {
+                now++;
+            }
+        }
+        lastEvents = events;
+        // Events at one tick are applied in scheduling order; report them by output within a tick
+        transitions.sort((a, b) -> a.time() != b.time() ? Long.compare(a.time(), b.time())
+                                                        : Integer.compare(a.output(), b.output()));
+        return transitions;
+    }
+
+    private void schedule(int net, boolean v, long time) {
+        int e = freeEvent;
+        if (e >= 0) {
+            freeEvent = evNext[e];
+        } else {
+            if (usedEvents == evNet.length) {
+                int cap = usedEvents * 2;
+                evNet = Arrays.copyOf(evNet, cap);
+                evValue = Arrays.copyOf(evValue, cap);
+                evNext = Arrays.copyOf(evNext, cap);
+            }
+            e = usedEvents++;
+        }
+        evNet[e] = net;
+        evValue[e] = v;
+        evNext[e] = -1;
+        int slot = (int) (time & mask);
+        if (bucketHead[slot] < 0) {
+            bucketHead[slot] = e;
+        } else {
+            evNext[bucketTail[slot]] = e;
+        }
+        bucketTail[slot] = e;
+        pending++;
+    }
+
+    /**
+     * Moves the clock forward while the circuit is quiet, so the next input change happens later.
+     *
+     * @param ticks ticks to advance, non-negative
+     * @throws IllegalArgumentException if ticks is negative
+     * @throws IllegalStateException if events are pending
+     */
+    public void advance(long ticks) {
+        if (ticks < 0) {
+            throw new IllegalArgumentException("Cannot move time backwards: " + ticks);
+        }
+        if (pending > 0) {
+            throw new IllegalStateException(pending + " events pending; settle() first");
+        }
+        now += ticks;
+    }
+
+    /**
+     * Gets the current time in ticks.
+     *
+     * @return the time
+     */
+    public long getTime() {
+        return now;
+    }
+
+    /**
+     * Gets the number of events processed by the last {@link #settle()}.
+     *
+     * @return the event count
+     */
+    public long getLastEventCount() {
+        return lastEvents;
+    }
+
+    /**
+     * Reads the current value of a primary output.
+     *
+     * @param index position in {@link Circuit#getPrimaryOutputs()}
+     * @return the output value
+     */
+    public boolean getOutput(int index) {
+        return value[cc.outputNet[cc.checkOutput(index)]];
+    }
+}
@@ -0,0 +1,231 @@
+package sim.engine;
+
+import sim.core.Circuit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exhaustive truth tables of combinational circuits, written to a memory-mapped file.
+ *
+ * <p>Minterm m drives primary input i (in {@link Circuit#getPrimaryInputBindings()} order) with bit
+ * i of m. Each primary output gets a packed column of 2^n bits, one {@code long} per 64 minterms,
+ * so bit {@code m & 63} of word {@code m >>> 6} is the output for minterm m. Columns are stored one
+ * after the other as little-endian longs: output o starts at byte {@code o * getWordsPerOutput() * 8}.
+ *
+ * <p>The circuit is converted to an {@link Aig} once. Each worker of a {@link ForkJoinPool} takes
+ * blocks of words from a shared counter and evaluates them on its own copy of the graph: the six
+ * lowest inputs take the fixed lane patterns of a 64-row table, and the others are constant across
+ * a word. Only {@link #MAX_INPUTS} inputs fit, which already means a 512 MiB column per output.
+ */
+public final class TruthTables {
+
+    /** Most primary inputs a table can enumerate */
+    public static final int MAX_INPUTS = 32;
+
+    /** Words a worker claims at a time */
+    private static final int BLOCK_WORDS = 1024;
+
+    private TruthTables() {
+    }
+
+    /**
+     * Enumerates a circuit into a temporary file, deleted when the JVM exits, on the common pool.
+     *
+     * @param circuit the combinational circuit
+     * @return the table
+     * @throws IllegalArgumentException if the circuit has more than {@value #MAX_INPUTS} primary
+     *         inputs or cannot be converted to an {@link Aig}
+     * @throws UncheckedIOException if the file cannot be created or mapped
+     */
+    public static Table exhaustive(Circuit circuit) {
+        Path file;
+        try {
+            file = Files.createTempFile("truth-table", ".bin");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        file.toFile().deleteOnExit();
+        return exhaustive(circuit, file, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Enumerates a circuit into a file, which is created or overwritten.
+     *
+     * @param circuit the combinational circuit
+     * @param file where to write the packed output columns
+     * @param pool the pool whose workers share the input space
+     * @return the table, backed by the mapped file
+     * @throws IllegalArgumentException if {@code pool} is null, or the circuit has more than
+     *         {@value #MAX_INPUTS} primary inputs or cannot be converted to an {@link Aig}
+     * @throws UncheckedIOException if the file cannot be created or mapped
+     */
+    public static Table exhaustive(Circuit circuit, Path file, ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        int n = circuit.getPrimaryInputBindings().size();
+        if (n > MAX_INPUTS) {
+            throw new IllegalArgumentException(
+                "Circuit has " + n + " primary inputs; at most " + MAX_INPUTS + " can be enumerated"
+            );
+        }
+        Aig aig = Aig.of(circuit);
+        int outputs = aig.getNumOutputs();
+        long words = n <= 6 ? 1 : 1L << (n - 6);
+
+        MappedByteBuffer[] columns = new MappedByteBuffer[outputs];
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int o = 0; o < outputs; o++) {
+                columns[o] = ch.map(FileChannel.MapMode.READ_WRITE, o * words * 8, words * 8);
+                columns[o].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        AtomicLong next = new AtomicLong();
+        long blocks = (words + BLOCK_WORDS - 1) / BLOCK_WORDS;
+        int workers = (int) Math.max(1, Math.min(pool.getParallelism(), blocks));
+        List<Callable<Void>> tasks = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            Aig copy = aig.copy();
+            tasks.add(() -> {
+                long lo = next.getAndAdd(BLOCK_WORDS);
+                while (lo < words) {
+                    enumerate(copy, n, lo, Math.min(words, lo + BLOCK_WORDS), columns);
+                    lo = next.getAndAdd(BLOCK_WORDS);
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> f : pool.invokeAll(tasks)) f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Truth table enumeration was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Truth table enumeration failed", e.getCause());
+        }
+        for (MappedByteBuffer column : columns) column.force();
+        return new Table(file, aig, n, words, columns);
+    }
+
+    /** Evaluates words [lo, hi) and stores every output word. */
+    private static void enumerate(Aig aig, int n, long lo, long hi, MappedByteBuffer[] columns) {
+        int low = Math.min(n, 6);
+        for (int i = 0; i < low; i++) aig.setInputWord(i, Aig.VAR_MASK[i]);
+        // Lanes past 2^n repeat earlier minterms; clear them so the file holds exactly 2^n bits
+        long lanes = n >= 6 ? -1L : (1L << (1 << n)) - 1;
+        for (long w = lo; w < hi; w++) {
+            for (int i = 6; i < n; i++) aig.setInputWord(i, -((w >>> (i - 6)) & 1L));
+            aig.propagate();
+            for (int o = 0; o < columns.length; o++) {
+                columns[o].putLong((int) (w * 8), aig.getOutputWord(o) & lanes);
+            }
+        }
+    }
+
+    /**
+     * An exhaustive truth table backed by a memory-mapped file.
+     */
+    public static final class Table {
+
+        private final Path file;
+        private final Aig aig;
+        private final int numInputs;
+        private final long words;
+        private final MappedByteBuffer[] columns;
+
+        Table(Path file, Aig aig, int numInputs, long words, MappedByteBuffer[] columns) {
+            this.file = file;
+            this.aig = aig;
+            this.numInputs = numInputs;
+            this.words = words;
+            this.columns = columns;
+        }
+
+        /** @return the file holding the packed columns */
+        public Path getFile() {
+            return file;
+        }
+
+        /** @return the number of primary inputs n; the table has 2^n rows */
+        public int getNumInputs() {
+            return numInputs;
+        }
+
+        /** @return the number of primary outputs, one column each */
+        public int getNumOutputs() {
+            return columns.length;
+        }
+
+        /** @return the number of 64-bit words in each column */
+        public long getWordsPerOutput() {
+            return words;
+        }
+
+        /**
+         * Gets the name of the primary input driven by bit {@code index} of the minterm.
+         *
+         * @param index the input index
+         * @return the input name
+         */
+        public String getInputName(int index) {
+            return aig.getInputName(index);
+        }
+
+        /**
+         * Reads 64 consecutive rows of an output column.
+         *
+         * @param output position in {@link Circuit#getPrimaryOutputs()}
+         * @param word word index; bit b is minterm {@code word * 64 + b}
+         * @return the packed outputs
+         * @throws IllegalArgumentException if the output or word is out of range
+         */
+        public long getWord(int output, long word) {
+            if (output < 0 || output >= columns.length) {
+                throw new IllegalArgumentException(
+                    "Output index " + output + " is out of range. Valid indices: 0 to " + (columns.length - 1)
+                );
+            }
+            if (word < 0 || word >= words) {
+                throw new IllegalArgumentException(
+                    "Word " + word + " is out of range. Valid words: 0 to " + (words - 1)
+                );
+            }
+            return columns[output].getLong((int) (word * 8));
+        }
+
+        /**
+         * Reads one row of an output column.
+         *
+         * @param output position in {@link Circuit#getPrimaryOutputs()}
+         * @param minterm the input combination; bit i drives input i
+         * @return the output value
+         * @throws IllegalArgumentException if the output or minterm is out of range
+         */
+        public boolean get(int output, long minterm) {
+            if (minterm < 0 || minterm >= 1L << numInputs) {
+                throw new IllegalArgumentException(
+                    "Minterm " + minterm + " is out of range for " + numInputs + " inputs"
+                );
+            }
+            return ((getWord(output, minterm >>> 6) >>> (minterm & 63)) & 1L) != 0;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package sim.engine;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API inner loop for {@link WideWordSimulator}.
+ *
+ * <p>Kept in its own class so that nothing from {@code jdk.incubator.vector} is linked unless the
+ * module is present at run time.
+ */
+final class VectorKernel {
+    private VectorKernel() {}
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    /** @return longs per preferred vector */
+    static int preferredWords() {
+        return SPECIES.length();
+    }
+
+    /** @return true if a block of {@code blockWords} splits evenly into preferred vectors */
+    static boolean supports(int blockWords) {
+        return SPECIES.length() > 1 && blockWords % SPECIES.length() == 0;
+    }
+
+    static void propagate(WideWordSimulator sim) {
+        final long[] v = sim.words;
+        final int bw = sim.blockWords;
+        final int step = SPECIES.length();
+        final CompiledCircuit cc = sim.cc;
+        final byte[] op = cc.op;
+        final int[] fs = cc.faninStart, fn = cc.faninNet, on = cc.outNet;
+        for (int g = 0, n = op.length; g < n; g++) {
+            int s = fs[g];
+            int o = on[g] * bw;
+            switch (op[g]) {
+                case CompiledCircuit.OP_AND -> {
+                    int a = fn[s] * bw, b = fn[s + 1] * bw;
+                    for (int w = 0; w < bw; w += step) {
+                        LongVector.fromArray(SPECIES, v, a + w)
+                                  .and(LongVector.fromArray(SPECIES, v, b + w))
+                                  .intoArray(v, o + w);
+                    }
+                }
+                case CompiledCircuit.OP_OR -> {
+                    int a = fn[s] * bw, b = fn[s + 1] * bw;
+                    for (int w = 0; w < bw; w += step) {
+                        LongVector.fromArray(SPECIES, v, a + w)
+                                  .or(LongVector.fromArray(SPECIES, v, b + w))
+                                  .intoArray(v, o + w);
+                    }
+                }
+                case CompiledCircuit.OP_XOR -> {
+                    int a = fn[s] * bw, b = fn[s + 1] * bw;
+                    for (int w = 0; w < bw; w += step) {
+                        LongVector.fromArray(SPECIES, v, a + w)
+                                  .lanewise(VectorOperators.XOR,
+                                            LongVector.fromArray(SPECIES, v, b + w))
+                                  .intoArray(v, o + w);
+                    }
+                }
+                case CompiledCircuit.OP_NOT -> {
+                    int a = fn[s] * bw;
+                    for (int w = 0; w < bw; w += step) {
+                        LongVector.fromArray(SPECIES, v, a + w).not().intoArray(v, o + w);
+                    }
+                }
+                default -> sim.evalGate(g);
+            }
+        }
+    }
+}
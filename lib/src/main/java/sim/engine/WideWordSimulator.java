@@ -0,0 +1,183 @@
+package sim.engine;
+
+import sim.core.Circuit;
+
+/**
+ * Pattern simulator that stores every net as a block of several 64-bit words.
+ *
+ * <p>With {@code patterns = 256} each net holds 4 longs, so one pass evaluates 256 independent input
+ * vectors. When the {@code jdk.incubator.vector} module is present and the block is a multiple of
+ * the preferred {@code LongVector} species, AND/OR/XOR/NOT run as Vector API lane operations;
+ * otherwise the same block is processed with a plain {@code long} loop.
+ *
+ * <p>Net {@code n} occupies {@code words[n * blockWords .. (n + 1) * blockWords)}; bit {@code b} of
+ * word {@code w} belongs to pattern {@code w * 64 + b}.
+ */
+public final class WideWordSimulator {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    /** Topology and per-word fallback for gates without an opcode */
+    final CompiledCircuit cc;
+
+    /** Number of 64-bit words per net */
+    final int blockWords;
+
+    /** Net values, net-major */
+    final long[] words;
+
+    private final boolean vectorized;
+
+    /**
+     * Creates a simulator for {@code patterns} patterns per pass, vectorized when possible.
+     *
+     * @param circuit the circuit to simulate
+     * @param patterns patterns per pass, a positive multiple of 64
+     * @throws IllegalArgumentException if {@code patterns} is not a positive multiple of 64
+     */
+    public WideWordSimulator(Circuit circuit, int patterns) {
+        this(CompiledCircuit.compile(circuit), patterns, true);
+    }
+
+    WideWordSimulator(CompiledCircuit cc, int patterns, boolean allowVector) {
+        if (patterns <= 0 || patterns % 64 != 0) {
+            throw new IllegalArgumentException("Pattern count must be a positive multiple of 64: " + patterns);
+        }
+        this.cc = cc;
+        this.blockWords = patterns / 64;
+        this.words = new long[cc.nets.length * blockWords];
+        this.vectorized = allowVector && vectorAvailable() && VectorKernel.supports(blockWords);
+    }
+
+    /**
+     * Creates a simulator whose block matches the preferred vector width of this machine,
+     * or a single 64-bit word when the Vector API is unavailable.
+     *
+     * @param circuit the circuit to simulate
+     * @return a new simulator
+     */
+    public static WideWordSimulator preferred(Circuit circuit) {
+        int words = vectorAvailable() ? VectorKernel.preferredWords() : 1;
+        return new WideWordSimulator(circuit, words * 64);
+    }
+
+    private static boolean vectorAvailable() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return false;
+        }
+        try {
+            return VectorKernel.preferredWords() > 1;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /** @return true if gates are evaluated with the Vector API */
+    public boolean isVectorized() {
+        return vectorized;
+    }
+
+    /** @return patterns evaluated per pass */
+    public int getPatternCount() {
+        return blockWords * 64;
+    }
+
+    /**
+     * Sets every pattern of a primary input.
+     *
+     * @param index the input index, see {@link CompiledCircuit#inputIndex(String)}
+     * @param block {@code getPatternCount() / 64} words, one bit per pattern
+     * @throws IllegalArgumentException if the block has the wrong length
+     */
+    public void setInput(int index, long[] block) {
+        checkBlock(block);
+        System.arraycopy(block, 0, words, (1 + cc.checkInput(index)) * blockWords, blockWords);
+    }
+
+    /**
+     * Sets every pattern of a primary input by name.
+     *
+     * @param name the primary input name
+     * @param block {@code getPatternCount() / 64} words, one bit per pattern
+     */
+    public void setPrimaryInput(String name, long[] block) {
+        setInput(cc.inputIndex(name), block);
+    }
+
+    /**
+     * Copies every pattern of a primary output into {@code dst}.
+     *
+     * @param index position in {@link Circuit#getPrimaryOutputs()}
+     * @param dst destination with {@code getPatternCount() / 64} words
+     */
+    public void readOutput(int index, long[] dst) {
+        checkBlock(dst);
+        System.arraycopy(words, cc.outputNet[cc.checkOutput(index)] * blockWords, dst, 0, blockWords);
+    }
+
+    /** @return the compiled netlist, for input lookups and counts */
+    public CompiledCircuit getCompiledCircuit() {
+        return cc;
+    }
+
+    /**
+     * Evaluates every gate once for all patterns.
+     */
+    public void propagate() {
+        if (vectorized) {
+            VectorKernel.propagate(this);
+        } else {
+            propagateScalar();
+        }
+    }
+
+    private void propagateScalar() {
+        final long[] v = words;
+        final int bw = blockWords;
+        final byte[] op = cc.op;
+        final int[] fs = cc.faninStart, fn = cc.faninNet, on = cc.outNet;
+        for (int g = 0, n = op.length; g < n; g++) {
+            int s = fs[g];
+            int o = on[g] * bw;
+            switch (op[g]) {
+                case CompiledCircuit.OP_AND -> {
+                    int a = fn[s] * bw, b = fn[s + 1] * bw;
+                    for (int w = 0; w < bw; w++) v[o + w] = v[a + w] & v[b + w];
+                }
+                case CompiledCircuit.OP_OR -> {
+                    int a = fn[s] * bw, b = fn[s + 1] * bw;
+                    for (int w = 0; w < bw; w++) v[o + w] = v[a + w] | v[b + w];
+                }
+                case CompiledCircuit.OP_XOR -> {
+                    int a = fn[s] * bw, b = fn[s + 1] * bw;
+                    for (int w = 0; w < bw; w++) v[o + w] = v[a + w] ^ v[b + w];
+                }
+                case CompiledCircuit.OP_NOT -> {
+                    int a = fn[s] * bw;
+                    for (int w = 0; w < bw; w++) v[o + w] = ~v[a + w];
+                }
+                default -> evalGate(g);
+            }
+        }
+    }
+
+    /** Evaluates any other gate one 64-bit word at a time through {@link CompiledCircuit#eval(int)}. */
+    void evalGate(int g) {
+        final int bw = blockWords;
+        int s = cc.faninStart[g], e = cc.faninStart[g + 1];
+        int o = cc.outNet[g], m = cc.gates[g].getNumOutputs();
+        for (int w = 0; w < bw; w++) {
+            for (int i = s; i < e; i++) cc.nets[cc.faninNet[i]] = words[cc.faninNet[i] * bw + w];
+            cc.eval(g);
+            for (int p = 0; p < m; p++) words[(o + p) * bw + w] = cc.nets[o + p];
+        }
+    }
+
+    private void checkBlock(long[] block) {
+        if (block.length != blockWords) {
+            throw new IllegalArgumentException(
+                "Expected " + blockWords + " words per net, got " + block.length
+            );
+        }
+    }
+}
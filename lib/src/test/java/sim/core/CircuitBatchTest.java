@@ -0,0 +1,143 @@
+package sim.core;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import sim.core.composite.CompositeGates;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+public class CircuitBatchTest {
+
+    /** 4-bit ripple-carry adder: inputs A0..A3, B0..B3, C0 (handles 0..8 in connection order), outputs S0..S3, Cout. */
+    private static Circuit adder4() {
+        Circuit c = new Circuit();
+        Gate carry = null;
+        for (int i = 0; i < 4; i++) {
+            var fa = CompositeGates.buildFullAdder(c, "FA" + i, "A" + i, "B" + i, "C" + i, false);
+            if (carry != null) {
+                c.addWire(new Wire(carry, 0, fa.sum, 1));
+                c.addWire(new Wire(carry, 0, fa.and2, 1));
+            }
+            c.addPrimaryOutput(fa.sum);
+            carry = fa.cout;
+        }
+        c.addPrimaryOutput(carry);
+        return c;
+    }
+
+    /** {@code n} inverters, so every output row is the complement of its input row. */
+    private static Circuit inverters(int n) {
+        Circuit c = new Circuit();
+        for (int k = 0; k < n; k++) {
+            NotGate g = new NotGate("N" + k);
+            c.addGate(g);
+            c.connectPrimaryInput("I" + k, g, 0);
+            c.addPrimaryOutput(g);
+        }
+        return c;
+    }
+
+    @Test
+    void longRows_matchScalarPropagate() {
+        Circuit c = adder4();
+        int count = 150;   // two full blocks and a partial one
+        long[] in = new long[count];
+        Random rnd = new Random(3);
+        for (int r = 0; r < count; r++) in[r] = rnd.nextLong();   // bits above input 8 must be ignored
+
+        long[] out = new long[count];
+        c.propagateBatch(in, out, count);
+
+        long[] word = new long[1];
+        for (int r = 0; r < count; r++) {
+            c.setInputs(new long[]{in[r]});
+            c.propagate();
+            c.readOutputs(word);
+            assertEquals(word[0], out[r], "row " + r);
+        }
+    }
+
+    @Test
+    void multiWordRows_roundTrip() {
+        Circuit c = inverters(70);
+        int count = 65;
+        long[] in = new long[count * 2];
+        Random rnd = new Random(9);
+        for (int i = 0; i < in.length; i++) in[i] = rnd.nextLong();
+
+        long[] out = new long[count * 2];
+        c.propagateBatch(in, out, count);
+        for (int r = 0; r < count; r++) {
+            assertEquals(~in[2 * r], out[2 * r], "row " + r + " word 0");
+            assertEquals(~in[2 * r + 1] & 0x3F, out[2 * r + 1], "row " + r + " word 1");
+        }
+    }
+
+    @Test
+    void byteBufferRows_matchLongRows() {
+        Circuit c = inverters(12);   // 2-byte rows
+        int count = 100;
+        long[] in = new long[count];
+        ByteBuffer inBuf = ByteBuffer.allocate(3 + count * 2);
+        inBuf.position(3);
+        Random rnd = new Random(4);
+        for (int r = 0; r < count; r++) {
+            in[r] = rnd.nextInt(1 << 12);
+            inBuf.put((byte) in[r]).put((byte) (in[r] >>> 8));
+        }
+        inBuf.position(3);
+
+        long[] out = new long[count];
+        ByteBuffer outBuf = ByteBuffer.allocateDirect(count * 2);
+        c.propagateBatch(in, out, count);
+        c.propagateBatch(inBuf, outBuf, count);
+
+        assertEquals(inBuf.limit(), inBuf.position());
+        assertEquals(count * 2, outBuf.position());
+        for (int r = 0; r < count; r++) {
+            int row = (outBuf.get(2 * r) & 0xFF) | (outBuf.get(2 * r + 1) & 0xFF) << 8;
+            assertEquals(out[r], row, "row " + r);
+        }
+    }
+
+    @Test
+    void structuralEdit_recompiles() {
+        Circuit c = inverters(1);
+        long[] out = new long[1];
+        c.propagateBatch(new long[]{0}, out, 1);
+        assertEquals(1, out[0]);
+
+        NotGate extra = new NotGate("X");
+        c.addGate(extra);
+        c.addWire(new Wire(c.getPrimaryOutputs().get(0), 0, extra, 0));
+        c.addPrimaryOutput(extra);
+        c.propagateBatch(new long[]{0}, out, 1);
+        assertEquals(0b01, out[0]);
+    }
+
+    @Test
+    void transpose64_matchesNaive() {
+        long[] a = new long[64];
+        Random rnd = new Random(1);
+        for (int i = 0; i < 64; i++) a[i] = rnd.nextLong();
+        long[] t = a.clone();
+        Circuit.transpose64(t);
+        for (int r = 0; r < 64; r++) {
+            for (int col = 0; col < 64; col++) {
+                assertEquals((a[col] >>> r) & 1L, (t[r] >>> col) & 1L);
+            }
+        }
+    }
+
+    @Test
+    void shortBuffers_throw() {
+        Circuit c = inverters(3);
+        assertThrows(IllegalArgumentException.class, () -> c.propagateBatch(new long[1], new long[2], 2));
+        assertThrows(IllegalArgumentException.class, () -> c.propagateBatch(new long[2], new long[1], 2));
+        assertThrows(IllegalArgumentException.class, () -> c.propagateBatch(new long[0], new long[0], -1));
+        assertThrows(IllegalArgumentException.class,
+                     () -> c.propagateBatch(ByteBuffer.allocate(1), ByteBuffer.allocate(1), 2));
+    }
+}
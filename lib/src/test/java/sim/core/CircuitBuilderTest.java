@@ -0,0 +1,135 @@
+package sim.core;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class CircuitBuilderTest {
+
+    /**
+     * Random layered XOR/AND/OR mesh. Wires only go from lower to higher gate indices, but gates and
+     * wires are added in shuffled order so the bulk path has to sort them itself.
+     */
+    @Test
+    void builtCircuit_matchesIncrementallyBuiltCircuit() {
+        Random rnd = new Random(7);
+        int n = 400;
+        Gate[] a = new Gate[n], b = new Gate[n];
+        for (int i = 0; i < n; i++) {
+            int kind = rnd.nextInt(3);
+            a[i] = kind == 0 ? new XorGate("G" + i) : kind == 1 ? new AndGate("G" + i) : new OrGate("G" + i);
+            b[i] = kind == 0 ? new XorGate("G" + i) : kind == 1 ? new AndGate("G" + i) : new OrGate("G" + i);
+        }
+
+        Circuit direct = new Circuit();
+        CircuitBuilder builder = new CircuitBuilder(n, 2 * n);
+        for (int i = n - 1; i >= 0; i--) direct.addGate(a[i]);
+        builder.addGates(b);
+
+        List<int[]> wires = new ArrayList<>();
+        for (int i = 16; i < n; i++) {
+            wires.add(new int[]{rnd.nextInt(i), i, 0});
+            wires.add(new int[]{rnd.nextInt(i), i, 1});
+        }
+        Collections.shuffle(wires, rnd);
+        for (int[] w : wires) {
+            direct.addWire(new Wire(a[w[0]], 0, a[w[1]], w[2]));
+            builder.addWire(w[0], 0, w[1], w[2]);
+        }
+        for (int i = 0; i < 16; i++) {
+            direct.connectPrimaryInput("IN" + i, a[i], 0);
+            direct.connectPrimaryInput("IN" + ((i + 1) % 16), a[i], 1);
+            builder.connectPrimaryInput("IN" + i, i, 0);
+            builder.connectPrimaryInput("IN" + ((i + 1) % 16), i, 1);
+        }
+        for (int i = n - 8; i < n; i++) {
+            direct.addPrimaryOutput(a[i]);
+            builder.addPrimaryOutput(i);
+        }
+
+        Netlist netlist = builder.build();
+        assertEquals(n, netlist.getNumGates());
+        assertEquals(wires.size(), netlist.getNumWires());
+        Circuit built = netlist.toCircuit();
+        assertEquals(16, built.getNumPrimaryInputs());
+        assertFalse(built.hasCycle());
+
+        long[] in = new long[1], outA = new long[1], outB = new long[1];
+        for (int round = 0; round < 50; round++) {
+            in[0] = rnd.nextLong();
+            direct.setInputs(in);
+            built.setInputs(in);
+            direct.propagate();
+            built.propagate();
+            direct.readOutputs(outA);
+            built.readOutputs(outB);
+            assertEquals(outA[0], outB[0], "round " + round);
+        }
+    }
+
+    @Test
+    void bulkArrays_andLaterEdits() {
+        CircuitBuilder builder = new CircuitBuilder();
+        int first = builder.addGates(List.of(new NotGate("N0"), new NotGate("N1"), new NotGate("N2")));
+        assertEquals(0, first);
+        // Chain N2 -> N1 -> N0, against insertion order
+        builder.addWires(new int[]{2, 1}, new int[]{0, 0}, new int[]{1, 0}, new int[]{0, 0});
+        builder.connectPrimaryInput("A", 2, 0);
+        builder.addPrimaryOutput(0);
+        Circuit c = builder.build().toCircuit();
+
+        List<Gate> order = c.topologicalOrder();
+        assertEquals(List.of("N2", "N1", "N0"), order.stream().map(Gate::getId).toList());
+        c.setPrimaryInput("A", true);
+        c.propagate();
+        assertFalse(c.get(0));
+
+        // The loaded circuit keeps accepting incremental edits
+        NotGate extra = new NotGate("N3");
+        c.addGate(extra);
+        c.addWire(new Wire(order.get(2), 0, extra, 0));
+        c.addPrimaryOutput(extra);
+        c.propagate();
+        assertTrue(c.get(1));
+    }
+
+    @Test
+    void cycleInNetlist_isReported() {
+        CircuitBuilder builder = new CircuitBuilder(2, 2);
+        builder.addGates(new NotGate("X"), new NotGate("Y"));
+        builder.addWire(0, 0, 1, 0);
+        builder.addWire(1, 0, 0, 0);
+        Circuit c = builder.build().toCircuit();
+        assertTrue(c.hasCycle());
+        assertThrows(IllegalStateException.class, c::topologicalOrder);
+    }
+
+    @Test
+    void invalidIndicesAndPins_throw() {
+        CircuitBuilder builder = new CircuitBuilder(1, 1);
+        NotGate g = new NotGate("N");
+        builder.addGate(g);
+        assertThrows(IllegalArgumentException.class, () -> builder.addGate(g));
+        assertThrows(IllegalArgumentException.class, () -> builder.addGate(null));
+        assertThrows(IllegalArgumentException.class, () -> builder.addWire(0, 0, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> builder.addWire(0, 1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> builder.connectPrimaryInput("A", 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> builder.connectPrimaryInput(" ", 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> builder.addPrimaryOutput(-1));
+        assertThrows(IllegalArgumentException.class, () -> builder.indexOf(new NotGate("other")));
+        assertThrows(IllegalArgumentException.class,
+                     () -> builder.addWires(new int[1], new int[1], new int[2], new int[1]));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBuilder(-1, 0));
+    }
+
+    @Test
+    void circuitMembershipChecks_rejectForeignGates() {
+        Circuit c = new Circuit();
+        assertThrows(IllegalArgumentException.class, () -> c.connectPrimaryInput("A", new NotGate("N"), 0));
+        assertThrows(IllegalArgumentException.class, () -> c.addPrimaryOutput(new NotGate("N")));
+    }
+}
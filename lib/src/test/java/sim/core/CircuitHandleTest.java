@@ -0,0 +1,122 @@
+package sim.core;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+public class CircuitHandleTest {
+
+    /** {@code n} independent inverters: input "I<k>" drives NOT "N<k>", which is output k. */
+    private static Circuit inverters(int n, List<Gate> gates) {
+        Circuit c = new Circuit();
+        for (int k = 0; k < n; k++) {
+            NotGate g = new NotGate("N" + k);
+            c.addGate(g);
+            c.connectPrimaryInput("I" + k, g, 0);
+            c.addPrimaryOutput(g);
+            gates.add(g);
+        }
+        return c;
+    }
+
+    @Test
+    void handles_followConnectionOrder() {
+        List<Gate> gates = new ArrayList<>();
+        Circuit c = inverters(3, gates);
+        assertEquals(3, c.getNumPrimaryInputs());
+        assertEquals(0, c.inputHandle("I0"));
+        assertEquals(2, c.inputHandle("I2"));
+        assertEquals(1, c.outputHandle(gates.get(1)));
+
+        int in = c.inputHandle("I1");
+        int out = c.outputHandle(gates.get(1));
+        c.set(in, true);
+        c.propagate();
+        assertFalse(c.get(out));
+        assertTrue(c.get(0));
+
+        // The name API and the handle API address the same storage
+        c.setPrimaryInput("I1", false);
+        c.propagate();
+        assertTrue(c.get(out));
+    }
+
+    @Test
+    void outputHandles_resolveEveryOutputOfAWideDesign() {
+        List<Gate> gates = new ArrayList<>();
+        Circuit c = inverters(20_000, gates);
+        for (int k = 0; k < gates.size(); k++) assertEquals(k, c.outputHandle(gates.get(k)));
+
+        // A gate listed twice keeps the handle of its first position
+        c.addPrimaryOutput(gates.get(3));
+        assertEquals(3, c.outputHandle(gates.get(3)));
+        assertSame(gates.get(3), c.getPrimaryOutputs().get(20_000));
+    }
+
+    @Test
+    void bulkInputsAndOutputs_spanSeveralWords() {
+        Circuit c = inverters(100, new ArrayList<>());
+        long[] in = {0x5555_5555_5555_5555L, 0xF0F0_F0F0_FL};
+        c.setInputs(in);
+        c.propagate();
+
+        long[] out = new long[2];
+        c.readOutputs(out);
+        assertEquals(~in[0], out[0]);
+        long mask = (1L << 36) - 1;
+        assertEquals(~in[1] & mask, out[1]);
+        for (int k = 0; k < 100; k++) {
+            boolean bit = ((in[k >>> 6] >>> k) & 1L) != 0;
+            assertEquals(!bit, c.get(k), "output " + k);
+        }
+    }
+
+    @Test
+    void readbackVariants_agree() {
+        Circuit c = inverters(10, new ArrayList<>());
+        c.setInputs(new long[]{0b10_1100_1010L});
+        c.propagate();
+
+        long expected = ~0b10_1100_1010L & 0x3FF;
+        assertEquals(expected, c.readPrimaryOutputBits());
+
+        boolean[] flags = new boolean[10];
+        c.readPrimaryOutputs(flags);
+        BitSet set = new BitSet();
+        c.readPrimaryOutputs(set);
+        List<Boolean> list = c.readPrimaryOutputs();
+        for (int k = 0; k < 10; k++) {
+            assertEquals(list.get(k), flags[k]);
+            assertEquals(list.get(k), set.get(k));
+        }
+        assertEquals(BitSet.valueOf(new long[]{expected}), set);
+
+        assertThrows(IllegalArgumentException.class, () -> c.readPrimaryOutputs(new boolean[9]));
+        assertThrows(IllegalStateException.class, () -> inverters(65, new ArrayList<>()).readPrimaryOutputBits());
+    }
+
+    @Test
+    void valueSetBeforeConnection_isKept() {
+        Circuit c = new Circuit();
+        NotGate g = new NotGate("N");
+        c.addGate(g);
+        c.setPrimaryInput("A", true);
+        c.connectPrimaryInput("A", g, 0);
+        c.addPrimaryOutput(g);
+        c.propagate();
+        assertFalse(c.get(0));
+    }
+
+    @Test
+    void badHandles_throw() {
+        Circuit c = inverters(2, new ArrayList<>());
+        assertThrows(IllegalArgumentException.class, () -> c.inputHandle("nope"));
+        assertThrows(IllegalArgumentException.class, () -> c.set(2, true));
+        assertThrows(IllegalArgumentException.class, () -> c.get(-1));
+        assertThrows(IllegalArgumentException.class, () -> c.outputHandle(new NotGate("X")));
+        assertThrows(IllegalArgumentException.class, () -> c.readOutputs(new long[0]));
+    }
+}
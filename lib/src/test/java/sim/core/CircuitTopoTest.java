@@ -4,7 +4,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 /**
  * Tests for the topological ordering functionality of the Circuit class.
@@ -169,4 +173,157 @@ public class CircuitTopoTest {
         // Order doesn't matter for independent gates
         // Just verify all gates are present
     }
+
+    /**
+     * Tests that the incrementally maintained order stays valid when wires arrive in an order
+     * that keeps contradicting the current one.
+     * 
+     * <p>Edges always run from a lower to a higher rank of a hidden shuffle, so the graph is
+     * acyclic, but gates were added in a different order and most wires point backwards.
+     */
+    @Test
+    void testIncrementalOrderStaysValid() {
+        Circuit c = new Circuit();
+        Random rnd = new Random(42);
+        int n = 300;
+        List<Gate> gates = new ArrayList<>();
+        int[] rank = new int[n];
+        for (int i = 0; i < n; i++) {
+            gates.add(new XorGate("X" + i));
+            c.addGate(gates.get(i));
+            rank[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = rank[i]; rank[i] = rank[j]; rank[j] = t;
+        }
+
+        List<Wire> added = new ArrayList<>();
+        for (int e = 0; e < 1500; e++) {
+            int a = rnd.nextInt(n), b = rnd.nextInt(n);
+            if (rank[a] == rank[b]) continue;
+            Gate from = gates.get(rank[a] < rank[b] ? a : b);
+            Gate to = gates.get(rank[a] < rank[b] ? b : a);
+            Wire w = new Wire(from, 0, to, rnd.nextInt(2));
+            c.addWire(w);
+            added.add(w);
+
+            if (e % 100 == 0) assertOrderRespects(c.topologicalOrder(), added, n);
+        }
+        assertFalse(c.hasCycle());
+        assertOrderRespects(c.topologicalOrder(), added, n);
+    }
+
+    private static void assertOrderRespects(List<Gate> order, List<Wire> wires, int n) {
+        assertEquals(n, order.size());
+        Map<Gate, Integer> pos = new IdentityHashMap<>();
+        for (int k = 0; k < order.size(); k++) pos.put(order.get(k), k);
+        assertEquals(n, pos.size(), "order must be a permutation");
+        for (Wire w : wires) {
+            assertTrue(pos.get(w.getFromGate()) < pos.get(w.getToGate()),
+                       w.getFromGate().getId() + " should come before " + w.getToGate().getId());
+        }
+    }
+
+    /**
+     * Tests that a cycle is reported as soon as the closing wire is added, including a self-loop,
+     * and that propagation refuses to run afterwards.
+     */
+    @Test
+    void testCycleDetectedOnInsert() {
+        circuit.addWire(new Wire(and1, 0, or1, 0));
+        circuit.addWire(new Wire(or1, 0, not1, 0));
+        assertFalse(circuit.hasCycle());
+        circuit.addWire(new Wire(not1, 0, and1, 1));
+        assertTrue(circuit.hasCycle());
+        assertThrows(IllegalStateException.class, () -> circuit.propagate());
+
+        Circuit loop = new Circuit();
+        loop.addGate(and2);
+        loop.addWire(new Wire(and2, 0, and2, 0));
+        assertTrue(loop.hasCycle());
+    }
+
+    /**
+     * Tests the CSR fan-out and fan-in views against the wires that built them.
+     * 
+     * <p>Circuit structure: AND1 -> OR1.in0, AND2 -> OR1.in1, OR1 -> NOT1, AND1 -> AND2.in1
+     */
+    @Test
+    void testAdjacencyViews() {
+        circuit.addWire(new Wire(and1, 0, or1, 0));
+        circuit.addWire(new Wire(and2, 0, or1, 1));
+        circuit.addWire(new Wire(or1, 0, not1, 0));
+        circuit.addWire(new Wire(and1, 0, and2, 1));
+
+        List<Gate> order = circuit.topologicalOrder();
+        Adjacency out = circuit.fanOut();
+        Adjacency in = circuit.fanIn();
+        assertEquals(4, out.size());
+        assertEquals(4, out.edgeCount());
+        assertEquals(4, in.edgeCount());
+
+        int a1 = order.indexOf(and1), a2 = order.indexOf(and2), o1 = order.indexOf(or1), n1 = order.indexOf(not1);
+        assertEquals(2, out.end(a1) - out.start(a1));
+        assertEquals(0, out.end(n1) - out.start(n1));
+
+        // OR1's fan-in row is sorted by source position: AND1 (pin 0) before AND2 (pin 1)
+        assertEquals(2, in.end(o1) - in.start(o1));
+        int e = in.start(o1);
+        assertEquals(a1, in.target(e));
+        assertEquals(0, in.pin(e));
+        assertEquals(a2, in.target(e + 1));
+        assertEquals(1, in.pin(e + 1));
+        assertEquals(0, in.targetPin(e + 1));
+
+        // Views are snapshots: an edit yields a new one and leaves the old one alone
+        NotGate late = new NotGate("LATE");
+        circuit.addGate(late);
+        circuit.addWire(new Wire(not1, 0, late, 0));
+        assertEquals(4, out.edgeCount());
+        assertEquals(5, circuit.fanOut().edgeCount());
+    }
+
+    /**
+     * Tests that edits after the structure was frozen for simulation still repair the order and
+     * detect cycles, and that getWires() rebuilds the wires in insertion order.
+     * 
+     * <p>Circuit structure: OR1 -> NOT1, then (after propagate) NOT1 -> AND1.in0, AND1 -> AND2.in0,
+     * then (after propagate) AND2 -> OR1.in1, which closes a cycle
+     */
+    @Test
+    void testEditsAfterFreeze() {
+        List<Wire> added = new ArrayList<>();
+        added.add(new Wire(or1, 0, not1, 0));
+        circuit.addWire(added.get(0));
+        circuit.propagate();
+
+        // Both wires point backwards in the frozen order, so the edit has to move AND1 and AND2
+        added.add(new Wire(not1, 0, and1, 0));
+        added.add(new Wire(and1, 0, and2, 0));
+        for (Wire w : added.subList(1, 3)) circuit.addWire(w);
+        assertOrderRespects(circuit.topologicalOrder(), added, 4);
+        circuit.propagate();
+        assertEquals(3, circuit.fanOut().edgeCount());
+
+        // getWires() rebuilds the wires from the index arrays: same connections, new instances
+        List<Wire> wires = circuit.getWires();
+        List<Gate> gates = circuit.getGates();
+        assertEquals(added.size(), wires.size());
+        assertEquals(added.size(), circuit.getNumWires());
+        for (int w = 0; w < wires.size(); w++) {
+            assertSame(added.get(w).getFromGate(), wires.get(w).getFromGate());
+            assertSame(added.get(w).getToGate(), wires.get(w).getToGate());
+            assertEquals(added.get(w).getToPin(), wires.get(w).getToPin());
+            assertNotSame(added.get(w), wires.get(w));
+            assertSame(added.get(w).getFromGate(), gates.get(circuit.getWireFrom(w)));
+            assertSame(added.get(w).getToGate(), gates.get(circuit.getWireTo(w)));
+            assertEquals(added.get(w).getFromPin(), circuit.getWireFromPin(w));
+            assertEquals(added.get(w).getToPin(), circuit.getWireToPin(w));
+        }
+        assertThrows(IllegalArgumentException.class, () -> circuit.getWireFrom(added.size()));
+
+        circuit.addWire(new Wire(and2, 0, or1, 1));
+        assertTrue(circuit.hasCycle());
+    }
 }
@@ -0,0 +1,75 @@
+package sim.core;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import sim.core.composite.FullAdder;
+import sim.core.composite.HalfAdder;
+import sim.core.composite.Mux2;
+import sim.core.composite.Mux4;
+
+public class LutGateTest {
+
+    @Test
+    void tableGate_looksUpEveryRow() {
+        LutGate maj = new LutGate("MAJ", 3, 0xE8);
+        for (int row = 0; row < 8; row++) {
+            maj.setInputBits(row);
+            maj.evaluate();
+            assertEquals(Integer.bitCount(row) >= 2, maj.getOutput(0), "row " + row);
+        }
+        // Bits beyond the 2^n rows are dropped
+        assertEquals(0b1000L, new LutGate("AND", 2, 0xFFF8L).getTable(0));
+    }
+
+    @Test
+    void ofGate_capturesPrimitiveAndComposite() {
+        assertEquals(0b0110L, LutGate.of("X", new XorGate("X")).getTable(0));
+        assertEquals(0b01L, LutGate.of("N", new NotGate("N")).getTable(0));
+
+        LutGate fa = LutGate.of("FA", new FullAdder("FA"));
+        assertEquals(2, fa.getNumOutputs());
+        assertEquals(0x96L, fa.getTable(0));
+        assertEquals(0xE8L, fa.getTable(1));
+    }
+
+    @Test
+    void composites_matchTheirDocumentedFunctions() {
+        FullAdder fa = new FullAdder("FA");
+        HalfAdder ha = new HalfAdder("HA");
+        Mux2 m2 = new Mux2("M2");
+        Mux4 m4 = new Mux4("M4");
+        for (int row = 0; row < 64; row++) {
+            if (row < 8) {
+                fa.setInputBits(row);
+                fa.evaluate();
+                assertEquals(Integer.bitCount(row) & 1, (int) (fa.getOutputBits() & 1), "FA sum " + row);
+                assertEquals(Integer.bitCount(row) >= 2, fa.getOutput(1), "FA cout " + row);
+
+                m2.setInputBits(row);
+                m2.evaluate();
+                boolean sel = (row & 1) != 0, d0 = (row & 2) != 0, d1 = (row & 4) != 0;
+                assertEquals(sel ? d1 : d0, m2.getOutput(0), "Mux2 " + row);
+            }
+            if (row < 4) {
+                ha.setInputBits(row);
+                ha.evaluate();
+                assertEquals(row == 1 || row == 2, ha.getOutput(0));
+                assertEquals(row == 3, ha.getOutput(1));
+            }
+            m4.setInputBits(row);
+            m4.evaluate();
+            int sel = row & 3;
+            assertEquals(((row >> (2 + sel)) & 1) != 0, m4.getOutput(0), "Mux4 " + row);
+        }
+    }
+
+    @Test
+    void rejectsTooManyInputsAndSequentialGates() {
+        assertThrows(IllegalArgumentException.class, () -> new LutGate("L", 7, 0L));
+        assertThrows(IllegalArgumentException.class, () -> new LutGate("L", 2));
+        assertThrows(IllegalArgumentException.class, () -> LutGate.of("D", new DFlipFlop("D")));
+        assertThrows(IllegalArgumentException.class, () -> LutGate.tabulate(7, row -> true));
+        assertThrows(IllegalArgumentException.class, () -> new LutGate("L", 1, 0L).getTable(1));
+    }
+}
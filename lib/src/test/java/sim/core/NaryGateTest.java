@@ -0,0 +1,53 @@
+package sim.core;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.function.BiFunction;
+import java.util.function.LongPredicate;
+
+public class NaryGateTest {
+
+    private static void check(BiFunction<String, Integer, Gate> make, int n, LongPredicate expected) {
+        Gate g = make.apply("G", n);
+        assertEquals(n, g.getNumInputs());
+        assertEquals(1, g.getNumOutputs());
+        long all = n == 64 ? -1L : (1L << n) - 1;
+        Random rnd = new Random(n);
+        long[] rows = {0L, all, all & ~1L, 1L & all, rnd.nextLong() & all, rnd.nextLong() & all};
+        for (long row : rows) {
+            g.setInputBits(row);
+            g.evaluate();
+            assertEquals(expected.test(row), g.getOutput(0), g.getClass().getSimpleName() + " n=" + n + " row=" + Long.toHexString(row));
+        }
+    }
+
+    @Test
+    void reductions_overAnyWidth() {
+        for (int n : new int[] {0, 1, 2, 3, 5, 32, 63, 64}) {
+            long all = n == 64 ? -1L : (1L << n) - 1;
+            check(AndGate::new, n, row -> row == all);
+            check(NandGate::new, n, row -> row != all);
+            check(OrGate::new, n, row -> row != 0);
+            check(NorGate::new, n, row -> row == 0);
+            check(XorGate::new, n, row -> Long.bitCount(row) % 2 == 1);
+            check(XnorGate::new, n, row -> Long.bitCount(row) % 2 == 0);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new AndGate("A", 65));
+        assertThrows(IllegalArgumentException.class, () -> new XorGate("X", -1));
+    }
+
+    @Test
+    void defaultsToTwoInputs_andBufCopies() {
+        assertEquals(2, new NandGate("N").getNumInputs());
+        assertEquals(2, new XnorGate("X").getNumInputs());
+        BufGate b = new BufGate("B");
+        b.setInput(0, true);
+        b.evaluate();
+        assertTrue(b.getOutput(0));
+        b.setInput(0, false);
+        b.evaluate();
+        assertFalse(b.getOutput(0));
+    }
+}
@@ -0,0 +1,190 @@
+package sim.core;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import sim.core.composite.CompositeGates;
+import sim.core.composite.HalfAdder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class OptimizerTest {
+
+    /** Ripple-carry adder from CompositeGates with a carry-in per bit; only the sums and final carry are outputs. */
+    private static Circuit adder(int bits) {
+        Circuit c = new Circuit();
+        Gate carry = null;
+        for (int i = 0; i < bits; i++) {
+            var fa = CompositeGates.buildFullAdder(c, "FA" + i, "A" + i, "B" + i, "C" + i, false);
+            if (carry != null) {
+                c.addWire(new Wire(carry, 0, fa.sum, 1));
+                c.addWire(new Wire(carry, 0, fa.and2, 1));
+            }
+            c.addPrimaryOutput(fa.sum);
+            carry = fa.cout;
+        }
+        c.addPrimaryOutput(carry);
+        return c;
+    }
+
+    private static void assertEquivalent(Circuit original, Circuit optimized, Map<String, Boolean> tied, int rounds) {
+        List<String> names = new ArrayList<>(original.getPrimaryInputBindings().keySet());
+        Random rnd = new Random(21);
+        for (int r = 0; r < rounds; r++) {
+            for (String name : names) {
+                boolean v = tied.containsKey(name) ? tied.get(name) : rnd.nextBoolean();
+                original.setPrimaryInput(name, v);
+                optimized.setPrimaryInput(name, v);
+            }
+            original.propagate();
+            optimized.propagate();
+            assertEquals(original.readPrimaryOutputs(), optimized.readPrimaryOutputs(), "round " + r);
+        }
+    }
+
+    @Test
+    void tiedCarryIn_foldsFirstAdderToHalfAdder() {
+        Circuit c = adder(8);
+        Map<String, Boolean> tied = Map.of("C0", false);
+        Circuit opt = new Optimizer().optimize(c, tied);
+
+        // FA0 loses XOR2, AND2 and OR (sum = A^B, cout = A&B); bits 1..7 keep all 5 gates
+        assertEquals(8 * 5 - 3, opt.getGates().size());
+        assertFalse(opt.getPrimaryInputBindings().containsKey("C0"));
+        // Carry-ins of bits 1..7 are overridden by wires, so they vanish as inputs
+        assertEquals(16, opt.getPrimaryInputBindings().size());
+        assertEquivalent(c, opt, tied, 200);
+    }
+
+    @Test
+    void doubleInversions_andDeadLogic_areRemoved() {
+        Circuit c = new Circuit();
+        NotGate n1 = new NotGate("N1"), n2 = new NotGate("N2");
+        AndGate and = new AndGate("AND");
+        AndGate unused = new AndGate("UNUSED");
+        for (Gate g : new Gate[] {n1, n2, and, unused}) c.addGate(g);
+        c.connectPrimaryInput("X", n1, 0);
+        c.addWire(new Wire(n1, 0, n2, 0));
+        c.addWire(new Wire(n2, 0, and, 0));
+        c.connectPrimaryInput("Y", and, 1);
+        c.addWire(new Wire(and, 0, unused, 0));
+        c.connectPrimaryInput("X", unused, 1);
+        c.addPrimaryOutput(and);
+
+        Circuit opt = new Optimizer().optimize(c);
+        assertEquals(1, opt.getGates().size());
+        assertSame(and, opt.getGates().get(0), "unchanged gates are shared");
+        assertEquivalent(c, opt, Map.of(), 20);
+
+        Circuit keepDead = new Optimizer(true, true, false).optimize(c);
+        assertEquals(2, keepDead.getGates().size());
+        Circuit keepNots = new Optimizer(true, false, true).optimize(c);
+        assertEquals(3, keepNots.getGates().size());
+        assertEquivalent(c, keepNots, Map.of(), 20);
+    }
+
+    @Test
+    void constantAndForwardedOutputs_getDrivers() {
+        Circuit c = new Circuit();
+        AndGate zero = new AndGate("ZERO");          // pin 1 unconnected: always 0
+        NorGate one = new NorGate("ONE", 2);         // NOR(ZERO, ZERO)
+        XorGate inv = new XorGate("INV");            // X ^ 1 = NOT X
+        OrGate pass = new OrGate("PASS", 3);         // X | 0 | 0 = X
+        for (Gate g : new Gate[] {zero, one, inv, pass}) c.addGate(g);
+        c.connectPrimaryInput("X", zero, 0);
+        c.addWire(new Wire(zero, 0, one, 0));
+        c.addWire(new Wire(zero, 0, one, 1));
+        c.connectPrimaryInput("X", inv, 0);
+        c.addWire(new Wire(one, 0, inv, 1));
+        c.connectPrimaryInput("X", pass, 0);
+        c.addWire(new Wire(zero, 0, pass, 1));
+        for (Gate g : new Gate[] {zero, one, inv, pass}) c.addPrimaryOutput(g);
+
+        Circuit opt = new Optimizer().optimize(c);
+        // constant 0, constant 1, one NOT, one BUF
+        assertEquals(4, opt.getGates().size());
+        assertEquivalent(c, opt, Map.of(), 4);
+        assertInstanceOf(NotGate.class, opt.getPrimaryOutputs().get(2));
+        assertInstanceOf(BufGate.class, opt.getPrimaryOutputs().get(3));
+    }
+
+    @Test
+    void complementaryAndDuplicateInputs_fold() {
+        Circuit c = new Circuit();
+        NotGate nx = new NotGate("NX");
+        AndGate contradiction = new AndGate("C", 3);   // X & ~X & Y = 0
+        XorGate cancel = new XorGate("XX", 3);          // X ^ X ^ Y = Y
+        for (Gate g : new Gate[] {nx, contradiction, cancel}) c.addGate(g);
+        c.connectPrimaryInput("X", nx, 0);
+        c.connectPrimaryInput("X", contradiction, 0);
+        c.addWire(new Wire(nx, 0, contradiction, 1));
+        c.connectPrimaryInput("Y", contradiction, 2);
+        c.connectPrimaryInput("X", cancel, 0);
+        c.connectPrimaryInput("X", cancel, 1);
+        c.connectPrimaryInput("Y", cancel, 2);
+        c.addPrimaryOutput(contradiction);
+        c.addPrimaryOutput(cancel);
+
+        Circuit opt = new Optimizer().optimize(c);
+        assertEquals(2, opt.getGates().size());   // constant 0 and a buffer of Y
+        assertEquivalent(c, opt, Map.of(), 8);
+    }
+
+    @Test
+    void sequentialGates_areKeptAndClockTheSame() {
+        Circuit c = new Circuit();
+        DFlipFlop q = new DFlipFlop("Q");
+        XorGate t = new XorGate("T");
+        NotGate n1 = new NotGate("N1"), n2 = new NotGate("N2");
+        for (Gate g : new Gate[] {q, t, n1, n2}) c.addGate(g);
+        c.addWire(new Wire(q, 0, t, 0));
+        c.connectPrimaryInput("EN", t, 1);
+        c.addWire(new Wire(t, 0, n1, 0));
+        c.addWire(new Wire(n1, 0, n2, 0));
+        c.addWire(new Wire(n2, 0, q, 0));
+        c.addPrimaryOutput(q);
+
+        Circuit opt = new Optimizer().optimize(c);
+        assertEquals(2, opt.getGates().size());
+        c.setPrimaryInput("EN", true);
+        opt.setPrimaryInput("EN", true);
+        for (int cycle = 0; cycle < 5; cycle++) {
+            c.clock();
+            opt.clock();
+            assertEquals(c.readPrimaryOutputs(), opt.readPrimaryOutputs(), "cycle " + cycle);
+        }
+    }
+
+    @Test
+    void foldingLookupGates_leavesOriginalCircuitUntouched() {
+        Circuit c = new Circuit();
+        HalfAdder ha = new HalfAdder("HA");   // no native rewrite: folded by evaluation
+        c.addGate(ha);
+        c.connectPrimaryInput("X", ha, 0);
+        c.connectPrimaryInput("Y", ha, 1);
+        c.addPrimaryOutput(ha);
+        c.setPrimaryInput("X", false);
+        c.setPrimaryInput("Y", true);
+        c.propagate();
+        List<Boolean> before = c.readPrimaryOutputs();
+        long pins = ha.getInputBits(), outs = ha.getOutputBits();
+
+        Circuit opt = new Optimizer().optimize(c, Map.of("X", true, "Y", true));
+        assertEquals(before, c.readPrimaryOutputs());
+        assertEquals(pins, ha.getInputBits());
+        assertEquals(outs, ha.getOutputBits());
+
+        opt.propagate();
+        assertEquals(List.of(false), opt.readPrimaryOutputs(), "1 + 1 has sum 0");
+    }
+
+    @Test
+    void disabledOptimizer_returnsInput_andRejectsUnknownTies() {
+        Circuit c = adder(2);
+        assertSame(c, new Optimizer(false, false, false).optimize(c));
+        assertThrows(IllegalArgumentException.class, () -> new Optimizer().optimize(c, Map.of("NOPE", true)));
+    }
+}
@@ -0,0 +1,100 @@
+package sim.core;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import sim.core.composite.FullAdder;
+import sim.core.composite.Mux4;
+
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Checks that steady-state {@link Circuit#propagate()} and output readback allocate nothing, using the
+ * per-thread allocation counter of HotSpot's ThreadMXBean.
+ */
+public class PropagateAllocationTest {
+
+    private static Circuit mixedCircuit() {
+        Circuit c = new Circuit();
+        AndGate and = new AndGate("AND");
+        XorGate xor = new XorGate("XOR");
+        NotGate not = new NotGate("NOT");
+        FullAdder fa = new FullAdder("FA");
+        Mux4 mux = new Mux4("MUX");
+        OrGate or = new OrGate("OR");
+        for (Gate g : new Gate[]{and, xor, not, fa, mux, or}) c.addGate(g);
+
+        c.connectPrimaryInput("A", and, 0);
+        c.connectPrimaryInput("B", and, 1);
+        c.connectPrimaryInput("A", xor, 0);
+        c.connectPrimaryInput("C", xor, 1);
+        c.addWire(new Wire(and, 0, not, 0));
+        c.addWire(new Wire(not, 0, fa, 0));
+        c.addWire(new Wire(xor, 0, fa, 1));
+        c.connectPrimaryInput("C", fa, 2);
+        c.addWire(new Wire(fa, 0, mux, 0));
+        c.addWire(new Wire(fa, 1, mux, 1));
+        for (int p = 2; p < 6; p++) c.connectPrimaryInput("D" + p, mux, p);
+        c.addWire(new Wire(mux, 0, or, 0));
+        c.connectPrimaryInput("B", or, 1);
+        c.addPrimaryOutput(or);
+        return c;
+    }
+
+    @Test
+    void steadyStatePropagate_allocatesNothing() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled(),
+                   "thread allocation counter not available");
+
+        Circuit c = mixedCircuit();
+        String[] names = {"A", "B", "C", "D2", "D3", "D4", "D5"};
+        for (int i = 0; i < 20_000; i++) {
+            c.setPrimaryInput(names[i % names.length], (i & 1) == 0);
+            c.propagate();
+        }
+
+        // Warm up the measured body itself, so its JIT compilation is not counted below
+        boolean[] flags = new boolean[1];
+        long sink = 0;
+        for (int round = 0; round < 20; round++) {
+            sink += steadyState(c, flags);
+        }
+
+        for (int round = 0; round < 5; round++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            sink += steadyState(c, flags);
+            long after = threads.getCurrentThreadAllocatedBytes();
+            // Reading the counter itself allocates nothing, so any difference comes from the loop
+            assertEquals(0, after - before, "bytes allocated by 100k propagate() + readback calls, round " + round);
+        }
+        assertTrue(sink >= 0);
+    }
+
+    /** The measured body: 100k propagate() + readback calls. */
+    private static long steadyState(Circuit c, boolean[] flags) {
+        long sink = 0;
+        for (int i = 0; i < 100_000; i++) {
+            c.propagate();
+            sink += c.readPrimaryOutputBits();
+            c.readPrimaryOutputs(flags);
+        }
+        return sink;
+    }
+
+    @Test
+    void packedPins_roundTrip() {
+        Mux4 mux = new Mux4("M");
+        mux.setInputBits(0b1111_1111_10L);   // bits above pin 5 are dropped
+        assertEquals(0b11_1110L, mux.getInputBits());
+        mux.setInput(0, true);
+        assertTrue((mux.getInputBits() & 1L) != 0);
+        assertThrows(IllegalArgumentException.class, () -> new Gate("BIG", Gate.MAX_PINS + 1, 1) {
+            @Override
+            public void evaluate() { }
+        });
+    }
+}
@@ -0,0 +1,69 @@
+package sim.core;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SequentialGateTest {
+
+    @Test
+    void dFlipFlop_changesOnlyOnClock() {
+        DFlipFlop ff = new DFlipFlop("FF");
+        ff.setInput(0, true);
+        ff.evaluate();
+        assertFalse(ff.getOutput(0), "evaluate() must not sample D");
+        ff.clock();
+        assertTrue(ff.getOutput(0));
+        ff.setInput(0, false);
+        ff.evaluate();
+        assertTrue(ff.getOutput(0));
+    }
+
+    @Test
+    void enabledFlipFlop_resetBeatsEnable() {
+        EnabledDFlipFlop ff = new EnabledDFlipFlop("FF");
+        assertEquals(1, ff.getEnablePin());
+        assertEquals(2, ff.getResetPin());
+        ff.setInputBits(0b001);   // D=1, EN=0: hold
+        ff.clock();
+        assertEquals(0, ff.getState());
+        ff.setInputBits(0b011);   // EN=1: load
+        ff.clock();
+        assertEquals(1, ff.getState());
+        ff.setInputBits(0b111);   // RST=1 wins over EN
+        ff.clock();
+        assertEquals(0, ff.getState());
+    }
+
+    @Test
+    void register_layoutAndWidthLimits() {
+        Register r = new Register("R", 8);
+        assertEquals(10, r.getNumInputs());
+        assertEquals(8, r.getNumOutputs());
+        r.setInputBits(0xA5 | 1L << 8);
+        r.clock();
+        assertEquals(0xA5, r.getOutputBits());
+        r.setState(0x1FF);
+        assertEquals(0xFF, r.getState());
+        assertThrows(IllegalArgumentException.class, () -> new Register("BIG", Register.MAX_WIDTH + 1));
+        assertThrows(IllegalArgumentException.class, () -> new Register("EMPTY", 0));
+    }
+
+    @Test
+    void feedbackThroughFlipFlop_isNotACycle() {
+        // Toggle flip-flop: Q -> NOT -> D
+        Circuit c = new Circuit();
+        DFlipFlop ff = new DFlipFlop("FF");
+        NotGate not = new NotGate("N");
+        c.addGate(ff);
+        c.addGate(not);
+        c.addWire(new Wire(ff, 0, not, 0));
+        c.addWire(new Wire(not, 0, ff, 0));
+        c.addPrimaryOutput(ff);
+        assertFalse(c.hasCycle());
+
+        for (int cycle = 1; cycle <= 4; cycle++) {
+            c.clock();
+            assertEquals(cycle % 2 == 1, c.get(0), "cycle " + cycle);
+        }
+    }
+}
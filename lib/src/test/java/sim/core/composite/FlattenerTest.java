@@ -0,0 +1,149 @@
+package sim.core.composite;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import sim.core.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class FlattenerTest {
+
+    /** {@code bits}-bit ripple-carry adder of FullAdder composites; outputs S0.., then the carry out. */
+    private static Circuit adder(int bits) {
+        Circuit c = new Circuit();
+        Gate carry = null;
+        for (int i = 0; i < bits; i++) {
+            FullAdder fa = new FullAdder("FA" + i);
+            c.addGate(fa);
+            c.connectPrimaryInput("A" + i, fa, 0);
+            c.connectPrimaryInput("B" + i, fa, 1);
+            if (carry == null) c.connectPrimaryInput("CIN", fa, 2);
+            else c.addWire(new Wire(carry, 1, fa, 2));
+            c.addPrimaryOutput(fa);
+            carry = fa;
+        }
+        OrGate cout = new OrGate("COUT");   // buffers Cout (pin 1) so it can be a primary output
+        c.addGate(cout);
+        c.addWire(new Wire(carry, 1, cout, 0));
+        c.addWire(new Wire(carry, 1, cout, 1));
+        c.addPrimaryOutput(cout);
+        return c;
+    }
+
+    @Test
+    void adder_flattensToPrimitivesAndMatches() {
+        Circuit c = adder(8);
+        FlatCircuit flat = Flattener.flatten(c);
+        Circuit f = flat.getCircuit();
+
+        assertEquals(8 * 7 + 1, f.getGates().size());
+        for (Gate g : f.getGates()) assertFalse(g instanceof Composite, g.getId());
+        assertEquals(new ArrayList<>(c.getPrimaryInputBindings().keySet()),
+                     new ArrayList<>(f.getPrimaryInputBindings().keySet()));
+
+        Random rnd = new Random(18);
+        for (int round = 0; round < 200; round++) {
+            for (String name : c.getPrimaryInputBindings().keySet()) {
+                boolean v = rnd.nextBoolean();
+                c.setPrimaryInput(name, v);
+                f.setPrimaryInput(name, v);
+            }
+            c.propagate();
+            f.propagate();
+            assertEquals(c.readPrimaryOutputs(), f.readPrimaryOutputs());
+        }
+
+        Gate sum3 = flat.getGate("FA3/FA3_XOR2");
+        assertInstanceOf(XorGate.class, sum3);
+        assertEquals("FA3/FA3_XOR2", flat.getPath(sum3));
+        assertSame(c.getGates().get(8), flat.getGate("COUT"), "primitives are shared");
+    }
+
+    @Test
+    void nestedMux4_expandsRecursively() {
+        Circuit c = new Circuit();
+        Mux4 m = new Mux4("M");
+        c.addGate(m);
+        List<String> names = List.of("S0", "S1", "D0", "D1", "D2", "D3");
+        for (int i = 0; i < 6; i++) c.connectPrimaryInput(names.get(i), m, i);
+        c.addPrimaryOutput(m);
+
+        FlatCircuit flat = Flattener.flatten(c);
+        Circuit f = flat.getCircuit();
+        assertEquals(12, f.getGates().size());
+        assertInstanceOf(AndGate.class, flat.getGate("M/M_MUX_LOWER/M_MUX_LOWER_AND1"));
+        assertInstanceOf(OrGate.class, flat.getGate("M/M_MUX_FINAL/M_MUX_FINAL_OR"));
+
+        for (int v = 0; v < 64; v++) {
+            for (int i = 0; i < 6; i++) {
+                c.setPrimaryInput(names.get(i), ((v >> i) & 1) != 0);
+                f.setPrimaryInput(names.get(i), ((v >> i) & 1) != 0);
+            }
+            c.propagate();
+            f.propagate();
+            assertEquals(c.readPrimaryOutputs(), f.readPrimaryOutputs(), "inputs " + v);
+        }
+    }
+
+    @Test
+    void halfAdderOutputs_rewireConsumers() {
+        Circuit c = new Circuit();
+        HalfAdder ha = new HalfAdder("HA");
+        NotGate n = new NotGate("N");
+        c.addGate(n);
+        c.addGate(ha);
+        c.connectPrimaryInput("A", ha, 0);
+        c.connectPrimaryInput("B", ha, 1);
+        c.addWire(new Wire(ha, 1, n, 0));   // NOT CARRY
+        c.addPrimaryOutput(ha);
+        c.addPrimaryOutput(n);
+
+        Circuit f = Flattener.flatten(c).getCircuit();
+        for (int v = 0; v < 4; v++) {
+            f.setPrimaryInput("A", (v & 1) != 0);
+            f.setPrimaryInput("B", (v & 2) != 0);
+            f.propagate();
+            assertEquals(List.of(v == 1 || v == 2, v != 3), f.readPrimaryOutputs());
+        }
+    }
+
+    /** A composite whose output is its input, so it has no gate to serve as a primary output. */
+    private static final class PassThrough extends Gate implements Composite {
+        PassThrough(String id) { super(id, 1, 1); }
+        @Override public void evaluate() { outputBits = inputBits; }
+        @Override public void expand(Expansion x) { x.output(0, x.input(0)); }
+    }
+
+    /** A composite that forgets to drive its output. */
+    private static final class Broken extends Gate implements Composite {
+        Broken(String id) { super(id, 1, 1); }
+        @Override public void evaluate() { }
+        @Override public void expand(Expansion x) { }
+    }
+
+    @Test
+    void passThroughs_areFollowed_andBadOutputsRejected() {
+        Circuit c = new Circuit();
+        PassThrough p = new PassThrough("P");
+        NotGate n = new NotGate("N");
+        c.addGate(p);
+        c.addGate(n);
+        c.connectPrimaryInput("A", p, 0);
+        c.addWire(new Wire(p, 0, n, 0));
+        c.addPrimaryOutput(n);
+        Circuit f = Flattener.flatten(c).getCircuit();
+        f.setPrimaryInput("A", true);
+        f.propagate();
+        assertFalse(f.readPrimaryOutputs().get(0));
+
+        c.addPrimaryOutput(p);
+        assertThrows(IllegalArgumentException.class, () -> Flattener.flatten(c));
+
+        Circuit b = new Circuit();
+        b.addGate(new Broken("B"));
+        assertThrows(IllegalStateException.class, () -> Flattener.flatten(b));
+    }
+}
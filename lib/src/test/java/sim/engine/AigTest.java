@@ -0,0 +1,140 @@
+package sim.engine;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import sim.core.*;
+import sim.core.composite.FullAdder;
+import sim.core.composite.HalfAdder;
+import sim.core.composite.Mux4;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class AigTest {
+
+    /** Drives the same random words into both engines and compares every output word. */
+    private static void assertMatchesCompiled(Circuit c, int rounds) {
+        CompiledCircuit cc = CompiledCircuit.compile(c);
+        Aig aig = Aig.of(c);
+        assertEquals(cc.getNumInputs(), aig.getNumInputs());
+        Random rnd = new Random(22);
+        for (int r = 0; r < rounds; r++) {
+            for (int i = 0; i < cc.getNumInputs(); i++) {
+                long w = rnd.nextLong();
+                cc.setInputWord(i, w);
+                aig.setInputWord(aig.inputIndex(cc.getInputName(i)), w);
+            }
+            cc.propagate();
+            aig.propagate();
+            for (int o = 0; o < cc.getNumOutputs(); o++) {
+                assertEquals(cc.getOutputWord(o), aig.getOutputWord(o), "round " + r + " output " + o);
+            }
+        }
+    }
+
+    @Test
+    void rippleAdder_matchesCompiled_withSharedCarryAnds() {
+        Circuit c = CompiledCircuitTest.rippleAdder(16);
+        assertMatchesCompiled(c, 20);
+        // Two XORs of 3 ANDs each, whose a & b nodes double as the two carry ANDs, plus the OR
+        assertEquals(7 * 16, Aig.of(c).getNumAnds());
+    }
+
+    @Test
+    void lookupComposites_matchCompiled() {
+        Circuit c = new Circuit();
+        FullAdder[] fa = new FullAdder[8];
+        for (int i = 0; i < fa.length; i++) {
+            fa[i] = new FullAdder("FA" + i);
+            c.addGate(fa[i]);
+            c.connectPrimaryInput("A" + i, fa[i], 0);
+            c.connectPrimaryInput("B" + i, fa[i], 1);
+            if (i == 0) c.connectPrimaryInput("CIN", fa[i], 2);
+            else c.addWire(new Wire(fa[i - 1], 1, fa[i], 2));
+            c.addPrimaryOutput(fa[i]);
+        }
+        Mux4 mux = new Mux4("MUX");
+        c.addGate(mux);
+        c.connectPrimaryInput("S0", mux, 0);
+        c.connectPrimaryInput("S1", mux, 1);
+        for (int d = 0; d < 4; d++) c.connectPrimaryInput("A" + d, mux, 2 + d);
+        c.addPrimaryOutput(mux);
+        assertMatchesCompiled(c, 20);
+    }
+
+    @Test
+    void duplicateLogic_isHashedToOneCopy() {
+        Circuit c = new Circuit();
+        HalfAdder h1 = new HalfAdder("H1"), h2 = new HalfAdder("H2");
+        XorGate xor = new XorGate("XOR");
+        AndGate and = new AndGate("AND");
+        for (Gate g : new Gate[] {h1, h2, xor, and}) c.addGate(g);
+        c.connectPrimaryInput("A", h1, 0);
+        c.connectPrimaryInput("B", h1, 1);
+        c.connectPrimaryInput("B", h2, 0);   // operands swapped
+        c.connectPrimaryInput("A", h2, 1);
+        c.connectPrimaryInput("A", xor, 0);
+        c.connectPrimaryInput("B", xor, 1);
+        c.connectPrimaryInput("B", and, 0);
+        c.connectPrimaryInput("A", and, 1);
+        for (Gate g : new Gate[] {h1, h2, xor, and}) c.addPrimaryOutput(g);
+
+        Aig aig = Aig.of(c);
+        // a & b, ~a & ~b and the XOR over them; the carries read a & b
+        assertEquals(3, aig.getNumAnds());
+        assertEquals(aig.getOutputLiteral(0), aig.getOutputLiteral(1));
+        assertEquals(aig.getOutputLiteral(0), aig.getOutputLiteral(2));
+        // Variables 1 and 2 are A and B, so the first node (variable 3) is a & b
+        assertArrayEquals(new int[] {2, 4}, Arrays.copyOf(aig.getAnds(), 2));
+        assertEquals(3 << 1, aig.getOutputLiteral(3));
+        assertMatchesCompiled(c, 4);
+    }
+
+    @Test
+    void inversionsAndContradictions_fold() {
+        Circuit c = new Circuit();
+        NotGate n1 = new NotGate("N1"), n2 = new NotGate("N2");
+        AndGate never = new AndGate("NEVER");
+        NandGate always = new NandGate("ALWAYS");
+        for (Gate g : new Gate[] {n1, n2, never, always}) c.addGate(g);
+        c.connectPrimaryInput("X", n1, 0);
+        c.addWire(new Wire(n1, 0, n2, 0));
+        c.connectPrimaryInput("X", never, 0);
+        c.addWire(new Wire(n1, 0, never, 1));
+        c.addWire(new Wire(never, 0, always, 0));
+        c.addWire(new Wire(n2, 0, always, 1));
+        c.addPrimaryOutput(n2);
+        c.addPrimaryOutput(never);
+        c.addPrimaryOutput(always);
+
+        Aig aig = Aig.of(c);
+        assertEquals(0, aig.getNumAnds());
+        assertEquals((aig.inputIndex("X") + 1) << 1, aig.getOutputLiteral(0));
+        assertEquals(0, aig.getOutputLiteral(1));
+        assertEquals(1, aig.getOutputLiteral(2));
+        aig.setPrimaryInput("X", true);
+        aig.propagate();
+        assertTrue(aig.getOutput(0));
+        assertFalse(aig.getOutput(1));
+        assertTrue(aig.getOutput(2));
+    }
+
+    @Test
+    void wideGates_matchCompiled() {
+        assertMatchesCompiled(CompiledCircuitTest.wideGates(), 10);
+    }
+
+    @Test
+    void sequentialGatesAndUnknownInputs_areRejected() {
+        Circuit c = new Circuit();
+        DFlipFlop ff = new DFlipFlop("FF");
+        c.addGate(ff);
+        c.connectPrimaryInput("D", ff, 0);
+        c.addPrimaryOutput(ff);
+        assertThrows(IllegalArgumentException.class, () -> Aig.of(c));
+
+        Aig aig = Aig.of(CompiledCircuitTest.rippleAdder(1));
+        assertThrows(IllegalArgumentException.class, () -> aig.inputIndex("NOPE"));
+    }
+}
@@ -0,0 +1,90 @@
+package sim.engine;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import sim.core.*;
+import sim.core.composite.FullAdder;
+import sim.core.composite.HalfAdder;
+import sim.core.composite.Mux4;
+
+import java.util.Random;
+
+public class CircuitCompilerTest {
+
+    private static void assertMatchesCompiled(Circuit c, int rounds) {
+        CircuitCompiler.Evaluator ev = CircuitCompiler.compile(c);
+        CompiledCircuit ref = CompiledCircuit.compile(c);
+        long[] in = new long[ref.getNumInputs()];
+        long[] out = new long[ref.getNumOutputs()];
+        Random rnd = new Random(5);
+        for (int r = 0; r < rounds; r++) {
+            for (int i = 0; i < in.length; i++) {
+                in[i] = rnd.nextLong();
+                ref.setInputWord(i, in[i]);
+            }
+            ev.evaluate(in, out);
+            ref.propagate();
+            for (int o = 0; o < out.length; o++) {
+                assertEquals(ref.getOutputWord(o), out[o], "output " + o + " round " + r);
+            }
+        }
+    }
+
+    @Test
+    void rippleAdder_matchesCompiled() {
+        assertMatchesCompiled(CompiledCircuitTest.rippleAdder(16), 20);
+    }
+
+    @Test
+    void compositeClasses_areInlined() {
+        Circuit c = new Circuit();
+        FullAdder fa = new FullAdder("FA");
+        HalfAdder ha = new HalfAdder("HA");
+        Mux4 mux = new Mux4("MUX");
+        c.addGate(fa);
+        c.addGate(ha);
+        c.addGate(mux);
+        for (int p = 0; p < 3; p++) c.connectPrimaryInput("F" + p, fa, p);
+        c.addWire(new Wire(fa, 0, ha, 0));
+        c.addWire(new Wire(fa, 1, ha, 1));
+        for (int p = 0; p < 6; p++) c.connectPrimaryInput("M" + p, mux, p);
+        c.addPrimaryOutput(fa);
+        c.addPrimaryOutput(ha);
+        c.addPrimaryOutput(mux);
+        assertMatchesCompiled(c, 10);
+    }
+
+    @Test
+    void manyNets_useWideLocals() {
+        // More than 127 nets pushes local slots past 255
+        Circuit c = new Circuit();
+        Gate prev = new NotGate("N0");
+        c.addGate(prev);
+        c.connectPrimaryInput("IN", prev, 0);
+        for (int i = 1; i < 400; i++) {
+            Gate g = (i % 2 == 0) ? new NotGate("N" + i) : new AndGate("A" + i);
+            c.addGate(g);
+            c.addWire(new Wire(prev, 0, g, 0));
+            if (g instanceof AndGate) c.connectPrimaryInput("EN" + (i % 40), g, 1);
+            prev = g;
+        }
+        c.addPrimaryOutput(prev);
+        assertMatchesCompiled(c, 10);
+    }
+
+    @Test
+    void wideGates_matchCompiled() {
+        assertMatchesCompiled(CompiledCircuitTest.wideGates(), 20);
+    }
+
+    @Test
+    void unsupportedGate_throws() {
+        Circuit c = new Circuit();
+        c.addGate(new Gate("CUSTOM", 1, 1) {
+            @Override
+            public void evaluate() { }
+        });
+        assertThrows(IllegalArgumentException.class, () -> CircuitCompiler.compile(c));
+    }
+}
@@ -0,0 +1,197 @@
+package sim.engine;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import sim.core.*;
+import sim.core.composite.CompositeGates;
+import sim.core.composite.HalfAdder;
+import sim.core.composite.Mux4;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class CompiledCircuitTest {
+
+    /** Ripple-carry adder of {@code bits} full adders; inputs A0.., B0.., C0; outputs S0.., Cout. */
+    static Circuit rippleAdder(int bits) {
+        Circuit c = new Circuit();
+        Gate carry = null;
+        for (int i = 0; i < bits; i++) {
+            var fa = CompositeGates.buildFullAdder(c, "FA" + i, "A" + i, "B" + i, "C" + i, false);
+            if (carry != null) {
+                c.addWire(new Wire(carry, 0, fa.sum, 1));
+                c.addWire(new Wire(carry, 0, fa.and2, 1));
+            }
+            c.addPrimaryOutput(fa.sum);
+            carry = fa.cout;
+        }
+        c.addPrimaryOutput(carry);
+        return c;
+    }
+
+    @Test
+    void rippleAdder_matchesCircuitPropagate() {
+        Circuit c = rippleAdder(4);
+        CompiledCircuit cc = CompiledCircuit.compile(c);
+        boolean[] out = new boolean[cc.getNumOutputs()];
+
+        for (int a = 0; a < 16; a++) {
+            for (int b = 0; b < 16; b++) {
+                for (int i = 0; i < 4; i++) {
+                    boolean ai = ((a >> i) & 1) != 0, bi = ((b >> i) & 1) != 0;
+                    c.setPrimaryInput("A" + i, ai);
+                    c.setPrimaryInput("B" + i, bi);
+                    cc.setPrimaryInput("A" + i, ai);
+                    cc.setPrimaryInput("B" + i, bi);
+                }
+                c.propagate();
+                cc.propagate();
+                cc.readPrimaryOutputs(out);
+
+                List<Boolean> expected = c.readPrimaryOutputs();
+                int sum = 0;
+                for (int i = 0; i < out.length; i++) {
+                    assertEquals(expected.get(i), out[i], "output " + i + " for a=" + a + " b=" + b);
+                    if (out[i]) sum |= 1 << i;
+                }
+                assertEquals(a + b, sum);
+            }
+        }
+    }
+
+    @Test
+    void compositeGate_usesFallback() {
+        Circuit c = new Circuit();
+        Mux4 mux = new Mux4("M");
+        NotGate inv = new NotGate("N");
+        c.addGate(mux);
+        c.addGate(inv);
+        String[] pins = {"S0", "S1", "D0", "D1", "D2", "D3"};
+        for (int p = 0; p < pins.length; p++) c.connectPrimaryInput(pins[p], mux, p);
+        c.addWire(new Wire(mux, 0, inv, 0));
+        c.addPrimaryOutput(inv);
+
+        CompiledCircuit cc = CompiledCircuit.compile(c);
+        for (int row = 0; row < 64; row++) {
+            for (int p = 0; p < pins.length; p++) cc.setPrimaryInput(pins[p], ((row >> p) & 1) != 0);
+            cc.propagate();
+            int sel = row & 3;
+            boolean data = ((row >> (2 + sel)) & 1) != 0;
+            assertEquals(!data, cc.getOutput(0), "row " + row);
+        }
+    }
+
+    @Test
+    void bitParallel_64RandomAdditions() {
+        int bits = 8;
+        CompiledCircuit cc = CompiledCircuit.compile(rippleAdder(bits));
+        Random rnd = new Random(42);
+        int[] a = new int[64], b = new int[64];
+        for (int lane = 0; lane < 64; lane++) {
+            a[lane] = rnd.nextInt(1 << bits);
+            b[lane] = rnd.nextInt(1 << bits);
+        }
+
+        Map<String, Long> words = new HashMap<>();
+        for (int i = 0; i < bits; i++) {
+            long wa = 0, wb = 0;
+            for (int lane = 0; lane < 64; lane++) {
+                wa |= (long) ((a[lane] >> i) & 1) << lane;
+                wb |= (long) ((b[lane] >> i) & 1) << lane;
+            }
+            words.put("A" + i, wa);
+            words.put("B" + i, wb);
+        }
+        long[] out = cc.propagateWords(words);
+
+        assertEquals(bits + 1, out.length);
+        for (int lane = 0; lane < 64; lane++) {
+            int sum = 0;
+            for (int i = 0; i < out.length; i++) sum |= (int) ((out[i] >>> lane) & 1) << i;
+            assertEquals(a[lane] + b[lane], sum, "lane " + lane);
+        }
+    }
+
+    @Test
+    void twoWiresFromOneSource_lastAddedWins() {
+        Circuit c = new Circuit();
+        HalfAdder ha = new HalfAdder("HA");
+        NotGate not = new NotGate("N");
+        c.addGate(ha);
+        c.addGate(not);
+        c.connectPrimaryInput("A", ha, 0);
+        c.connectPrimaryInput("B", ha, 1);
+        c.addWire(new Wire(ha, 0, not, 0));   // sum
+        c.addWire(new Wire(ha, 1, not, 0));   // carry, added later, drives the pin
+        c.addPrimaryOutput(not);
+        c.setPrimaryInput("A", true);
+        c.propagate();
+
+        CompiledCircuit cc = CompiledCircuit.compile(c);
+        cc.setPrimaryInput("A", true);
+        cc.propagate();
+        assertTrue(c.get(0));
+        assertEquals(c.get(0), cc.getOutput(0));
+    }
+
+    @Test
+    void unknownInput_throws() {
+        CompiledCircuit cc = CompiledCircuit.compile(rippleAdder(1));
+        assertThrows(IllegalArgumentException.class, () -> cc.inputIndex("nope"));
+        assertThrows(IllegalArgumentException.class, () -> cc.getOutput(2));
+    }
+
+    /**
+     * One gate of every reduction kind and width class: a 32-input parity, a 10-input NAND,
+     * 3-input AND/OR, a 5-input NOR, a 2-input XNOR, a 1-input XOR and a buffer, all reading
+     * primary inputs I0..I31.
+     */
+    static Circuit wideGates() {
+        Circuit c = new Circuit();
+        Gate[] gates = {
+            new XorGate("PARITY", 32), new NandGate("NAND10", 10), new AndGate("AND3", 3),
+            new OrGate("OR3", 3), new NorGate("NOR5", 5), new XnorGate("XNOR2"),
+            new XorGate("XOR1", 1), new BufGate("BUF")
+        };
+        int next = 0;
+        for (Gate g : gates) {
+            c.addGate(g);
+            for (int p = 0; p < g.getNumInputs(); p++) c.connectPrimaryInput("I" + (next++ % 32), g, p);
+            c.addPrimaryOutput(g);
+        }
+        return c;
+    }
+
+    @Test
+    void wideGates_matchCircuitPropagate() {
+        Circuit c = wideGates();
+        CompiledCircuit cc = CompiledCircuit.compile(c);
+        Random rnd = new Random(20);
+        long[] words = new long[cc.getNumInputs()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = rnd.nextLong();
+            cc.setInputWord(i, words[i]);
+        }
+        cc.propagate();
+        for (int lane = 0; lane < 64; lane++) {
+            for (int i = 0; i < words.length; i++) c.setPrimaryInput(cc.getInputName(i), ((words[i] >>> lane) & 1) != 0);
+            c.propagate();
+            for (int o = 0; o < cc.getNumOutputs(); o++) {
+                assertEquals(c.readPrimaryOutputs().get(o), ((cc.getOutputWord(o) >>> lane) & 1) != 0,
+                             "output " + o + " lane " + lane);
+            }
+        }
+
+        WideWordSimulator wide = new WideWordSimulator(c, 128);
+        for (int i = 0; i < words.length; i++) wide.setInput(i, new long[] {words[i], ~words[i]});
+        wide.propagate();
+        long[] block = new long[2];
+        for (int o = 0; o < cc.getNumOutputs(); o++) {
+            wide.readOutput(o, block);
+            assertEquals(cc.getOutputWord(o), block[0], "wide output " + o);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package sim.engine;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import sim.core.*;
+
+public class CycleSimulatorTest {
+
+    /**
+     * {@code bits}-bit synchronous up-counter from D flip-flops: bit i toggles when every lower
+     * bit is 1. Primary input "EN" gates the count; outputs are Q0.. in order.
+     */
+    static Circuit counter(int bits) {
+        Circuit c = new Circuit();
+        DFlipFlop[] q = new DFlipFlop[bits];
+        for (int i = 0; i < bits; i++) {
+            q[i] = new DFlipFlop("Q" + i);
+            c.addGate(q[i]);
+            c.addPrimaryOutput(q[i]);
+        }
+        Gate carry = null;   // AND of EN and every lower bit
+        for (int i = 0; i < bits; i++) {
+            AndGate t = new AndGate("T" + i);
+            c.addGate(t);
+            if (carry == null) c.connectPrimaryInput("EN", t, 0);
+            else c.addWire(new Wire(carry, 0, t, 0));
+            c.connectPrimaryInput("EN", t, 1);
+            XorGate x = new XorGate("X" + i);
+            c.addGate(x);
+            c.addWire(new Wire(q[i], 0, x, 0));
+            c.addWire(new Wire(t, 0, x, 1));
+            c.addWire(new Wire(x, 0, q[i], 0));
+            AndGate nextCarry = new AndGate("C" + i);
+            c.addGate(nextCarry);
+            c.addWire(new Wire(t, 0, nextCarry, 0));
+            c.addWire(new Wire(q[i], 0, nextCarry, 1));
+            carry = nextCarry;
+        }
+        return c;
+    }
+
+    private static int read(CycleSimulator sim, int bits) {
+        int v = 0;
+        for (int i = 0; i < bits; i++) if (sim.getOutput(i)) v |= 1 << i;
+        return v;
+    }
+
+    @Test
+    void counter_countsAndMatchesCircuitClock() {
+        Circuit c = counter(5);
+        CycleSimulator sim = new CycleSimulator(c);
+        sim.setPrimaryInput("EN", true);
+        c.setPrimaryInput("EN", true);
+        for (int cycle = 1; cycle <= 40; cycle++) {
+            sim.clock();
+            c.clock();
+            assertEquals(cycle % 32, read(sim, 5), "cycle " + cycle);
+            long ref = 0;
+            for (int i = 0; i < 5; i++) if (c.get(i)) ref |= 1L << i;
+            assertEquals(ref, read(sim, 5));
+        }
+
+        sim.setPrimaryInput("EN", false);
+        sim.run(10);
+        assertEquals(40 % 32, read(sim, 5));
+        assertEquals(50, sim.getCycleCount());
+    }
+
+    @Test
+    void lanesRunIndependently() {
+        CycleSimulator sim = new CycleSimulator(counter(8));
+        sim.setInputWord(sim.inputIndex("EN"), 0xAAAA_AAAA_AAAA_AAAAL);   // odd lanes count
+        sim.run(100);
+        long[] q = new long[8];
+        for (int i = 0; i < 8; i++) q[i] = sim.getOutputWord(i);
+        for (int lane = 0; lane < 64; lane++) {
+            int v = 0;
+            for (int i = 0; i < 8; i++) v |= (int) ((q[i] >>> lane) & 1L) << i;
+            assertEquals((lane & 1) == 1 ? 100 : 0, v, "lane " + lane);
+        }
+    }
+
+    @Test
+    void registerBank_enableResetAndShift() {
+        // Two 4-bit registers in a chain: R0 loads D0..D3, R1 loads R0 on the same edge
+        Circuit c = new Circuit();
+        Register r0 = new Register("R0", 4);
+        Register r1 = new Register("R1", 4);
+        c.addGate(r1);
+        c.addGate(r0);
+        for (int i = 0; i < 4; i++) {
+            c.connectPrimaryInput("D" + i, r0, i);
+            c.addWire(new Wire(r0, i, r1, i));
+        }
+        c.connectPrimaryInput("EN", r0, 4);
+        c.connectPrimaryInput("EN", r1, 4);
+        c.connectPrimaryInput("RST", r0, 5);
+        c.connectPrimaryInput("RST", r1, 5);
+        c.addPrimaryOutput(r1);   // Q0 of R1
+
+        r1.setState(0b0001);
+        CycleSimulator sim = new CycleSimulator(c);
+        assertTrue(sim.getOutput(0), "initial state comes from the gate");
+
+        sim.setPrimaryInput("D0", false);
+        sim.clock();                               // EN low: hold
+        assertTrue(sim.getOutput(0));
+
+        sim.setPrimaryInput("EN", true);
+        sim.setPrimaryInput("D0", true);
+        sim.clock();                               // R1 takes R0's old value (0), R0 takes 1
+        assertFalse(sim.getOutput(0));
+        sim.setPrimaryInput("D0", false);
+        sim.clock();                               // R1 takes 1
+        assertTrue(sim.getOutput(0));
+
+        sim.setPrimaryInput("RST", true);
+        sim.clock();
+        assertFalse(sim.getOutput(0));
+    }
+
+    @Test
+    void combinationalLoop_stillRejected() {
+        Circuit c = new Circuit();
+        NotGate a = new NotGate("A"), b = new NotGate("B");
+        c.addGate(a);
+        c.addGate(b);
+        c.addWire(new Wire(a, 0, b, 0));
+        c.addWire(new Wire(b, 0, a, 0));
+        assertThrows(IllegalStateException.class, () -> new CycleSimulator(c));
+    }
+}
@@ -0,0 +1,80 @@
+package sim.engine;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import sim.core.*;
+
+import java.util.Random;
+
+public class EventDrivenSimulatorTest {
+
+    @Test
+    void randomToggles_matchFullPropagate() {
+        Circuit c = CompiledCircuitTest.rippleAdder(8);
+        EventDrivenSimulator ev = new EventDrivenSimulator(c);
+        CompiledCircuit ref = CompiledCircuit.compile(c);
+        Random rnd = new Random(3);
+
+        ev.propagate();
+        for (int step = 0; step < 500; step++) {
+            int in = rnd.nextInt(ref.getNumInputs());
+            boolean v = rnd.nextBoolean();
+            ev.setInput(in, v);
+            ref.setInput(in, v);
+            ev.propagate();
+            ref.propagate();
+            for (int o = 0; o < ref.getNumOutputs(); o++) {
+                assertEquals(ref.getOutput(o), ev.getOutput(o), "output " + o + " at step " + step);
+            }
+        }
+    }
+
+    @Test
+    void onlyChangedConeIsEvaluated() {
+        // 100 independent IN_i -> NOT -> NOT chains
+        Circuit c = new Circuit();
+        for (int i = 0; i < 100; i++) {
+            NotGate a = new NotGate("A" + i), b = new NotGate("B" + i);
+            c.addGate(a);
+            c.addGate(b);
+            c.addWire(new Wire(a, 0, b, 0));
+            c.connectPrimaryInput("IN" + i, a, 0);
+            c.addPrimaryOutput(b);
+        }
+        EventDrivenSimulator ev = new EventDrivenSimulator(c);
+        ev.propagate();
+        assertEquals(200, ev.getLastEvaluationCount());
+
+        ev.setPrimaryInput("IN42", true);
+        ev.propagate();
+        assertEquals(2, ev.getLastEvaluationCount());
+        assertTrue(ev.getOutput(42));
+        assertFalse(ev.getOutput(41));
+
+        // Re-driving the same value is not an event
+        ev.setPrimaryInput("IN42", true);
+        ev.propagate();
+        assertEquals(0, ev.getLastEvaluationCount());
+    }
+
+    @Test
+    void unchangedOutputStopsPropagation() {
+        // IN -> AND(IN, 0) -> NOT: the AND output never changes, so the NOT is never re-run
+        Circuit c = new Circuit();
+        AndGate and = new AndGate("AND");
+        NotGate not = new NotGate("NOT");
+        c.addGate(and);
+        c.addGate(not);
+        c.connectPrimaryInput("IN", and, 0);
+        c.addWire(new Wire(and, 0, not, 0));
+        c.addPrimaryOutput(not);
+
+        EventDrivenSimulator ev = new EventDrivenSimulator(c);
+        ev.propagate();
+        ev.setPrimaryInput("IN", true);
+        ev.propagate();
+        assertEquals(1, ev.getLastEvaluationCount());
+        assertTrue(ev.getOutput(0));
+    }
+}
@@ -0,0 +1,183 @@
+package sim.engine;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import sim.core.*;
+import sim.core.composite.Mux2;
+import sim.engine.FaultSimulator.Fault;
+import sim.engine.FaultSimulator.Report;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class FaultSimulatorTest {
+
+    private static List<boolean[]> randomPatterns(int count, int inputs, long seed) {
+        Random rnd = new Random(seed);
+        List<boolean[]> patterns = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            boolean[] p = new boolean[inputs];
+            for (int j = 0; j < inputs; j++) p[j] = rnd.nextBoolean();
+            patterns.add(p);
+        }
+        return patterns;
+    }
+
+    /**
+     * Scalar reference: evaluates the circuit gate by gate with one fault forced, or none.
+     * Inputs are given in {@link FaultSimulator#inputIndex(String)} order.
+     */
+    private static List<Boolean> reference(Circuit c, FaultSimulator sim, Fault fault, boolean[] pattern) {
+        Map<Gate, Long> outputs = new IdentityHashMap<>();
+        Map<Gate, long[]> pins = new IdentityHashMap<>();
+        for (Gate g : c.getGates()) pins.put(g, new long[] {0});
+        for (var e : c.getPrimaryInputBindings().entrySet()) {
+            boolean v = pattern[sim.inputIndex(e.getKey())];
+            for (Circuit.InputBinding b : e.getValue()) {
+                if (v) pins.get(b.gate())[0] |= 1L << b.pin();
+            }
+        }
+        for (Gate g : c.topologicalOrder()) {
+            long bits = pins.get(g)[0];
+            for (Wire w : c.getWires()) {
+                if (w.getToGate() != g) continue;
+                boolean v = ((outputs.get(w.getFromGate()) >>> w.getFromPin()) & 1) != 0;
+                bits = v ? bits | 1L << w.getToPin() : bits & ~(1L << w.getToPin());
+            }
+            if (fault != null && !fault.output() && fault.gate() == g) {
+                bits = fault.stuckAt() ? bits | 1L << fault.pin() : bits & ~(1L << fault.pin());
+            }
+            g.setInputBits(bits);
+            g.evaluate();
+            long out = g.getOutputBits();
+            if (fault != null && fault.output() && fault.gate() == g) {
+                out = fault.stuckAt() ? out | 1L << fault.pin() : out & ~(1L << fault.pin());
+            }
+            outputs.put(g, out);
+        }
+        List<Boolean> values = new ArrayList<>();
+        for (Gate g : c.getPrimaryOutputs()) values.add((outputs.get(g) & 1) != 0);
+        return values;
+    }
+
+    private static Circuit adderWithMux() {
+        Circuit c = CompiledCircuitTest.rippleAdder(2);
+        Mux2 mux = new Mux2("MUX");
+        c.addGate(mux);
+        c.connectPrimaryInput("S", mux, 0);
+        c.addWire(new Wire(c.getPrimaryOutputs().get(0), 0, mux, 1));
+        c.connectPrimaryInput("A1", mux, 2);
+        c.addPrimaryOutput(mux);
+        return c;
+    }
+
+    @Test
+    void firstDetectingPatterns_matchSerialReference() {
+        Circuit c = adderWithMux();
+        FaultSimulator sim = new FaultSimulator(c);
+        List<boolean[]> patterns = randomPatterns(100, sim.getNumInputs(), 24);
+        Report report = sim.simulate(patterns);
+
+        List<List<Boolean>> good = new ArrayList<>();
+        for (boolean[] p : patterns) good.add(reference(c, sim, null, p));
+        for (Fault f : sim.getFaults()) {
+            int expected = -1;
+            for (int i = 0; i < patterns.size() && expected < 0; i++) {
+                if (!reference(c, sim, f, patterns.get(i)).equals(good.get(i))) expected = i;
+            }
+            assertEquals(expected, report.getDetectingPattern(f), f.toString());
+        }
+        assertEquals(1.0, report.getCoverage());
+        assertTrue(report.getDetectingPatterns().length < patterns.size());
+    }
+
+    @Test
+    void faultList_coversOutputsAndWireEnds() {
+        Circuit c = CompiledCircuitTest.rippleAdder(3);
+        FaultSimulator sim = new FaultSimulator(c);
+        // Two polarities on every gate output and on every wire-fed input pin
+        assertEquals(2 * (c.getGates().size() + c.getWires().size()), sim.getFaults().size());
+        Fault f = sim.getFaults().get(1);
+        assertTrue(f.output() && f.stuckAt());
+        assertEquals(c.getGates().get(0).getId() + ".out0/SA1", f.toString());
+
+        // Looking a fault up by record finds its index from the gate, pin and value alone
+        Report report = sim.simulate(randomPatterns(40, sim.getNumInputs(), 3));
+        List<Fault> faults = sim.getFaults();
+        for (int i = 0; i < faults.size(); i++) {
+            Fault g = faults.get(i);
+            Fault copy = new Fault(g.gate(), g.output(), g.pin(), g.stuckAt());
+            assertEquals(report.getDetectingPattern(i), report.getDetectingPattern(copy), g.toString());
+        }
+        Gate first = c.getGates().get(0);
+        assertThrows(IllegalArgumentException.class,
+                     () -> report.getDetectingPattern(new Fault(first, true, first.getNumOutputs(), false)));
+        assertThrows(IllegalArgumentException.class,
+                     () -> report.getDetectingPattern(new Fault(new AndGate("STRAY"), true, 0, false)));
+        assertThrows(IllegalArgumentException.class, () -> report.getDetectingPattern(faults.size()));
+    }
+
+    @Test
+    void redundantFault_staysUndetected() {
+        // OUT = X | (X & Y): the AND is absorbed, so its output stuck-at-0 cannot be observed
+        Circuit c = new Circuit();
+        AndGate and = new AndGate("AND");
+        OrGate or = new OrGate("OR");
+        c.addGate(and);
+        c.addGate(or);
+        c.connectPrimaryInput("X", and, 0);
+        c.connectPrimaryInput("Y", and, 1);
+        c.connectPrimaryInput("X", or, 0);
+        c.addWire(new Wire(and, 0, or, 1));
+        c.addPrimaryOutput(or);
+
+        FaultSimulator sim = new FaultSimulator(c);
+        List<boolean[]> all = new ArrayList<>();
+        for (int v = 0; v < 4; v++) all.add(new boolean[] {(v & 1) != 0, (v & 2) != 0});
+        Report report = sim.simulate(all);
+        List<String> undetected = report.getUndetected().stream().map(Fault::toString).toList();
+        assertEquals(List.of("AND.out0/SA0", "OR.in1/SA0"), undetected);
+        assertEquals(report.getFaults().size() - 2, report.getDetectedCount());
+        assertEquals(-1, report.getDetectingPattern(report.getUndetected().get(0)));
+    }
+
+    @Test
+    void shardedGrading_matchesSingleWorker() {
+        Circuit c = CompiledCircuitTest.rippleAdder(64);
+        List<boolean[]> patterns = randomPatterns(200, c.getPrimaryInputBindings().size(), 7);
+        ForkJoinPool one = new ForkJoinPool(1), four = new ForkJoinPool(4);
+        try {
+            FaultSimulator serial = new FaultSimulator(c, one);
+            FaultSimulator sharded = new FaultSimulator(c, four);
+            Report a = serial.simulate(patterns), b = sharded.simulate(patterns);
+            assertEquals(a.getDetectedCount(), b.getDetectedCount());
+            for (int f = 0; f < a.getFaults().size(); f++) {
+                assertEquals(a.getDetectingPattern(f), b.getDetectingPattern(f));
+            }
+            assertTrue(a.getCoverage() > 0.95, "coverage " + a.getCoverage());
+        } finally {
+            one.shutdown();
+            four.shutdown();
+        }
+    }
+
+    @Test
+    void invalidInputs_throw() {
+        Circuit seq = new Circuit();
+        DFlipFlop ff = new DFlipFlop("FF");
+        seq.addGate(ff);
+        seq.connectPrimaryInput("D", ff, 0);
+        seq.addPrimaryOutput(ff);
+        assertThrows(IllegalArgumentException.class, () -> new FaultSimulator(seq));
+
+        FaultSimulator sim = new FaultSimulator(CompiledCircuitTest.rippleAdder(1));
+        assertThrows(IllegalArgumentException.class, () -> sim.simulate(List.of(new boolean[] {true})));
+        Report empty = sim.simulate(List.of());
+        assertEquals(0.0, empty.getCoverage());
+    }
+}
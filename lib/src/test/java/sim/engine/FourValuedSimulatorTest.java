@@ -0,0 +1,238 @@
+package sim.engine;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import sim.core.*;
+import sim.core.composite.FullAdder;
+import sim.core.composite.Mux2;
+import sim.core.composite.Mux4;
+
+import java.util.Random;
+
+import static sim.core.Logic.*;
+
+public class FourValuedSimulatorTest {
+
+    private static Circuit single(Gate g) {
+        Circuit c = new Circuit();
+        c.addGate(g);
+        for (int i = 0; i < g.getNumInputs(); i++) c.connectPrimaryInput("I" + i, g, i);
+        c.addPrimaryOutput(g);
+        return c;
+    }
+
+    private static Logic eval(Gate g, Logic... in) {
+        FourValuedSimulator sim = new FourValuedSimulator(single(g));
+        for (int i = 0; i < in.length; i++) sim.setInput(i, in[i]);
+        return sim.getOutput(0);
+    }
+
+    @Test
+    void primitives_followKleeneLogic() {
+        assertEquals(ZERO, eval(new AndGate("A"), ZERO, X));
+        assertEquals(X, eval(new AndGate("A"), ONE, X));
+        assertEquals(ONE, eval(new AndGate("A"), ONE, ONE));
+        assertEquals(ONE, eval(new OrGate("O"), X, ONE));
+        assertEquals(X, eval(new OrGate("O"), X, ZERO));
+        assertEquals(ZERO, eval(new OrGate("O"), ZERO, ZERO));
+        assertEquals(X, eval(new XorGate("X"), ONE, X));
+        assertEquals(ZERO, eval(new XorGate("X"), ONE, ONE));
+        assertEquals(X, eval(new NotGate("N"), X));
+        assertEquals(ONE, eval(new NotGate("N"), ZERO));
+        // Z reads as X
+        assertEquals(X, eval(new AndGate("A"), ONE, Z));
+        assertEquals(ZERO, eval(new AndGate("A"), Z, ZERO));
+        assertEquals(X, eval(new NotGate("N"), Z));
+    }
+
+    @Test
+    void wideGates_foldPlanes() {
+        assertEquals(ZERO, eval(new AndGate("A", 5), ONE, X, ZERO, X, ONE));
+        assertEquals(X, eval(new AndGate("A", 3), ONE, X, ONE));
+        assertEquals(ONE, eval(new NandGate("N", 3), X, ZERO, X));
+        assertEquals(ZERO, eval(new NorGate("N", 4), ZERO, X, ONE, ZERO));
+        assertEquals(ONE, eval(new XnorGate("X", 3), ONE, ONE, ZERO));
+        assertEquals(X, eval(new XorGate("X", 3), ONE, X, ZERO));
+        assertEquals(X, eval(new BufGate("B"), Z));
+    }
+
+    @Test
+    void undrivenPin_readsAsX_andInputsStartAtX() {
+        Circuit c = new Circuit();
+        AndGate and = new AndGate("A");
+        c.addGate(and);
+        c.connectPrimaryInput("I", and, 0);   // pin 1 left undriven
+        c.addPrimaryOutput(and);
+        FourValuedSimulator sim = new FourValuedSimulator(c);
+        assertEquals(X, sim.getOutput(0));
+        sim.setPrimaryInput("I", ONE);
+        assertEquals(X, sim.getOutput(0));
+        sim.setPrimaryInput("I", ZERO);
+        assertEquals(ZERO, sim.getOutput(0));
+    }
+
+    @Test
+    void composites_areExactOverUnknownInputs() {
+        // Sel, D0, D1: a known select ignores X on the other data input
+        assertEquals(ONE, eval(new Mux2("M"), ZERO, ONE, X));
+        assertEquals(X, eval(new Mux2("M"), ONE, ONE, X));
+        // X select with equal data is still known
+        assertEquals(ONE, eval(new Mux2("M"), X, ONE, ONE));
+
+        // A + 1 + 1 with A unknown: SUM = A is X, but Cout is 1 either way
+        Circuit c = single(new FullAdder("FA"));
+        NotGate coutN = new NotGate("COUT_N");
+        c.addGate(coutN);
+        c.addWire(new Wire(c.getGates().get(0), 1, coutN, 0));
+        c.addPrimaryOutput(coutN);
+        FourValuedSimulator sim = new FourValuedSimulator(c);
+        sim.setInput(0, X);
+        sim.setInput(1, ONE);
+        sim.setInput(2, ONE);
+        assertEquals(X, sim.getOutput(0));
+        assertEquals(ZERO, sim.getOutput(1));
+    }
+
+    @Test
+    void lookupGates_matchEnumerationPerLane() {
+        Mux4 mux = new Mux4("M");
+        FourValuedSimulator sim = new FourValuedSimulator(single(mux));
+        Mux4 ref = new Mux4("REF");
+        Random rnd = new Random(5);
+        long[] ones = new long[6], zeros = new long[6];
+        for (int round = 0; round < 20; round++) {
+            // Each lane of each input is 0, 1 or X
+            for (int i = 0; i < 6; i++) {
+                long known = rnd.nextLong() | rnd.nextLong(), v = rnd.nextLong();
+                ones[i] = v | ~known;
+                zeros[i] = ~v | ~known;
+                sim.setInputPlanes(i, ones[i], zeros[i]);
+            }
+            long pins = mux.getInputBits();
+            long one = sim.getOutputOne(0), zero = sim.getOutputZero(0);
+            assertEquals(pins, mux.getInputBits(), "the circuit's gate is not evaluated");
+            for (int lane = 0; lane < 64; lane++) {
+                boolean canOne = false, canZero = false;
+                for (int a = 0; a < 64; a++) {
+                    boolean fits = true;
+                    for (int i = 0; i < 6; i++) {
+                        long plane = ((a >>> i) & 1) != 0 ? ones[i] : zeros[i];
+                        fits &= ((plane >>> lane) & 1L) != 0;
+                    }
+                    if (!fits) continue;
+                    ref.setInputBits(a);
+                    ref.evaluate();
+                    canOne |= ref.getOutput(0);
+                    canZero |= !ref.getOutput(0);
+                }
+                assertEquals(canOne, ((one >>> lane) & 1L) != 0, "lane " + lane);
+                assertEquals(canZero, ((zero >>> lane) & 1L) != 0, "lane " + lane);
+            }
+        }
+    }
+
+    @Test
+    void opaqueGate_keepsItsPins() {
+        // A majority gate with no opcode and no table goes through per-lane enumeration
+        Gate maj = new Gate("MAJ", 3, 1) {
+            @Override
+            public void evaluate() {
+                outputBits = Long.bitCount(inputBits) >= 2 ? 1L : 0L;
+            }
+        };
+        maj.setInputBits(0b101);
+        maj.evaluate();
+        FourValuedSimulator sim = new FourValuedSimulator(single(maj));
+        sim.setInputPlanes(0, 0b01L, 0b10L);          // lane 0: 1, lane 1: 0
+        sim.setInputPlanes(1, -1L, -1L);              // X
+        sim.setInputPlanes(2, 0b01L, 0b10L);
+        assertEquals(0b01L, sim.getOutputOne(0) & 0b11L);
+        assertEquals(0b10L, sim.getOutputZero(0) & 0b11L);
+        assertEquals(0b101L, maj.getInputBits());
+        assertEquals(1L, maj.getOutputBits());
+    }
+
+    @Test
+    void knownInputs_matchTwoValuedEngine() {
+        Circuit c = CompiledCircuitTest.rippleAdder(5);
+        FourValuedSimulator sim = new FourValuedSimulator(c);
+        CompiledCircuit ref = CompiledCircuit.compile(c);
+        Random rnd = new Random(17);
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < ref.getNumInputs(); i++) {
+                long w = rnd.nextLong();
+                ref.setInputWord(i, w);
+                sim.setInputPlanes(i, w, ~w);
+            }
+            ref.propagate();
+            for (int o = 0; o < ref.getNumOutputs(); o++) {
+                assertEquals(ref.getOutputWord(o), sim.getOutputOne(o), "output " + o);
+                assertEquals(~ref.getOutputWord(o), sim.getOutputZero(o), "output " + o);
+            }
+        }
+    }
+
+    @Test
+    void lanes_mixKnownAndUnknown() {
+        FourValuedSimulator sim = new FourValuedSimulator(single(new AndGate("A")));
+        // lane 0: 1 & 1, lane 1: X & 1, lane 2: X & 0, lane 3: Z & 1
+        sim.setInputPlanes(0, 0b0111L, 0b0110L);
+        sim.setInputPlanes(1, 0b1011L, 0b0100L);
+        assertEquals(0b1011L, sim.getOutputOne(0) & 0xF);
+        assertEquals(0b1110L, sim.getOutputZero(0) & 0xF);
+    }
+
+    /** Toggle flip-flop with synchronous reset: D = NOT Q, EN = 1, RST from input "RST". */
+    private static Circuit toggle() {
+        Circuit c = new Circuit();
+        EnabledDFlipFlop ff = new EnabledDFlipFlop("Q");
+        NotGate inv = new NotGate("N");
+        c.addGate(ff);
+        c.addGate(inv);
+        c.addWire(new Wire(ff, 0, inv, 0));
+        c.addWire(new Wire(inv, 0, ff, 0));
+        c.connectPrimaryInput("EN", ff, 1);
+        c.connectPrimaryInput("RST", ff, 2);
+        c.addPrimaryOutput(ff);
+        return c;
+    }
+
+    @Test
+    void resetSequence_clearsUnknownState() {
+        FourValuedSimulator sim = new FourValuedSimulator(toggle());
+        sim.setPrimaryInput("EN", ONE);
+        assertEquals(X, sim.getOutput(0), "uninitialized flop");
+
+        sim.setPrimaryInput("RST", ZERO);
+        sim.run(3);
+        assertEquals(X, sim.getOutput(0), "toggling an unknown stays unknown");
+
+        sim.setPrimaryInput("RST", X);
+        sim.clock();
+        assertEquals(X, sim.getOutput(0), "unknown reset");
+
+        sim.setPrimaryInput("RST", ONE);
+        sim.clock();
+        assertEquals(ZERO, sim.getOutput(0));
+
+        sim.setPrimaryInput("RST", ZERO);
+        for (int i = 1; i <= 4; i++) {
+            sim.clock();
+            assertEquals(Logic.of(i % 2 == 1), sim.getOutput(0), "cycle " + i);
+        }
+
+        // An unknown enable keeps the bit only where D equals Q, which a toggle never has
+        sim.setPrimaryInput("EN", X);
+        sim.clock();
+        assertEquals(X, sim.getOutput(0));
+        assertEquals(10, sim.getCycleCount());
+    }
+
+    @Test
+    void logicValue_planesRoundTrip() {
+        for (Logic v : Logic.values()) assertEquals(v, Logic.fromPlanes(v.one(), v.zero()));
+        assertTrue(ONE.toBoolean());
+        assertThrows(IllegalStateException.class, X::toBoolean);
+    }
+}
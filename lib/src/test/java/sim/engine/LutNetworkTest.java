@@ -0,0 +1,111 @@
+package sim.engine;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import sim.core.*;
+import sim.core.composite.FullAdder;
+import sim.core.composite.Mux4;
+
+import java.util.List;
+import java.util.Random;
+
+public class LutNetworkTest {
+
+    /** Compares the network with {@link Circuit#propagate()} on random input vectors. */
+    private static void assertMatchesCircuit(Circuit c, LutNetwork net, int rounds) {
+        assertEquals(c.getPrimaryInputBindings().size(), net.getNumInputs());
+        Random rnd = new Random(23);
+        boolean[] out = new boolean[net.getNumOutputs()];
+        for (int r = 0; r < rounds; r++) {
+            for (int i = 0; i < net.getNumInputs(); i++) {
+                boolean v = rnd.nextBoolean();
+                c.setPrimaryInput(net.getInputName(i), v);
+                net.setInput(i, v);
+            }
+            c.propagate();
+            net.propagate();
+            net.readPrimaryOutputs(out);
+            List<Boolean> expected = c.readPrimaryOutputs();
+            for (int o = 0; o < out.length; o++) {
+                assertEquals(expected.get(o), out[o], "round " + r + " output " + o);
+                assertEquals(out[o], net.getOutput(o));
+            }
+        }
+    }
+
+    @Test
+    void rippleAdder_isBitExact_withFarFewerNodes() {
+        Circuit c = CompiledCircuitTest.rippleAdder(16);
+        LutNetwork net = LutNetwork.map(c);
+        assertMatchesCircuit(c, net, 300);
+        assertTrue(net.getNumLuts() * 3 <= Aig.of(c).getNumAnds(),
+                   net.getNumLuts() + " LUTs for " + Aig.of(c).getNumAnds() + " AND nodes");
+        assertTrue(net.getNumLuts() * 2 <= c.getGates().size(),
+                   net.getNumLuts() + " LUTs for " + c.getGates().size() + " gates");
+    }
+
+    @Test
+    void smallerLuts_areStillBitExact() {
+        Circuit c = CompiledCircuitTest.rippleAdder(8);
+        int previous = Integer.MAX_VALUE;
+        for (int k = 2; k <= LutGate.MAX_INPUTS; k++) {
+            LutNetwork net = LutNetwork.map(c, k);
+            assertMatchesCircuit(c, net, 100);
+            assertTrue(net.getNumLuts() <= previous, "k=" + k);
+            previous = net.getNumLuts();
+        }
+    }
+
+    @Test
+    void lookupComposites_andWideGates_areBitExact() {
+        Circuit c = new Circuit();
+        Gate carry = null;
+        for (int i = 0; i < 6; i++) {
+            FullAdder fa = new FullAdder("FA" + i);
+            c.addGate(fa);
+            c.connectPrimaryInput("A" + i, fa, 0);
+            c.connectPrimaryInput("B" + i, fa, 1);
+            if (carry == null) c.connectPrimaryInput("CIN", fa, 2);
+            else c.addWire(new Wire(carry, 1, fa, 2));
+            c.addPrimaryOutput(fa);
+            carry = fa;
+        }
+        Mux4 mux = new Mux4("MUX");
+        c.addGate(mux);
+        c.connectPrimaryInput("S0", mux, 0);
+        c.connectPrimaryInput("S1", mux, 1);
+        for (int d = 0; d < 4; d++) c.connectPrimaryInput("B" + d, mux, 2 + d);
+        c.addPrimaryOutput(mux);
+        assertMatchesCircuit(c, LutNetwork.map(c), 200);
+
+        Circuit wide = CompiledCircuitTest.wideGates();
+        assertMatchesCircuit(wide, LutNetwork.map(wide), 200);
+        assertMatchesCircuit(wide, LutNetwork.map(wide, 3), 200);
+    }
+
+    @Test
+    void constantAndInputOutputs_needNoLuts() {
+        Circuit c = new Circuit();
+        BufGate buf = new BufGate("BUF");
+        NotGate not = new NotGate("NOT");
+        AndGate zero = new AndGate("ZERO");
+        for (Gate g : new Gate[] {buf, not, zero}) c.addGate(g);
+        c.connectPrimaryInput("X", buf, 0);
+        c.addWire(new Wire(buf, 0, not, 0));
+        c.connectPrimaryInput("X", zero, 0);
+        c.addWire(new Wire(not, 0, zero, 1));
+        for (Gate g : new Gate[] {buf, not, zero}) c.addPrimaryOutput(g);
+
+        LutNetwork net = LutNetwork.map(c);
+        assertEquals(0, net.getNumLuts());
+        assertMatchesCircuit(c, net, 8);
+    }
+
+    @Test
+    void invalidLutSize_throws() {
+        Circuit c = CompiledCircuitTest.rippleAdder(1);
+        assertThrows(IllegalArgumentException.class, () -> LutNetwork.map(c, 1));
+        assertThrows(IllegalArgumentException.class, () -> LutNetwork.map(c, 7));
+    }
+}
@@ -0,0 +1,83 @@
+package sim.engine;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import sim.core.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelSimulatorTest {
+
+    /** {@code width} XOR gates per level over {@code depth} levels, each reading two gates below. */
+    private static Circuit wideMesh(int width, int depth) {
+        Circuit c = new Circuit();
+        Gate[] prev = new Gate[width];
+        for (int i = 0; i < width; i++) {
+            prev[i] = new NotGate("L0_" + i);
+            c.addGate(prev[i]);
+            c.connectPrimaryInput("IN" + (i % 16), prev[i], 0);
+        }
+        for (int d = 1; d < depth; d++) {
+            Gate[] cur = new Gate[width];
+            for (int i = 0; i < width; i++) {
+                cur[i] = (i % 3 == 0) ? new AndGate("L" + d + "_" + i)
+                       : (i % 3 == 1) ? new OrGate("L" + d + "_" + i)
+                       : new XorGate("L" + d + "_" + i);
+                c.addGate(cur[i]);
+                c.addWire(new Wire(prev[i], 0, cur[i], 0));
+                c.addWire(new Wire(prev[(i * 7 + 1) % width], 0, cur[i], 1));
+            }
+            prev = cur;
+        }
+        for (Gate g : prev) c.addPrimaryOutput(g);
+        return c;
+    }
+
+    @Test
+    void levelsSplitAcrossPool_matchCompiled() {
+        Circuit c = wideMesh(500, 6);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelSimulator par = new ParallelSimulator(c, pool, 64, 32);
+            CompiledCircuit ref = CompiledCircuit.compile(c);
+            assertEquals(6, par.getLevelCount());
+
+            Random rnd = new Random(11);
+            for (int round = 0; round < 5; round++) {
+                for (int i = 0; i < 16; i++) {
+                    long w = rnd.nextLong();
+                    par.setInputWord(i, w);
+                    ref.setInputWord(i, w);
+                }
+                par.propagate();
+                ref.propagate();
+                for (int o = 0; o < ref.getNumOutputs(); o++) {
+                    assertEquals(ref.getOutputWord(o), par.getOutputWord(o), "output " + o);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void smallLevelsRunSerially() {
+        Circuit c = CompiledCircuitTest.rippleAdder(4);
+        ParallelSimulator par = new ParallelSimulator(c);
+        par.setPrimaryInput("A0", true);
+        par.setPrimaryInput("B0", true);
+        par.propagate();
+        assertFalse(par.getOutput(0));
+        assertTrue(par.getOutput(1));
+    }
+
+    @Test
+    void badArguments_throw() {
+        Circuit c = CompiledCircuitTest.rippleAdder(1);
+        assertThrows(IllegalArgumentException.class, () -> new ParallelSimulator(c, null, 1, 1));
+        assertThrows(IllegalArgumentException.class,
+                     () -> new ParallelSimulator(c, ForkJoinPool.commonPool(), 0, 1));
+    }
+}
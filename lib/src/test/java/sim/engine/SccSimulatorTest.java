@@ -0,0 +1,156 @@
+package sim.engine;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import sim.core.*;
+
+import java.util.Random;
+
+public class SccSimulatorTest {
+
+    /** NOR from OR + NOT; returns the NOT, whose output is the NOR output. */
+    private static Gate nor(Circuit c, String id, Gate[] orOut) {
+        OrGate or = new OrGate(id + "_OR");
+        NotGate not = new NotGate(id);
+        c.addGate(or);
+        c.addGate(not);
+        c.addWire(new Wire(or, 0, not, 0));
+        orOut[0] = or;
+        return not;
+    }
+
+    /** Cross-coupled NOR latch: Q = NOR(R, QN), QN = NOR(S, Q); outputs Q, QN. */
+    private static Circuit srLatch() {
+        Circuit c = new Circuit();
+        Gate[] orQ = new Gate[1], orQn = new Gate[1];
+        Gate q = nor(c, "Q", orQ);
+        Gate qn = nor(c, "QN", orQn);
+        c.connectPrimaryInput("R", orQ[0], 0);
+        c.addWire(new Wire(qn, 0, orQ[0], 1));
+        c.connectPrimaryInput("S", orQn[0], 0);
+        c.addWire(new Wire(q, 0, orQn[0], 1));
+        c.addPrimaryOutput(q);
+        c.addPrimaryOutput(qn);
+        return c;
+    }
+
+    @Test
+    void srLatch_setsResetsAndHolds() {
+        Circuit c = srLatch();
+        assertTrue(c.hasCycle());
+        SccSimulator sim = new SccSimulator(c);
+        assertEquals(1, sim.getLoops().size());
+        assertEquals(4, sim.getLoops().get(0).size());
+
+        sim.setPrimaryInput("S", true);
+        assertTrue(sim.propagate());
+        assertTrue(sim.getOutput(0));
+        assertFalse(sim.getOutput(1));
+
+        sim.setPrimaryInput("S", false);   // hold
+        assertTrue(sim.propagate());
+        assertTrue(sim.getOutput(0));
+
+        sim.setPrimaryInput("R", true);
+        assertTrue(sim.propagate());
+        assertFalse(sim.getOutput(0));
+        assertTrue(sim.getOutput(1));
+
+        sim.setPrimaryInput("R", false);   // hold
+        assertTrue(sim.propagate());
+        assertFalse(sim.getOutput(0));
+    }
+
+    @Test
+    void oddRing_isReportedAsUnstable() {
+        Circuit c = new Circuit();
+        NotGate[] ring = new NotGate[3];
+        for (int i = 0; i < 3; i++) c.addGate(ring[i] = new NotGate("N" + i));
+        for (int i = 0; i < 3; i++) c.addWire(new Wire(ring[i], 0, ring[(i + 1) % 3], 0));
+        AndGate tail = new AndGate("TAIL");
+        c.addGate(tail);
+        c.addWire(new Wire(ring[2], 0, tail, 0));
+        c.addPrimaryOutput(tail);
+
+        SccSimulator sim = new SccSimulator(c, 50);
+        assertFalse(sim.propagate());
+        assertEquals(1, sim.getUnstableLoops().size());
+        assertEquals(3, sim.getUnstableLoops().get(0).size());
+        assertEquals(50 * 3 + 1, sim.getLastEvaluationCount(), "only the ring is iterated");
+    }
+
+    @Test
+    void selfLoop_isALoop() {
+        Circuit c = new Circuit();
+        OrGate hold = new OrGate("HOLD");   // OUT = IN OR OUT: sticks at 1 once set
+        c.addGate(hold);
+        c.connectPrimaryInput("IN", hold, 0);
+        c.addWire(new Wire(hold, 0, hold, 1));
+        c.addPrimaryOutput(hold);
+
+        SccSimulator sim = new SccSimulator(c);
+        assertEquals(1, sim.getLoops().size());
+        sim.setPrimaryInput("IN", true);
+        assertTrue(sim.propagate());
+        sim.setPrimaryInput("IN", false);
+        assertTrue(sim.propagate());
+        assertTrue(sim.getOutput(0));
+    }
+
+    @Test
+    void acyclicCircuit_matchesCompiled() {
+        Circuit c = CompiledCircuitTest.rippleAdder(6);
+        SccSimulator sim = new SccSimulator(c);
+        CompiledCircuit ref = CompiledCircuit.compile(c);
+        assertTrue(sim.getLoops().isEmpty());
+
+        Random rnd = new Random(8);
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < ref.getNumInputs(); i++) {
+                boolean v = rnd.nextBoolean();
+                sim.setInput(i, v);
+                ref.setInput(i, v);
+            }
+            assertTrue(sim.propagate());
+            ref.propagate();
+            assertEquals(c.getGates().size(), sim.getLastEvaluationCount());
+            for (int o = 0; o < ref.getNumOutputs(); o++) {
+                assertEquals(ref.getOutput(o), sim.getOutput(o), "output " + o);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new SccSimulator(c, 0));
+    }
+
+    @Test
+    void multiplyDrivenPin_latestTopologicalSourceWins() {
+        Circuit c = new Circuit();
+        NotGate early = new NotGate("EARLY");
+        NotGate late = new NotGate("LATE");
+        OrGate sink = new OrGate("SINK");
+        c.addGate(early);
+        c.addGate(late);
+        c.addGate(sink);
+        c.connectPrimaryInput("X", early, 0);
+        c.addWire(new Wire(early, 0, late, 0));
+        // Added in reverse topological order: LATE's wire first, EARLY's last
+        c.addWire(new Wire(late, 0, sink, 0));
+        c.addWire(new Wire(early, 0, sink, 0));
+        c.addPrimaryOutput(sink);
+
+        SccSimulator sim = new SccSimulator(c);
+        for (boolean x : new boolean[] {false, true}) {
+            c.setPrimaryInput("X", x);
+            c.propagate();
+            sim.setPrimaryInput("X", x);
+            assertTrue(sim.propagate());
+            assertEquals(x, sim.getOutput(0), "LATE drives the pin");
+            assertEquals(c.readPrimaryOutputs().get(0), sim.getOutput(0));
+        }
+
+        // Without a topological order there is nothing to break the tie with
+        Circuit latch = srLatch();
+        latch.addWire(new Wire(latch.getGates().get(0), 0, latch.getGates().get(1), 0));
+        assertThrows(IllegalArgumentException.class, () -> new SccSimulator(latch));
+    }
+}
@@ -0,0 +1,87 @@
+package sim.engine;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import sim.core.*;
+
+import java.util.List;
+import java.util.Random;
+
+public class TimingSimulatorTest {
+
+    @Test
+    void staticHazard_showsAsGlitch() {
+        // OUT = A AND NOT A: logically always 0, but the inverter delay opens a one-tick window
+        Circuit c = new Circuit();
+        NotGate not = new NotGate("N");
+        AndGate and = new AndGate("AND");
+        c.addGate(not);
+        c.addGate(and);
+        c.connectPrimaryInput("A", not, 0);
+        c.connectPrimaryInput("A", and, 0);
+        c.addWire(new Wire(not, 0, and, 1));
+        c.addPrimaryOutput(and);
+
+        TimingSimulator sim = new TimingSimulator(c, 1);
+        List<TimingSimulator.Transition> t = sim.step(sim.inputIndex("A"), true);
+        assertEquals(List.of(new TimingSimulator.Transition(1, 0, true),
+                             new TimingSimulator.Transition(2, 0, false)), t);
+        assertEquals(2, sim.getTime());
+
+        // Falling A: AND sees A=0 first, so no pulse
+        sim.advance(10);
+        assertTrue(sim.step(sim.inputIndex("A"), false).isEmpty());
+    }
+
+    @Test
+    void perKindDelays_shiftTransitions() {
+        // 1-bit full adder with XOR = 3 ticks, AND/OR = 1 tick: sum settles after two XORs
+        Circuit c = CompiledCircuitTest.rippleAdder(1);
+        TimingSimulator sim = new TimingSimulator(c, g -> g instanceof XorGate ? 3 : 1);
+        List<TimingSimulator.Transition> t = sim.step(sim.inputIndex("A0"), true);
+        assertEquals(List.of(new TimingSimulator.Transition(6, 0, true)), t);
+        assertTrue(sim.getOutput(0));
+        assertFalse(sim.getOutput(1));
+    }
+
+    @Test
+    void rippleAdder_settlesToCompiledValues_inTimeOrder() {
+        Circuit c = CompiledCircuitTest.rippleAdder(8);
+        TimingSimulator sim = new TimingSimulator(c, g -> 1 + g.getId().length() % 3);
+        CompiledCircuit ref = CompiledCircuit.compile(c);
+        boolean[] last = new boolean[ref.getNumOutputs()];
+        for (int o = 0; o < last.length; o++) last[o] = sim.getOutput(o);
+
+        Random rnd = new Random(21);
+        for (int round = 0; round < 200; round++) {
+            int in = rnd.nextInt(ref.getNumInputs());
+            boolean v = rnd.nextBoolean();
+            ref.setInput(in, v);
+            ref.propagate();
+
+            long prevTime = sim.getTime();
+            for (TimingSimulator.Transition tr : sim.step(in, v)) {
+                assertTrue(tr.time() >= prevTime, "time-ordered");
+                assertNotEquals(last[tr.output()], tr.value(), "a transition changes the value");
+                last[tr.output()] = tr.value();
+                prevTime = tr.time();
+            }
+            for (int o = 0; o < last.length; o++) {
+                assertEquals(ref.getOutput(o), sim.getOutput(o), "output " + o + " round " + round);
+                assertEquals(last[o], sim.getOutput(o));
+            }
+            sim.advance(rnd.nextInt(4));
+        }
+    }
+
+    @Test
+    void badArguments_throw() {
+        Circuit c = CompiledCircuitTest.rippleAdder(1);
+        assertThrows(IllegalArgumentException.class, () -> new TimingSimulator(c, 0));
+        TimingSimulator sim = new TimingSimulator(c, 1);
+        assertThrows(IllegalArgumentException.class, () -> sim.advance(-1));
+        sim.setInput(0, true);
+        assertThrows(IllegalStateException.class, () -> sim.advance(1));
+    }
+}
@@ -0,0 +1,88 @@
+package sim.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import sim.core.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+public class TruthTablesTest {
+
+    @Test
+    void adder_everyMintermMatchesArithmetic(@TempDir Path dir) throws IOException {
+        int bits = 6;
+        Circuit c = CompiledCircuitTest.rippleAdder(bits);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        TruthTables.Table table;
+        try {
+            table = TruthTables.exhaustive(c, dir.resolve("adder.bin"), pool);
+        } finally {
+            pool.shutdown();
+        }
+        int n = table.getNumInputs();
+        assertEquals(c.getPrimaryInputBindings().size(), n);
+        int[] a = new int[bits], b = new int[bits];
+        int cin = -1;
+        for (int i = 0; i < n; i++) {
+            String name = table.getInputName(i);
+            if (name.equals("C0")) cin = i;
+            else if (name.startsWith("A")) a[Integer.parseInt(name.substring(1))] = i;
+            else if (name.startsWith("B")) b[Integer.parseInt(name.substring(1))] = i;
+        }
+        for (long m = 0; m < 1L << n; m++) {
+            int x = 0, y = 0;
+            for (int bit = 0; bit < bits; bit++) {
+                x |= (int) ((m >>> a[bit]) & 1) << bit;
+                y |= (int) ((m >>> b[bit]) & 1) << bit;
+            }
+            int sum = x + y + (int) ((m >>> cin) & 1);
+            for (int o = 0; o <= bits; o++) {
+                // Inputs C1.. are overridden by the carry wires, so they must not matter
+                if (table.get(o, m) != (((sum >>> o) & 1) != 0)) {
+                    fail("minterm " + m + " output " + o);
+                }
+            }
+        }
+
+        // Columns are little-endian longs, one after the other
+        ByteBuffer raw = ByteBuffer.wrap(Files.readAllBytes(table.getFile())).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals((bits + 1) * table.getWordsPerOutput() * 8, raw.capacity());
+        long w = table.getWordsPerOutput() - 3;
+        assertEquals(table.getWord(bits, w), raw.getLong((int) ((bits * table.getWordsPerOutput() + w) * 8)));
+    }
+
+    @Test
+    void fewerThanSixInputs_fillOnlyTheirRows() {
+        Circuit c = new Circuit();
+        XorGate parity = new XorGate("P", 3);
+        AndGate one = new AndGate("ONE", 0);
+        c.addGate(parity);
+        c.addGate(one);
+        for (int i = 0; i < 3; i++) c.connectPrimaryInput("I" + i, parity, i);
+        c.addPrimaryOutput(parity);
+        c.addPrimaryOutput(one);
+
+        TruthTables.Table table = TruthTables.exhaustive(c);
+        assertEquals(1, table.getWordsPerOutput());
+        assertEquals(0x96L, table.getWord(0, 0));
+        assertEquals(0xFFL, table.getWord(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> table.get(0, 8));
+    }
+
+    @Test
+    void tooManyInputs_throw() {
+        Circuit c = new Circuit();
+        XorGate wide = new XorGate("WIDE", TruthTables.MAX_INPUTS + 1);
+        c.addGate(wide);
+        for (int i = 0; i < wide.getNumInputs(); i++) c.connectPrimaryInput("I" + i, wide, i);
+        c.addPrimaryOutput(wide);
+        assertThrows(IllegalArgumentException.class, () -> TruthTables.exhaustive(c));
+    }
+}
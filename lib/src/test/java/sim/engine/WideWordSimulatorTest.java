@@ -0,0 +1,66 @@
+package sim.engine;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import sim.core.Circuit;
+
+import java.util.Random;
+
+public class WideWordSimulatorTest {
+
+    /** Runs the same random patterns through a wide simulator and 64-lane CompiledCircuit passes. */
+    private static void assertMatchesCompiled(WideWordSimulator sim, Circuit c) {
+        CompiledCircuit ref = CompiledCircuit.compile(c);
+        int bw = sim.getPatternCount() / 64;
+        int nIn = ref.getNumInputs(), nOut = ref.getNumOutputs();
+        Random rnd = new Random(7);
+
+        long[][] in = new long[nIn][bw];
+        for (int i = 0; i < nIn; i++) {
+            for (int w = 0; w < bw; w++) in[i][w] = rnd.nextLong();
+            sim.setInput(i, in[i]);
+        }
+        sim.propagate();
+
+        long[] block = new long[bw];
+        for (int w = 0; w < bw; w++) {
+            for (int i = 0; i < nIn; i++) ref.setInputWord(i, in[i][w]);
+            ref.propagate();
+            for (int o = 0; o < nOut; o++) {
+                sim.readOutput(o, block);
+                assertEquals(ref.getOutputWord(o), block[w], "output " + o + " word " + w);
+            }
+        }
+    }
+
+    @Test
+    void wideAdder_matchesCompiled() {
+        Circuit c = CompiledCircuitTest.rippleAdder(8);
+        WideWordSimulator sim = new WideWordSimulator(c, 512);
+        assertEquals(512, sim.getPatternCount());
+        assertMatchesCompiled(sim, c);
+    }
+
+    @Test
+    void scalarFallback_matchesCompiled() {
+        Circuit c = CompiledCircuitTest.rippleAdder(8);
+        WideWordSimulator sim = new WideWordSimulator(CompiledCircuit.compile(c), 256, false);
+        assertFalse(sim.isVectorized());
+        assertMatchesCompiled(sim, c);
+    }
+
+    @Test
+    void preferred_isAtLeastOneWord() {
+        WideWordSimulator sim = WideWordSimulator.preferred(CompiledCircuitTest.rippleAdder(2));
+        assertTrue(sim.getPatternCount() >= 64);
+    }
+
+    @Test
+    void badPatternCount_throws() {
+        Circuit c = CompiledCircuitTest.rippleAdder(1);
+        assertThrows(IllegalArgumentException.class, () -> new WideWordSimulator(c, 100));
+        WideWordSimulator sim = new WideWordSimulator(c, 128);
+        assertThrows(IllegalArgumentException.class, () -> sim.setInput(0, new long[1]));
+    }
+}